@@ -0,0 +1,65 @@
+package summarizer;
+
+import summarizer.domain.ReleaseSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Realistic inputs shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+  private static final Instant FIRST_RELEASE = Instant.parse("2020-01-06T10:15:30Z");
+
+  private BenchmarkData() {}
+
+  /**
+   * @return a summary the size of a typical model response, around 1.5 kB
+   */
+  public static String summaryMarkdown(long releaseId) {
+    return """
+        ## ✨ Features
+        * Support for configuring the request timeout per endpoint ([#%1$d](https://github.com/example-org/example-lib/pull/%1$d))
+        * New `Duration` based overloads for all timeout settings ([#%2$d](https://github.com/example-org/example-lib/pull/%2$d))
+        * Metrics for connection pool usage, exposed through the existing metrics extension ([#%3$d](https://github.com/example-org/example-lib/pull/%3$d))
+
+        ## 🐛 Bug fixes
+        * Fixed a rare deadlock when the connection pool was shut down while requests were in flight ([#%4$d](https://github.com/example-org/example-lib/issues/%4$d))
+        * Headers with empty values are no longer dropped when forwarding requests ([#%5$d](https://github.com/example-org/example-lib/issues/%5$d))
+        * Retries now respect the `Retry-After` header of `503` responses ([#%6$d](https://github.com/example-org/example-lib/pull/%6$d))
+
+        ## 📚 Documentation
+        * Clarified how to configure TLS for client certificates ([#%7$d](https://github.com/example-org/example-lib/pull/%7$d))
+
+        ## 📦 Dependency updates
+        * Jackson 2.17.1 → 2.17.2, addressing CVE-2024-00000 ([#%8$d](https://github.com/example-org/example-lib/pull/%8$d))
+        * SLF4J 2.0.13 → 2.0.16, Netty 4.1.111 → 4.1.112 ([#%9$d](https://github.com/example-org/example-lib/pull/%9$d))
+        """.formatted(releaseId * 10 + 1, releaseId * 10 + 2, releaseId * 10 + 3, releaseId * 10 + 4, releaseId * 10 + 5,
+        releaseId * 10 + 6, releaseId * 10 + 7, releaseId * 10 + 8, releaseId * 10 + 9);
+  }
+
+  /**
+   * @return summary of a release published a week after the previous one
+   */
+  public static ReleaseSummary releaseSummary(long releaseId) {
+    var publishedAt = FIRST_RELEASE.plus(Duration.ofDays(7 * releaseId));
+    return new ReleaseSummary("v1." + releaseId + ".0", releaseId, publishedAt.plusSeconds(90), summaryMarkdown(releaseId),
+        Optional.of(publishedAt));
+  }
+
+  /**
+   * @param name of a file in src/jmh/resources/benchmark
+   */
+  public static byte[] resource(String name) {
+    try (var in = BenchmarkData.class.getResourceAsStream("/benchmark/" + name)) {
+      if (in == null) throw new IllegalArgumentException("No benchmark resource [" + name + "]");
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package summarizer.api;
+
+import akka.util.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import summarizer.BenchmarkData;
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryState;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Rendering the markdown returned from {@code GET /repo/{owner}/{repo}/summaries}, up to all summaries an entity keeps
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkdownRenderingBenchmark {
+
+  @Param({"1", "" + RepositoryState.MAX_SUMMARIES})
+  int summaries;
+
+  private List<ReleaseSummary> releaseSummaries;
+
+  @Setup
+  public void setUp() {
+    releaseSummaries = LongStream.rangeClosed(1, summaries).map(i -> summaries + 1 - i)
+        .mapToObj(BenchmarkData::releaseSummary)
+        .toList();
+  }
+
+  @Benchmark
+  public List<ByteString> render() {
+    return GitHubRepositoryEndpoint.markdownChunks(releaseSummaries);
+  }
+}
@@ -0,0 +1,71 @@
+package summarizer.domain;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import summarizer.BenchmarkData;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and (de)serialization cost of summary events as JSON, plain and with the summary gzipped, the serialized size is
+ * reported as the {@code eventBytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventSizeBenchmark {
+
+  @Param({"false", "true"})
+  boolean compressed;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class EventSize {
+    public long eventBytes;
+  }
+
+  private ObjectMapper objectMapper;
+  private RepositoryEvent event;
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = JsonSupport.getObjectMapper();
+    var summary = BenchmarkData.releaseSummary(42);
+    event = compressed ? RepositoryEvent.CompressedSummaryAdded.of(summary) : new RepositoryEvent.SummaryAdded(summary);
+    serialized = objectMapper.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public byte[] serialize(EventSize eventSize) throws IOException {
+    var bytes = objectMapper.writeValueAsBytes(event);
+    eventSize.eventBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public ReleaseSummary deserialize() throws IOException {
+    var deserialized = objectMapper.readValue(serialized, event.getClass());
+    return switch (deserialized) {
+      case RepositoryEvent.SummaryAdded summaryAdded -> summaryAdded.summary();
+      case RepositoryEvent.CompressedSummaryAdded summaryAdded -> summaryAdded.summary();
+      default -> throw new IllegalStateException("Unexpected event " + deserialized);
+    };
+  }
+}
@@ -0,0 +1,75 @@
+package summarizer.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import summarizer.BenchmarkData;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovering a repository entity from its journal, and applying one more event to a recovered one. The entity
+ * applies events with {@link RepositoryState#applyEvent(RepositoryState, RepositoryEvent)}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryStateBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  int events;
+
+  @Param({"false", "true"})
+  boolean compressed;
+
+  private List<RepositoryEvent> journal;
+  private RepositoryState recovered;
+  private RepositoryEvent nextEvent;
+
+  @Setup
+  public void setUp() {
+    journal = new ArrayList<>(events + 1);
+    journal.add(new RepositoryEvent.Created(Instant.parse("2020-01-01T00:00:00Z"), Optional.empty(), Optional.empty()));
+    for (long releaseId = 1; releaseId <= events; releaseId++) {
+      journal.add(summaryAdded(releaseId));
+    }
+    recovered = replay();
+    nextEvent = summaryAdded(events + 1);
+  }
+
+  private RepositoryEvent summaryAdded(long releaseId) {
+    var summary = BenchmarkData.releaseSummary(releaseId);
+    return compressed ? RepositoryEvent.CompressedSummaryAdded.of(summary) : new RepositoryEvent.SummaryAdded(summary);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public RepositoryState replay() {
+    RepositoryState state = null;
+    for (var event : journal) {
+      state = RepositoryState.applyEvent(state, event);
+    }
+    return state;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public RepositoryState applyEvent() {
+    return RepositoryState.applyEvent(recovered, nextEvent);
+  }
+}
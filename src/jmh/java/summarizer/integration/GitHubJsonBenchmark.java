@@ -0,0 +1,144 @@
+package summarizer.integration;
+
+import akka.javasdk.JsonSupport;
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import summarizer.BenchmarkData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing GitHub API responses from full size payloads including the fields that are ignored, with the streaming
+ * {@link GitHubJsonParser} used by {@link GitHubApiClient} ({@code stream*}) compared to binding the whole response
+ * with the object mapper ({@code bind*}). Run with the benchmarks profile for allocation per response
+ * ({@code gc.alloc.rate.norm}) next to throughput.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GitHubJsonBenchmark {
+
+  /**
+   * Same limits as the defaults in application.conf
+   */
+  private final GitHubJsonParser parser = new GitHubJsonParser(400000, 20000);
+
+  private ByteString release;
+  private ByteString issue;
+
+  /**
+   * A page of releases, as when catching up on missed releases
+   */
+  @State(Scope.Benchmark)
+  public static class ReleasePage {
+    @Param({"5", "30"})
+    int releases;
+
+    ByteString json;
+
+    @Setup
+    public void setUp() {
+      var release = new String(BenchmarkData.resource("release.json"), StandardCharsets.UTF_8);
+      json = ByteString.fromString("[" + String.join(",", Collections.nCopies(releases, release)) + "]");
+    }
+  }
+
+  /**
+   * An issue with a very long description, like one with pasted logs, truncated by the streaming parser
+   */
+  @State(Scope.Benchmark)
+  public static class LargeIssue {
+    @Param({"256"})
+    int bodyKilobytes;
+
+    ByteString json;
+
+    @Setup
+    public void setUp() throws IOException {
+      var issue = (ObjectNode) JsonSupport.getObjectMapper().readTree(BenchmarkData.resource("issue.json"));
+      var line = "2024-08-01 09:12:44.123 ERROR [pool-3-thread-7] c.e.ConnectionPool - Timed out waiting for connection\n";
+      issue.put("body", line.repeat(bodyKilobytes * 1024 / line.length()));
+      json = ByteString.fromArray(JsonSupport.getObjectMapper().writeValueAsBytes(issue));
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    release = ByteString.fromArray(BenchmarkData.resource("release.json"));
+    issue = ByteString.fromArray(BenchmarkData.resource("issue.json"));
+  }
+
+  @Benchmark
+  public GitHubApiClient.ReleaseDetails bindRelease() {
+    return bind(release, GitHubApiClient.ReleaseDetails.class);
+  }
+
+  @Benchmark
+  public GitHubApiClient.ReleaseDetails streamRelease() {
+    return parser.release(release);
+  }
+
+  @Benchmark
+  public GitHubApiClient.IssueDetails bindIssue() {
+    return bind(issue, GitHubApiClient.IssueDetails.class);
+  }
+
+  @Benchmark
+  public GitHubApiClient.IssueDetails streamIssue() {
+    return parser.issue(issue);
+  }
+
+  @Benchmark
+  public GitHubApiClient.IssueDetails bindLargeIssue(LargeIssue largeIssue) {
+    return bind(largeIssue.json, GitHubApiClient.IssueDetails.class);
+  }
+
+  @Benchmark
+  public GitHubApiClient.IssueDetails streamLargeIssue(LargeIssue largeIssue) {
+    return parser.issue(largeIssue.json);
+  }
+
+  @Benchmark
+  public List<GitHubApiClient.ReleaseDetails> bindReleaseList(ReleasePage page) {
+    try {
+      return JsonSupport.getObjectMapper().readerForListOf(GitHubApiClient.ReleaseDetails.class).readValue(page.json.toArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Benchmark
+  public List<GitHubApiClient.ReleaseDetails> streamReleaseList(ReleasePage page) {
+    return parser.releases(page.json);
+  }
+
+  /**
+   * How responses were parsed before the streaming parser
+   */
+  private static <T> T bind(ByteString bytes, Class<T> type) {
+    try {
+      return JsonSupport.getObjectMapper().readValue(bytes.toArray(), type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
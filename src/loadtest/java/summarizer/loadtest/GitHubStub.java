@@ -0,0 +1,254 @@
+package summarizer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.typesafe.config.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Emulates the parts of the GitHub API the service uses: the latest release with ETags and 304 responses, listing
+ * releases, issues, and GraphQL queries for the latest release of many repositories, with rate limit headers and
+ * configurable latency.
+ * <p>
+ * Releases are deterministic: every repository publishes a release every {@code release-interval}, the first one right
+ * before the stub was started, offset within the interval by a hash of the repository name so that releases of
+ * different repositories are spread out.
+ */
+final class GitHubStub implements HttpHandler {
+
+  private static final Pattern LATEST_RELEASE = Pattern.compile("^/repos/([^/]+)/([^/]+)/releases/latest$");
+  private static final Pattern RELEASES = Pattern.compile("^/repos/([^/]+)/([^/]+)/releases$");
+  private static final Pattern ISSUE = Pattern.compile("^/repos/([^/]+)/([^/]+)/issues/(\\d+)$");
+  private static final Pattern GRAPHQL_REPOSITORY =
+      Pattern.compile("(\\w+): repository\\(owner: \\$(\\w+), name: \\$(\\w+)\\)");
+  private static final long RELEASE_IDS_PER_REPOSITORY = 1_000_000;
+
+  private record Release(long id, int number, Instant publishedAt) {}
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Instant start = Instant.now();
+  private final Duration releaseInterval;
+  private final int issueReferencesPerRelease;
+  private final Duration latency;
+  private final Duration latencyJitter;
+  private final int rateLimit;
+  private final Map<String, Integer> repositoryIndexes = new ConcurrentHashMap<>();
+  private final AtomicInteger nextRepositoryIndex = new AtomicInteger();
+  private final Map<String, AtomicInteger> usedQuota = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+  final LongAdder graphQlRepositoryLookups = new LongAdder();
+
+  GitHubStub(Config config) {
+    this.releaseInterval = config.getDuration("release-interval");
+    this.issueReferencesPerRelease = config.getInt("issue-references-per-release");
+    this.latency = config.getDuration("github.latency");
+    this.latencyJitter = config.getDuration("github.latency-jitter");
+    this.rateLimit = config.getInt("github.rate-limit");
+  }
+
+  /**
+   * @return number of responses by endpoint and status code, like {@code latest-release 304}
+   */
+  Map<String, Long> responseCounts() {
+    var counts = new TreeMap<String, Long>();
+    responses.forEach((key, count) -> counts.put(key, count.sum()));
+    return counts;
+  }
+
+  long responseCount(String endpoint) {
+    return responses.entrySet().stream()
+        .filter(entry -> entry.getKey().startsWith(endpoint + " "))
+        .mapToLong(entry -> entry.getValue().sum())
+        .sum();
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      simulateLatency(latency, latencyJitter);
+      var path = exchange.getRequestURI().getPath();
+      var token = Optional.ofNullable(exchange.getRequestHeaders().getFirst("Authorization")).orElse("anonymous");
+
+      var latestRelease = LATEST_RELEASE.matcher(path);
+      var releases = RELEASES.matcher(path);
+      var issue = ISSUE.matcher(path);
+      if (latestRelease.matches()) {
+        var release = latestRelease(latestRelease.group(1), latestRelease.group(2));
+        var eTag = "\"" + release.id() + "\"";
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          // not counted against the rate limit
+          exchange.getResponseHeaders().set("ETag", eTag);
+          respond(exchange, "latest-release", token, false, 304, null);
+        } else {
+          exchange.getResponseHeaders().set("ETag", eTag);
+          respond(exchange, "latest-release", token, true, 200,
+              releaseJson(latestRelease.group(1), latestRelease.group(2), release).toString());
+        }
+      } else if (releases.matches()) {
+        var query = query(exchange);
+        var perPage = Integer.parseInt(query.getOrDefault("per_page", "30"));
+        var page = Integer.parseInt(query.getOrDefault("page", "1"));
+        var latest = latestRelease(releases.group(1), releases.group(2));
+        var list = objectMapper.createArrayNode();
+        // newest first
+        for (int number = latest.number() - (page - 1) * perPage; number >= 0 && list.size() < perPage; number--) {
+          list.add(releaseJson(releases.group(1), releases.group(2), release(releases.group(1), releases.group(2), number)));
+        }
+        respond(exchange, "list-releases", token, true, 200, list.toString());
+      } else if (path.equals("/graphql") && exchange.getRequestMethod().equals("POST")) {
+        // GraphQL has a rate limit of its own
+        respond(exchange, "graphql", "graphql " + token, true, 200, graphQlLatestReleases(objectMapper.readTree(exchange.getRequestBody())));
+      } else if (issue.matches()) {
+        respond(exchange, "issue", token, true, 200, issueJson(issue.group(1), issue.group(2), Integer.parseInt(issue.group(3))));
+      } else {
+        respond(exchange, "unknown", token, false, 404, "{\"message\":\"Not Found\"}");
+      }
+    }
+  }
+
+  /**
+   * Only understands the aliased {@code repository} fields with variables for owner and name that the service sends
+   */
+  private String graphQlLatestReleases(JsonNode request) {
+    var variables = request.path("variables");
+    var response = objectMapper.createObjectNode();
+    var data = response.putObject("data");
+    var repository = GRAPHQL_REPOSITORY.matcher(request.path("query").asText());
+    while (repository.find()) {
+      var owner = variables.path(repository.group(2)).asText();
+      var name = variables.path(repository.group(3)).asText();
+      data.putObject(repository.group(1)).putObject("latestRelease").put("databaseId", latestRelease(owner, name).id());
+      graphQlRepositoryLookups.increment();
+    }
+    return response.toString();
+  }
+
+  private Release latestRelease(String owner, String repository) {
+    var sinceFirst = Duration.between(start.minus(releaseInterval).plus(offset(owner, repository)), Instant.now());
+    return release(owner, repository, (int) (sinceFirst.toMillis() / releaseInterval.toMillis()));
+  }
+
+  private Release release(String owner, String repository, int number) {
+    var index = repositoryIndexes.computeIfAbsent(owner + "/" + repository, ignored -> nextRepositoryIndex.getAndIncrement());
+    var publishedAt = start.minus(releaseInterval).plus(offset(owner, repository)).plus(releaseInterval.multipliedBy(number));
+    return new Release((index + 1) * RELEASE_IDS_PER_REPOSITORY + number, number, publishedAt);
+  }
+
+  private Duration offset(String owner, String repository) {
+    return Duration.ofMillis(Math.floorMod((owner + "/" + repository).hashCode(), releaseInterval.toMillis()));
+  }
+
+  private ObjectNode releaseJson(String owner, String repository, Release release) {
+    var tag = "v1." + release.number() + ".0";
+    return objectMapper.createObjectNode()
+        .put("url", "https://api.github.com/repos/" + owner + "/" + repository + "/releases/" + release.id())
+        .put("html_url", "https://github.com/" + owner + "/" + repository + "/releases/tag/" + tag)
+        .put("id", release.id())
+        .put("node_id", "RE_" + release.id())
+        .put("tag_name", tag)
+        .put("target_commitish", "main")
+        .put("name", repository + " " + tag)
+        .put("body", releaseNotes(owner, repository, release))
+        .put("draft", false)
+        .put("prerelease", false)
+        .put("created_at", release.publishedAt().minusSeconds(60).toString())
+        .put("published_at", release.publishedAt().toString());
+  }
+
+  /**
+   * Unique per release, so that the summary cache does not hide the model load
+   */
+  private String releaseNotes(String owner, String repository, Release release) {
+    var notes = new StringBuilder("## What's Changed\n\n### Features\n\n");
+    var firstIssue = release.number() * 100 + 1;
+    for (int i = 0; i < issueReferencesPerRelease; i++) {
+      if (i == issueReferencesPerRelease / 2) notes.append("\n### Bug fixes\n\n");
+      notes.append("* ").append(i < issueReferencesPerRelease / 2 ? "Add " : "Fix ")
+          .append("behaviour ").append(i).append(" of ").append(repository).append(" release ").append(release.number())
+          .append(" by @contributor").append(i % 5).append(" in https://github.com/").append(owner).append('/')
+          .append(repository).append("/pull/").append(firstIssue + i).append(" (#").append(firstIssue + i).append(")\n");
+    }
+    notes.append("\n* Bump com.example:lib from 1.").append(release.number()).append(".0 to 1.").append(release.number() + 1)
+        .append(".0 by @dependabot in https://github.com/").append(owner).append('/').append(repository).append("/pull/")
+        .append(firstIssue + issueReferencesPerRelease).append('\n');
+    return notes.toString();
+  }
+
+  private String issueJson(String owner, String repository, int number) {
+    return objectMapper.createObjectNode()
+        .put("id", number)
+        .put("node_id", "I_" + number)
+        .put("url", "https://api.github.com/repos/" + owner + "/" + repository + "/issues/" + number)
+        .put("html_url", "https://github.com/" + owner + "/" + repository + "/issues/" + number)
+        .put("number", number)
+        .put("state", "closed")
+        .put("title", "Change number " + number + " in " + repository)
+        .put("body", ("A description of change " + number + ", with the motivation for it and how it was tested. ").repeat(10))
+        .toString();
+  }
+
+  private void respond(HttpExchange exchange, String endpoint, String token, boolean countedAgainstRateLimit, int status,
+                       String body) throws IOException {
+    var windowStart = start.plus(Duration.ofHours(Duration.between(start, Instant.now()).toHours()));
+    var quotaKey = token + "@" + windowStart;
+    var used = usedQuota.computeIfAbsent(quotaKey, ignored -> new AtomicInteger());
+    var usedNow = countedAgainstRateLimit ? used.incrementAndGet() : used.get();
+    if (usedNow > rateLimit) {
+      status = 403;
+      body = "{\"message\":\"API rate limit exceeded\"}";
+      usedNow = rateLimit;
+    }
+    var headers = exchange.getResponseHeaders();
+    headers.set("X-RateLimit-Limit", Integer.toString(rateLimit));
+    headers.set("X-RateLimit-Remaining", Integer.toString(rateLimit - usedNow));
+    headers.set("X-RateLimit-Used", Integer.toString(usedNow));
+    headers.set("X-RateLimit-Reset", Long.toString(windowStart.plus(Duration.ofHours(1)).getEpochSecond()));
+    headers.set("X-RateLimit-Resource", "core");
+    responses.computeIfAbsent(endpoint + " " + status, ignored -> new LongAdder()).increment();
+
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+    } else {
+      var bytes = body.getBytes(StandardCharsets.UTF_8);
+      headers.set("Content-Type", "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(status, bytes.length);
+      exchange.getResponseBody().write(bytes);
+    }
+  }
+
+  private static Map<String, String> query(HttpExchange exchange) {
+    var query = new TreeMap<String, String>();
+    var rawQuery = exchange.getRequestURI().getRawQuery();
+    if (rawQuery == null) return query;
+    for (var parameter : rawQuery.split("&")) {
+      var keyValue = parameter.split("=", 2);
+      query.put(keyValue[0], keyValue.length > 1 ? keyValue[1] : "");
+    }
+    return query;
+  }
+
+  static void simulateLatency(Duration latency, Duration jitter) {
+    var millis = latency.toMillis() + (jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1));
+    if (millis <= 0) return;
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package summarizer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline load test: starts the GitHub and model stubs, sets up many repositories in the service running with
+ * {@code load-test.conf}, lets {@code CheckForRelease} poll them for the configured duration, and reports release check
+ * throughput, summary latency percentiles and heap usage of the service, also written as JSON.
+ * <p>
+ * Summary latency is from when the stub published a release until the summary was stored, for releases published
+ * after the repositories were set up.
+ */
+public final class LoadTest {
+
+  private final Config config;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+  private final String serviceUrl;
+  private final String owner;
+
+  private LoadTest(Config config) {
+    this.config = config;
+    this.serviceUrl = config.getString("service-url");
+    this.owner = config.getString("owner");
+  }
+
+  public static void main(String[] args) throws Exception {
+    new LoadTest(ConfigFactory.load("load-test.conf").getConfig("load-test")).run();
+  }
+
+  private void run() throws Exception {
+    var gitHubStub = new GitHubStub(config);
+    var modelStub = new ModelStub(config);
+    var stubServer = HttpServer.create(new InetSocketAddress(config.getInt("stub-port")), 1024);
+    stubServer.createContext("/", gitHubStub);
+    stubServer.createContext("/v1/", modelStub);
+    stubServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    stubServer.start();
+    System.out.println("Stubs listening on port " + config.getInt("stub-port") + ", waiting for the service at " + serviceUrl);
+
+    try {
+      awaitService();
+      var repositories = config.getInt("repositories");
+      var setUpStart = System.nanoTime();
+      setUpRepositories(repositories);
+      var setUpSeconds = (System.nanoTime() - setUpStart) / 1e9;
+      System.out.printf("Set up %d repositories in %.1fs%n", repositories, setUpSeconds);
+
+      var start = Instant.now();
+      var duration = config.getDuration("duration");
+      var reportInterval = config.getDuration("report-interval");
+      long peakHeapBytes = 0;
+      long previousChecks = 0;
+      while (Instant.now().isBefore(start.plus(duration))) {
+        Thread.sleep(reportInterval.toMillis());
+        var heapBytes = heapUsedBytes();
+        peakHeapBytes = Math.max(peakHeapBytes, heapBytes);
+        var checks = releaseChecks(gitHubStub);
+        System.out.printf("%5ds  release checks %7d (%6.1f/s)  model calls %6d  tool calls %5d  heap %5d MiB%n",
+            Duration.between(start, Instant.now()).toSeconds(), checks,
+            (checks - previousChecks) / (double) reportInterval.toSeconds(), modelStub.completions.sum(),
+            modelStub.toolCalls.sum(), heapBytes / (1024 * 1024));
+        previousChecks = checks;
+      }
+      var end = Instant.now();
+
+      var latencies = summaryLatenciesMillis(start);
+      var elapsedSeconds = Duration.between(start, end).toMillis() / 1000.0;
+      var report = objectMapper.createObjectNode();
+      report.put("repositories", repositories);
+      report.put("durationSeconds", elapsedSeconds);
+      report.put("setUpRepositoriesPerSecond", repositories / setUpSeconds);
+      var checks = releaseChecks(gitHubStub);
+      report.put("releaseChecks", checks);
+      report.put("batchedReleaseChecks", gitHubStub.graphQlRepositoryLookups.sum());
+      report.put("releaseChecksPerSecond", checks / elapsedSeconds);
+      var gitHubResponses = report.putObject("gitHubResponses");
+      gitHubStub.responseCounts().forEach(gitHubResponses::put);
+      report.put("modelCalls", modelStub.completions.sum());
+      report.put("toolCalls", modelStub.toolCalls.sum());
+      report.put("promptTokens", modelStub.promptTokens.sum());
+      report.put("completionTokens", modelStub.completionTokens.sum());
+      report.put("summaries", latencies.size());
+      report.put("summariesPerSecond", latencies.size() / elapsedSeconds);
+      var latency = report.putObject("summaryLatencyMillis");
+      putPercentiles(latency, latencies);
+      report.put("peakHeapBytes", peakHeapBytes);
+      report.put("finalHeapBytes", heapUsedBytes());
+
+      var json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+      System.out.println(json);
+      var reportFile = Path.of(config.getString("report-file"));
+      if (reportFile.getParent() != null) Files.createDirectories(reportFile.getParent());
+      Files.writeString(reportFile, json);
+      System.out.println("Report written to " + reportFile.toAbsolutePath());
+    } finally {
+      stubServer.stop(0);
+    }
+  }
+
+  /**
+   * Checks batched into GraphQL queries and the ones done with the REST API
+   */
+  private static long releaseChecks(GitHubStub gitHubStub) {
+    return gitHubStub.graphQlRepositoryLookups.sum() + gitHubStub.responseCount("latest-release");
+  }
+
+  private void awaitService() throws InterruptedException {
+    var deadline = Instant.now().plus(Duration.ofMinutes(2));
+    while (Instant.now().isBefore(deadline)) {
+      try {
+        if (get("/metrics").statusCode() == 200) return;
+      } catch (IOException e) {
+        // not started yet
+      }
+      Thread.sleep(1000);
+    }
+    throw new IllegalStateException("Service at " + serviceUrl + " did not start, is it running with -Dconfig.resource=load-test.conf?");
+  }
+
+  private void setUpRepositories(int repositories) throws IOException, InterruptedException {
+    var batchSize = config.getInt("set-up-batch-size");
+    for (int first = 0; first < repositories; first += batchSize) {
+      var request = objectMapper.createObjectNode();
+      var names = request.putArray("repositories");
+      for (int i = first; i < Math.min(repositories, first + batchSize); i++) {
+        names.add(owner + "/repo-" + i);
+      }
+      var response = httpClient.send(HttpRequest.newBuilder(URI.create(serviceUrl + "/repo/bulk"))
+              .header("Content-Type", "application/json")
+              .timeout(Duration.ofMinutes(5))
+              .POST(HttpRequest.BodyPublishers.ofString(request.toString()))
+              .build(),
+          HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException("Setting up repositories failed with " + response.statusCode() + ": " + response.body());
+      }
+    }
+  }
+
+  /**
+   * @return time from release to stored summary for the releases published since {@code start}, sorted
+   */
+  private List<Long> summaryLatenciesMillis(Instant start) throws IOException, InterruptedException {
+    var latencies = new ArrayList<Long>();
+    var pageToken = "";
+    do {
+      var response = get("/summaries/" + owner + "?page-size=500&since=" + URLEncoder.encode(start.toString(), StandardCharsets.UTF_8) +
+          "&page-token=" + URLEncoder.encode(pageToken, StandardCharsets.UTF_8));
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException("Listing summaries failed with " + response.statusCode() + ": " + response.body());
+      }
+      var page = objectMapper.readTree(response.body());
+      for (var summary : page.path("summaries")) {
+        if (!summary.hasNonNull("publishedAt")) continue;
+        var publishedAt = Instant.parse(summary.path("publishedAt").asText());
+        if (publishedAt.isBefore(start)) continue;
+        latencies.add(Duration.between(publishedAt, Instant.parse(summary.path("creationDate").asText())).toMillis());
+      }
+      pageToken = page.path("hasMore").asBoolean(false) ? page.path("nextPageToken").asText("") : "";
+    } while (!pageToken.isEmpty());
+    Collections.sort(latencies);
+    return latencies;
+  }
+
+  private static void putPercentiles(ObjectNode json, List<Long> sorted) {
+    if (sorted.isEmpty()) return;
+    for (var percentile : new double[] {50, 90, 95, 99}) {
+      var index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+      json.put("p" + (int) percentile, sorted.get(Math.max(0, index)));
+    }
+    json.put("max", sorted.getLast());
+  }
+
+  private long heapUsedBytes() throws IOException, InterruptedException {
+    var metrics = get("/metrics").body();
+    return metrics.lines()
+        .filter(line -> line.startsWith("jvm_memory_used_bytes{area=\"heap\"}"))
+        .mapToLong(line -> (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+        .findFirst()
+        .orElse(-1);
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return httpClient.send(HttpRequest.newBuilder(URI.create(serviceUrl + path)).timeout(Duration.ofSeconds(30)).GET().build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+}
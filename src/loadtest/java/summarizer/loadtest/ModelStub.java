@@ -0,0 +1,181 @@
+package summarizer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.typesafe.config.Config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic stand in for the model, answering OpenAI chat completion requests, so that the service can be run
+ * with {@code model-provider = openai} and the {@code base-url} pointing to the stub.
+ * <p>
+ * Before the model has seen any tool result it asks for details of the first issue referenced in the prompt, for the
+ * configured fraction of prompts, decided by a hash of the prompt so that the same release always gets the same
+ * answer. Otherwise it answers with a canned summary, streamed in small chunks if requested.
+ */
+final class ModelStub implements HttpHandler {
+
+  private static final Pattern ISSUE_REFERENCE = Pattern.compile("#(\\d+)");
+  private static final int STREAMED_CHUNK_CHARS = 16;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Duration latency;
+  private final Duration latencyJitter;
+  private final double toolCallProbability;
+  private final AtomicLong nextId = new AtomicLong();
+  final LongAdder completions = new LongAdder();
+  final LongAdder toolCalls = new LongAdder();
+  final LongAdder promptTokens = new LongAdder();
+  final LongAdder completionTokens = new LongAdder();
+
+  ModelStub(Config config) {
+    this.latency = config.getDuration("model.latency");
+    this.latencyJitter = config.getDuration("model.latency-jitter");
+    this.toolCallProbability = config.getDouble("model.tool-call-probability");
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestURI().getPath().endsWith("/chat/completions")) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      var request = objectMapper.readTree(exchange.getRequestBody());
+      GitHubStub.simulateLatency(latency, latencyJitter);
+
+      var prompt = new StringBuilder();
+      var sawToolResult = false;
+      for (var message : request.path("messages")) {
+        prompt.append(message.path("content").asText(""));
+        sawToolResult |= message.path("role").asText().equals("tool");
+      }
+      var issueTool = issueTool(request);
+      var issueReference = ISSUE_REFERENCE.matcher(prompt);
+      var callTool = !sawToolResult && issueTool != null && issueReference.find()
+          && Math.floorMod(prompt.toString().hashCode(), 1000) < toolCallProbability * 1000;
+
+      var id = "chatcmpl-" + nextId.incrementAndGet();
+      var message = objectMapper.createObjectNode().put("role", "assistant");
+      String finishReason;
+      String content = "";
+      if (callTool) {
+        toolCalls.increment();
+        var function = issueTool.path("function");
+        var parameter = function.path("parameters").path("properties").fieldNames().next();
+        var arguments = objectMapper.createObjectNode().put(parameter, Integer.parseInt(issueReference.group(1)));
+        message.putNull("content");
+        message.putArray("tool_calls").addObject()
+            .put("id", "call-" + id)
+            .put("type", "function")
+            .putObject("function")
+            .put("name", function.path("name").asText())
+            .put("arguments", arguments.toString());
+        finishReason = "tool_calls";
+      } else {
+        content = summary(id);
+        message.put("content", content);
+        finishReason = "stop";
+      }
+
+      completions.increment();
+      var usedPromptTokens = prompt.length() / 4;
+      var usedCompletionTokens = content.length() / 4;
+      promptTokens.add(usedPromptTokens);
+      completionTokens.add(usedCompletionTokens);
+
+      if (request.path("stream").asBoolean(false)) {
+        stream(exchange, request, id, message, content, finishReason);
+      } else {
+        var response = completion(request, id);
+        response.putArray("choices").addObject()
+            .put("index", 0)
+            .put("finish_reason", finishReason)
+            .set("message", message);
+        response.putObject("usage")
+            .put("prompt_tokens", usedPromptTokens)
+            .put("completion_tokens", usedCompletionTokens)
+            .put("total_tokens", usedPromptTokens + usedCompletionTokens);
+        var bytes = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+      }
+    }
+  }
+
+  private void stream(HttpExchange exchange, JsonNode request, String id, ObjectNode message, String content,
+                      String finishReason) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+    exchange.sendResponseHeaders(200, 0);
+    var out = exchange.getResponseBody();
+    if (message.has("tool_calls")) {
+      var delta = message.deepCopy();
+      ((ObjectNode) delta.path("tool_calls").get(0)).put("index", 0);
+      writeChunk(out, request, id, delta, null);
+    } else {
+      for (int i = 0; i < content.length(); i += STREAMED_CHUNK_CHARS) {
+        var delta = objectMapper.createObjectNode()
+            .put("content", content.substring(i, Math.min(content.length(), i + STREAMED_CHUNK_CHARS)));
+        if (i == 0) delta.put("role", "assistant");
+        writeChunk(out, request, id, delta, null);
+      }
+    }
+    writeChunk(out, request, id, objectMapper.createObjectNode(), finishReason);
+    out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeChunk(OutputStream out, JsonNode request, String id, ObjectNode delta, String finishReason)
+      throws IOException {
+    var chunk = completion(request, id).put("object", "chat.completion.chunk");
+    var choice = chunk.putArray("choices").addObject().put("index", 0);
+    choice.set("delta", delta);
+    if (finishReason == null) choice.putNull("finish_reason");
+    else choice.put("finish_reason", finishReason);
+    out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private ObjectNode completion(JsonNode request, String id) {
+    return objectMapper.createObjectNode()
+        .put("id", id)
+        .put("object", "chat.completion")
+        .put("created", Instant.now().getEpochSecond())
+        .put("model", request.path("model").asText("load-test"));
+  }
+
+  private static JsonNode issueTool(JsonNode request) {
+    for (var tool : request.path("tools")) {
+      if (tool.path("function").path("name").asText().contains("IssueDetails")) return tool;
+    }
+    return null;
+  }
+
+  private static String summary(String id) {
+    return """
+        ## ✨ Features
+        * Support for configuring the request timeout per endpoint ([#101](https://github.com/example/example/pull/101))
+        * Metrics for connection pool usage ([#102](https://github.com/example/example/pull/102))
+
+        ## 🐛 Bug fixes
+        * Fixed a rare deadlock when shutting down the connection pool ([#103](https://github.com/example/example/pull/103))
+        * Retries now respect the `Retry-After` header ([#104](https://github.com/example/example/pull/104))
+
+        ## 📦 Dependency updates
+        * com.example:lib 1.0.0 → 1.1.0
+
+        <!-- %s -->
+        """.formatted(id);
+  }
+}
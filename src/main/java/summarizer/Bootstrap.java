@@ -3,12 +3,26 @@ package summarizer;
 import akka.javasdk.DependencyProvider;
 import akka.javasdk.ServiceSetup;
 import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpClientProvider;
+import akka.javasdk.timer.TimerScheduler;
 import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import summarizer.application.ExpireSummarizationSlots;
+import summarizer.application.SummaryCache;
+import summarizer.application.SummaryFeedCache;
+import summarizer.application.SummarySinks;
+import summarizer.integration.ConditionalRequestCache;
 import summarizer.integration.GitHubApiClient;
+import summarizer.integration.GitHubJsonParser;
+import summarizer.integration.GitHubRateLimiter;
+import summarizer.integration.IssueDetailsCache;
+import summarizer.integration.LatestReleaseBatchPoller;
+import summarizer.metrics.SummarizerMetrics;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.Optional;
 
 @Setup
@@ -16,9 +30,21 @@ public final class Bootstrap implements ServiceSetup {
 
   private final Logger log = LoggerFactory.getLogger(getClass());
 
+  private final GitHubJsonParser gitHubJsonParser;
   private final GitHubApiClient gitHubApiClient;
+  private final SummaryCache summaryCache;
+  private final SummaryFeedCache summaryFeedCache;
+  private final SummarySinks summarySinks;
+  private final SummarizerMetrics metrics;
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final Duration slotExpiryInterval;
 
-  public Bootstrap(Config config, HttpClientProvider httpClientProvider) {
+  public Bootstrap(Config config, HttpClientProvider httpClientProvider, ComponentClient componentClient,
+                   TimerScheduler timerScheduler) {
+    this.componentClient = componentClient;
+    this.timerScheduler = timerScheduler;
+    this.slotExpiryInterval = config.getDuration("summarization.slot-expiry-interval");
     var defaultGitHubApiToken = blankAsEmpty(config.getString("github-api-token"));
     if (defaultGitHubApiToken.isPresent()) {
       log.info("Using a default GitHub API access token for all requests to github APIs");
@@ -28,7 +54,49 @@ public final class Bootstrap implements ServiceSetup {
           and a higher allowed request rate, set config 'github-api-token' or environment variable GITHUB_API_TOKEN
         """);
     }
-    gitHubApiClient = new GitHubApiClient(httpClientProvider, defaultGitHubApiToken);
+    metrics = new SummarizerMetrics();
+    var conditionalRequestCache = new ConditionalRequestCache(config.getInt("github-conditional-request-cache-size"));
+    var rateLimitConfig = config.getConfig("github-rate-limit");
+    var rateLimiter = new GitHubRateLimiter(
+        defaultGitHubApiToken,
+        rateLimitConfig.getInt("high-priority-reserve"),
+        rateLimitConfig.getDuration("max-low-priority-wait"),
+        rateLimitConfig.getDuration("max-high-priority-wait"));
+    var issueCacheConfig = config.getConfig("github-issue-cache");
+    var issueDetailsCache = new IssueDetailsCache(
+        issueCacheConfig.getInt("max-entries"),
+        issueCacheConfig.getBytes("max-memory"),
+        issueCacheConfig.getDuration("time-to-live"),
+        issueCacheConfig.getDuration("not-available-time-to-live"));
+    var batchingConfig = config.getConfig("release-check-batching");
+    Optional<LatestReleaseBatchPoller> latestReleaseBatchPoller = Optional.empty();
+    if (batchingConfig.getBoolean("enabled")) {
+      var graphQlUrl = URI.create(batchingConfig.getString("graphql-url"));
+      latestReleaseBatchPoller = Optional.of(new LatestReleaseBatchPoller(
+          httpClientProvider.httpClientFor(graphQlUrl.getScheme() + "://" + graphQlUrl.getAuthority()),
+          graphQlUrl.getPath(),
+          rateLimiter,
+          metrics,
+          batchingConfig.getInt("max-batch-size"),
+          batchingConfig.getDuration("max-wait")));
+    }
+    gitHubJsonParser = new GitHubJsonParser(config.getInt("github-response-parsing.max-release-body-length"),
+        config.getInt("github-response-parsing.max-issue-body-length"));
+    gitHubApiClient = new GitHubApiClient(httpClientProvider, config.getString("github-api-url"), defaultGitHubApiToken,
+        conditionalRequestCache, rateLimiter, issueDetailsCache, metrics, latestReleaseBatchPoller, gitHubJsonParser);
+    summaryCache = new SummaryCache(componentClient, config);
+    summaryFeedCache = new SummaryFeedCache(componentClient, config);
+    summarySinks = SummarySinks.fromConfig(config.getConfig("summary-delivery.sinks"), httpClientProvider);
+    if (!summarySinks.names().isEmpty()) {
+      log.info("Delivering new summaries to sinks {}", summarySinks.names());
+    }
+    metrics.registerNodeStats(gitHubApiClient, summaryCache);
+  }
+
+  @Override
+  public void onStartup() {
+    // replaces the timer if it already exists, so there is only ever one no matter how many nodes start
+    ExpireSummarizationSlots.schedule(timerScheduler, componentClient, slotExpiryInterval);
   }
 
   @Override
@@ -39,6 +107,16 @@ public final class Bootstrap implements ServiceSetup {
       public <T> T getDependency(Class<T> aClass) {
         if (aClass.equals(GitHubApiClient.class)) {
           return (T) gitHubApiClient;
+        } else if (aClass.equals(GitHubJsonParser.class)) {
+          return (T) gitHubJsonParser;
+        } else if (aClass.equals(SummaryCache.class)) {
+          return (T) summaryCache;
+        } else if (aClass.equals(SummaryFeedCache.class)) {
+          return (T) summaryFeedCache;
+        } else if (aClass.equals(SummarizerMetrics.class)) {
+          return (T) metrics;
+        } else if (aClass.equals(SummarySinks.class)) {
+          return (T) summarySinks;
         } else {
           return null;
         }
@@ -1,18 +1,31 @@
 package summarizer.api;
 
+import akka.NotUsed;
 import akka.http.javadsl.model.*;
+import akka.http.javadsl.model.headers.ETag;
+import akka.http.javadsl.model.headers.EntityTag;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import summarizer.application.GitHubRepositoryEntity;
+import summarizer.application.RepositoryOnboarding;
 import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.integration.GitHubApiClient;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -29,34 +42,111 @@ public class GitHubRepositoryEndpoint extends AbstractHttpEndpoint {
   public record CreateRepositoryRequest(Optional<String> gitHubApiToken) {
   }
 
+  /**
+   * @param repositories repositories on the form owner/repo
+   * @param owner        set up all public repositories of this user or organization, except forks and archived ones
+   */
+  public record BulkCreateRepositoriesRequest(Optional<List<String>> repositories, Optional<String> owner,
+                                              Optional<String> gitHubApiToken) {
+  }
+
+  public record BulkCreateRepositoriesResponse(List<RepositoryOnboarding.SetUpResult> results) {
+  }
+
   private final ComponentClient componentClient;
+  private final RepositoryOnboarding repositoryOnboarding;
 
-  public GitHubRepositoryEndpoint(ComponentClient componentClient) {
+  public GitHubRepositoryEndpoint(ComponentClient componentClient, GitHubApiClient gitHubApiClient, Config config) {
     this.componentClient = componentClient;
+    this.repositoryOnboarding = new RepositoryOnboarding(componentClient, gitHubApiClient, config.getConfig("bulk-onboarding"));
   }
 
   @Post("/{owner}/{repo}")
   public String setUp(String owner, String repo, CreateRepositoryRequest createRepository) {
-    logger.info("Setting up GitHub Repository [{}/{}]", owner, repo);
+    var repositoryIdentifier = RepositoryIdentifier.of(owner, repo);
+    logger.info("Setting up GitHub Repository [{}]", repositoryIdentifier);
 
-    componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(owner, repo))
+    componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
         .method(GitHubRepositoryEntity::setUp)
-        .invoke(new GitHubRepositoryEntity.SetUpRepository(owner, repo, createRepository.gitHubApiToken));
+        .invoke(new GitHubRepositoryEntity.SetUpRepository(repositoryIdentifier.owner(), repositoryIdentifier.repo(),
+            createRepository.gitHubApiToken, Optional.empty()));
 
     return "Repository set up successful";
   }
 
+  /**
+   * Set up many repositories at once, their first checks for releases are spread out over a ramp window
+   */
+  @Post("/bulk")
+  public BulkCreateRepositoriesResponse bulkSetUp(BulkCreateRepositoriesRequest request) {
+    var repositories = new ArrayList<RepositoryIdentifier>();
+    for (var repository : request.repositories().orElse(List.of())) {
+      try {
+        var repositoryIdentifier = GitHubRepositoryEntity.identifierFor(repository);
+        repositories.add(RepositoryIdentifier.of(repositoryIdentifier.owner(), repositoryIdentifier.repo()));
+      } catch (IllegalArgumentException e) {
+        throw HttpException.badRequest(e.getMessage());
+      }
+    }
+    request.owner().ifPresent(owner -> repositories.addAll(repositoryOnboarding.repositoriesOf(owner, request.gitHubApiToken())));
+    if (repositories.isEmpty()) {
+      throw HttpException.badRequest("No repositories to set up, expected repositories and/or owner");
+    }
+    if (repositories.size() > repositoryOnboarding.maxRepositories()) {
+      throw HttpException.badRequest("Too many repositories, at most " + repositoryOnboarding.maxRepositories() + " can be set up at once");
+    }
+
+    logger.info("Setting up {} GitHub Repositories", repositories.size());
+    return new BulkCreateRepositoriesResponse(repositoryOnboarding.setUp(repositories, request.gitHubApiToken()));
+  }
+
+  /**
+   * Summaries as markdown, newest release first, streamed summary by summary. Supports paging through the summaries
+   * with the {@code limit} and {@code offset} query parameters, and conditional requests using the returned
+   * {@code ETag}, which only changes when a new summary was added.
+   */
   @Get("/{owner}/{repo}/summaries")
   public HttpResponse getSummaries(String owner, String repo) {
-    var summariesResponse = componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(owner, repo))
+    var limit = requestContext().queryParams().getInteger("limit").orElse(Integer.MAX_VALUE);
+    var offset = requestContext().queryParams().getInteger("offset").orElse(0);
+    if (limit < 0 || offset < 0) {
+      return HttpResponses.badRequest("limit and offset must not be negative");
+    }
+
+    var summariesResponse = componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(RepositoryIdentifier.of(owner, repo)))
       .method(GitHubRepositoryEntity::getSummaries)
       .invoke();
 
-    String markdownForSummaries = summariesResponse.summaries().stream()
-        .map(ReleaseSummary::summary)
-        .reduce("# Releases\n\n", (acc, summary) -> acc + "\n\n" + summary);
+    var eTag = ETag.create(EntityTag.create(
+        summariesResponse.latestSeenRelease().map(Object::toString).orElse("none") + "-" +
+            summariesResponse.seenReleaseCount() + "-" + offset + "-" + (limit == Integer.MAX_VALUE ? "all" : limit), false));
+    var notModified = requestContext().requestHeader("If-None-Match")
+        .map(ifNoneMatch -> Arrays.stream(ifNoneMatch.value().split(",")).map(String::strip).anyMatch(eTag.value()::equals))
+        .orElse(false);
+    if (notModified) {
+      return HttpResponse.create().withStatus(StatusCodes.NOT_MODIFIED).addHeader(eTag);
+    }
 
-    return HttpResponses.ok().withEntity(HttpEntities.create(ContentTypes.create(MediaTypes.TEXT_MARKDOWN, HttpCharsets.UTF_8), markdownForSummaries));
+    var summaries = summariesResponse.summaries().stream()
+        .skip(offset)
+        .limit(limit)
+        .toList();
+    Source<ByteString, NotUsed> markdownForSummaries = Source.from(markdownChunks(summaries));
+
+    return HttpResponse.create()
+        .addHeader(eTag)
+        .withEntity(HttpEntities.createChunked(ContentTypes.create(MediaTypes.TEXT_MARKDOWN, HttpCharsets.UTF_8), markdownForSummaries));
   }
 
+  /**
+   * @return the markdown document for the summaries, one chunk per summary after the heading
+   */
+  static List<ByteString> markdownChunks(List<ReleaseSummary> summaries) {
+    var chunks = new ArrayList<ByteString>(summaries.size() + 1);
+    chunks.add(ByteString.fromString("# Releases\n\n"));
+    for (var summary : summaries) {
+      chunks.add(ByteString.fromString("\n\n" + summary.summary()));
+    }
+    return chunks;
+  }
 }
@@ -0,0 +1,98 @@
+package summarizer.api;
+
+import akka.http.javadsl.model.HttpEntity;
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.CommandException;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.annotations.http.Post;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpResponses;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.application.GitHubRepositoryEntity;
+import summarizer.application.SummarizationWorkflow;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.SummarizationPriority;
+import summarizer.integration.GitHubApiClient;
+import summarizer.integration.GitHubJsonParser;
+import summarizer.integration.GitHubWebhookDelivery;
+import summarizer.integration.GitHubWebhookSignature;
+import summarizer.metrics.SummarizerMetrics;
+
+/**
+ * Receives GitHub {@code release} webhook deliveries, so that new releases are summarized right away instead of on
+ * the next poll. The release notes are included in the payload, so no additional GitHub API request is needed.
+ * <p>
+ * The webhook must be configured with content type {@code application/json} and the secret in
+ * {@code github-webhook.secret}, deliveries for repositories that are not set up are rejected.
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/webhook")
+public class GitHubWebhookEndpoint extends AbstractHttpEndpoint {
+
+  private static final Logger logger = LoggerFactory.getLogger(GitHubWebhookEndpoint.class);
+
+  private final ComponentClient componentClient;
+  private final String secret;
+  private final GitHubJsonParser jsonParser;
+  private final SummarizerMetrics metrics;
+
+  public GitHubWebhookEndpoint(ComponentClient componentClient, GitHubJsonParser jsonParser, SummarizerMetrics metrics,
+                               Config config) {
+    this.componentClient = componentClient;
+    this.secret = config.getString("github-webhook.secret");
+    this.jsonParser = jsonParser;
+    this.metrics = metrics;
+  }
+
+  @Post("/github")
+  public HttpResponse gitHubDelivery(HttpEntity.Strict body) {
+    var delivery = GitHubWebhookDelivery.of(secret, jsonParser,
+        requestContext().requestHeader("X-GitHub-Event").map(HttpHeader::value),
+        requestContext().requestHeader(GitHubWebhookSignature.HEADER_NAME).map(HttpHeader::value),
+        body.getData().toArray());
+    return switch (delivery) {
+      case GitHubWebhookDelivery.InvalidSignature ignored -> {
+        logger.warn("Rejecting webhook delivery with missing or invalid signature");
+        yield HttpResponses.unauthorized("Missing or invalid " + GitHubWebhookSignature.HEADER_NAME);
+      }
+      case GitHubWebhookDelivery.Ping ignored -> HttpResponses.ok("pong");
+      case GitHubWebhookDelivery.InvalidPayload ignored -> HttpResponses.badRequest("Invalid release event payload");
+      case GitHubWebhookDelivery.Ignored ignored -> {
+        logger.debug("Ignoring webhook delivery for {}", ignored.reason());
+        yield HttpResponses.accepted();
+      }
+      case GitHubWebhookDelivery.PublishedRelease published -> publishedRelease(published.repositoryIdentifier(), published.release());
+    };
+  }
+
+  private HttpResponse publishedRelease(RepositoryIdentifier repositoryIdentifier, GitHubApiClient.ReleaseDetails release) {
+    GitHubRepositoryEntity.LatestSeenRelease latestSeenRelease;
+    try {
+      latestSeenRelease = metrics.entityCall("github-repository", "webhook-delivered", () ->
+          componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
+              .method(GitHubRepositoryEntity::webhookDelivered)
+              .invoke());
+    } catch (CommandException e) {
+      logger.info("Webhook delivery for repository [{}] that is not set up", repositoryIdentifier);
+      return HttpResponses.notFound("Repository " + repositoryIdentifier + " is not set up");
+    }
+
+    if (latestSeenRelease.id().isEmpty() || latestSeenRelease.id().get() < release.id()) {
+      logger.info("Webhook delivery of new release for [{}], queuing summarization", repositoryIdentifier);
+      var priority = latestSeenRelease.id().isEmpty() ? SummarizationPriority.HIGH : SummarizationPriority.NORMAL;
+      var startResult = componentClient.forWorkflow(SummarizationWorkflow.workflowIdFor(repositoryIdentifier, release.id()))
+          .method(SummarizationWorkflow::start)
+          .invoke(new SummarizationWorkflow.StartSummarization(repositoryIdentifier, release, priority));
+      // redeliveries, and releases the poller already found, are not counted again
+      if (startResult.started()) {
+        metrics.newReleasesDetected(repositoryIdentifier.owner(), SummarizerMetrics.SOURCE_WEBHOOK, 1);
+      }
+    }
+    return HttpResponses.accepted();
+  }
+}
@@ -0,0 +1,30 @@
+package summarizer.api;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import summarizer.metrics.SummarizerMetrics;
+
+/**
+ * Node local metrics in the Prometheus text format, each node must be scraped separately
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/metrics")
+public class MetricsEndpoint extends AbstractHttpEndpoint {
+
+  private final SummarizerMetrics metrics;
+
+  public MetricsEndpoint(SummarizerMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Get
+  public HttpResponse scrape() {
+    // text/plain is read as the text exposition format version 0.0.4
+    return HttpResponse.create().withEntity(HttpEntities.create(ContentTypes.TEXT_PLAIN_UTF8, metrics.scrape()));
+  }
+}
@@ -0,0 +1,43 @@
+package summarizer.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import summarizer.application.SummaryCache;
+import summarizer.integration.ConditionalRequestCache;
+import summarizer.integration.GitHubApiClient;
+import summarizer.integration.GitHubRateLimiter;
+import summarizer.integration.IssueDetailsCache;
+
+import java.util.List;
+
+/**
+ * Node local statistics, useful for seeing how the service is doing
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/stats")
+public class StatsEndpoint extends AbstractHttpEndpoint {
+
+  public record GitHubApiStats(ConditionalRequestCache.Stats conditionalRequests, List<GitHubRateLimiter.TokenStats> rateLimits,
+                               IssueDetailsCache.Stats issueDetailsCache) {}
+
+  private final GitHubApiClient gitHubApiClient;
+  private final SummaryCache summaryCache;
+
+  public StatsEndpoint(GitHubApiClient gitHubApiClient, SummaryCache summaryCache) {
+    this.gitHubApiClient = gitHubApiClient;
+    this.summaryCache = summaryCache;
+  }
+
+  @Get("/github-api")
+  public GitHubApiStats gitHubApi() {
+    return new GitHubApiStats(gitHubApiClient.conditionalRequestStats(), gitHubApiClient.rateLimitStats(),
+        gitHubApiClient.issueDetailsCacheStats());
+  }
+
+  @Get("/summary-cache")
+  public SummaryCache.Stats summaryCache() {
+    return summaryCache.stats();
+  }
+}
@@ -0,0 +1,72 @@
+package summarizer.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import akka.javasdk.http.HttpException;
+import summarizer.application.ReleaseSummariesView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Summaries across repositories, served from the {@link ReleaseSummariesView} without touching the repository
+ * entities.
+ * <p>
+ * Query parameters: {@code since}, either an ISO-8601 timestamp or a duration back from now, like {@code PT24H},
+ * {@code page-size}, and {@code page-token} with the {@code nextPageToken} of the previous page.
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/summaries")
+public class SummariesEndpoint extends AbstractHttpEndpoint {
+
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 500;
+
+  private final ComponentClient componentClient;
+
+  public SummariesEndpoint(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  @Get
+  public ReleaseSummariesView.SummaryPage summaries() {
+    return componentClient.forView()
+        .method(ReleaseSummariesView::summariesSince)
+        .invoke(new ReleaseSummariesView.SinceQuery(since(), pageToken(), pageSize()));
+  }
+
+  @Get("/{owner}")
+  public ReleaseSummariesView.SummaryPage summariesForOwner(String owner) {
+    return componentClient.forView()
+        .method(ReleaseSummariesView::summariesForOwnerSince)
+        .invoke(new ReleaseSummariesView.OwnerSinceQuery(owner, since(), pageToken(), pageSize()));
+  }
+
+  private Instant since() {
+    var since = requestContext().queryParams().getString("since");
+    if (since.isEmpty()) return Instant.EPOCH;
+    try {
+      return since.get().startsWith("P")
+          ? Instant.now().minus(Duration.parse(since.get()))
+          : Instant.parse(since.get());
+    } catch (DateTimeParseException e) {
+      throw HttpException.badRequest("Invalid since [" + since.get() + "], expected a timestamp or a duration like PT24H");
+    }
+  }
+
+  private String pageToken() {
+    return requestContext().queryParams().getString("page-token").orElse("");
+  }
+
+  private int pageSize() {
+    var pageSize = requestContext().queryParams().getInteger("page-size").orElse(DEFAULT_PAGE_SIZE);
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw HttpException.badRequest("page-size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return pageSize;
+  }
+}
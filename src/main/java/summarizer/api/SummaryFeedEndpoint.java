@@ -0,0 +1,62 @@
+package summarizer.api;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.ETag;
+import akka.http.javadsl.model.headers.EntityTag;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
+import summarizer.application.SummaryFeedCache;
+import summarizer.application.SummaryFeedEntity;
+import summarizer.domain.AtomFeed;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.util.Arrays;
+
+/**
+ * Atom feeds of new summaries, for all repositories and per repository. The feed documents are rendered once for each
+ * new summary and cached on the node for a short time, and readers polling with {@code If-None-Match} get a
+ * {@code 304 Not Modified} until there is a new summary.
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
+@HttpEndpoint("/feed")
+public class SummaryFeedEndpoint extends AbstractHttpEndpoint {
+
+  private final SummaryFeedCache summaryFeedCache;
+
+  public SummaryFeedEndpoint(SummaryFeedCache summaryFeedCache) {
+    this.summaryFeedCache = summaryFeedCache;
+  }
+
+  @Get("/atom")
+  public HttpResponse globalFeed() {
+    return feed(SummaryFeedEntity.GLOBAL_ID, AtomFeed.emptyGlobal());
+  }
+
+  @Get("/{owner}/{repo}/atom")
+  public HttpResponse repositoryFeed(String owner, String repo) {
+    var repositoryIdentifier = RepositoryIdentifier.of(owner, repo);
+    return feed(SummaryFeedEntity.entityIdFor(repositoryIdentifier), AtomFeed.emptyFor(repositoryIdentifier));
+  }
+
+  private HttpResponse feed(String feedId, AtomFeed emptyFeed) {
+    var feed = summaryFeedCache.get(feedId, emptyFeed);
+
+    var eTag = ETag.create(EntityTag.create(Long.toString(feed.version()), false));
+    var notModified = requestContext().requestHeader("If-None-Match")
+        .map(ifNoneMatch -> Arrays.stream(ifNoneMatch.value().split(",")).map(String::strip).anyMatch(eTag.value()::equals))
+        .orElse(false);
+    if (notModified) {
+      return HttpResponse.create().withStatus(StatusCodes.NOT_MODIFIED).addHeader(eTag);
+    }
+    return HttpResponse.create()
+        .addHeader(eTag)
+        .withEntity(HttpEntities.create(ContentTypes.create(MediaTypes.APPLICATION_ATOM_XML, HttpCharsets.UTF_8), feed.document()));
+  }
+}
@@ -1,6 +1,9 @@
 package summarizer.api;
 
+import akka.NotUsed;
 import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.sse.ServerSentEvent;
+import akka.javasdk.JsonSupport;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
@@ -9,10 +12,16 @@ import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpResponses;
 import akka.stream.javadsl.Source;
 import summarizer.domain.RepositoryIdentifier;
+import summarizer.application.StreamingSummarizerAgent;
 import summarizer.application.SummarizerAgent;
 import summarizer.integration.GitHubApiClient;
+import summarizer.metrics.SummarizerMetrics;
 
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Some test endpoints to play around with the entity and summarization, mostly meant for local testing
@@ -21,36 +30,86 @@ import java.util.UUID;
 @HttpEndpoint("/testing/repo")
 public class TestingEndpoint extends AbstractHttpEndpoint {
 
+  private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(5);
+  private static final ExecutorService PREPARATION_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
   private final ComponentClient componentClient;
   private final GitHubApiClient gitHubApiClient;
+  private final SummarizerMetrics metrics;
 
-  public TestingEndpoint(ComponentClient componentClient, GitHubApiClient gitHubApiClient) {
+  public TestingEndpoint(ComponentClient componentClient, GitHubApiClient gitHubApiClient, SummarizerMetrics metrics) {
     this.componentClient = componentClient;
     this.gitHubApiClient = gitHubApiClient;
+    this.metrics = metrics;
   }
 
-  // fire off a summarization for a repo, don't store anything, just return the result
-  // response will be a single element SSE since operation is too slow to complete as a normal response without hitting timeouts
+  // fire off a summarization for a repo, only stored in the summary cache, and stream the result as server sent
+  // events: "token" events with each piece of text as the summary is generated, heartbeats while waiting, and a final
+  // "summary" event with the complete result, so that proxies and ingress do not time out the response while the
+  // model is working
   @Post("/{owner}/{repo}/summarize-latest")
   public HttpResponse summarize(String owner, String repo) {
     var githubApiClientWithAuth =
         requestContext().queryParams().getString("github-api-token")
             .map(gitHubApiClient::withApiToken)
             .orElse(gitHubApiClient);
-
-    var releaseDetails = githubApiClientWithAuth.getLatestRelease(owner, repo);
-
+    var repositoryIdentifier = new RepositoryIdentifier(owner, repo);
     var sessionId = UUID.randomUUID().toString();
-    // Fire off slow summarization, but don't wait on the completion here since the HTTP client would time out the request
-    var futureSummary = componentClient.forAgent()
-        .inSession(sessionId)
-        .method(SummarizerAgent::summarize)
-        .invokeAsync(new SummarizerAgent.SummarizeRequest(new RepositoryIdentifier(owner, repo),releaseDetails));
+    var sessionStart = System.nanoTime();
 
+    // the response starts right away, and heartbeats are sent until the first token, the release is fetched and the
+    // prompt prepared on a virtual thread, since those calls block and must not run on the dispatcher of the stream
+    var prompt = CompletableFuture.supplyAsync(() -> {
+      var releaseDetails = githubApiClientWithAuth.getLatestRelease(owner, repo);
+      return componentClient.forAgent()
+          .inSession(sessionId)
+          .method(StreamingSummarizerAgent::prepare)
+          .invoke(new SummarizerAgent.SummarizeRequest(repositoryIdentifier, releaseDetails));
+    }, PREPARATION_EXECUTOR);
+    Source<ServerSentEvent, NotUsed> events =
+        Source.completionStageSource(prompt.thenApply(preparedPrompt -> summaryEvents(sessionId, sessionStart, preparedPrompt)))
+            .watchTermination((materialized, termination) -> {
+              termination.whenComplete((done, error) -> {
+                if (error != null) {
+                  metrics.llmSession(owner, SummarizerMetrics.OUTCOME_ERROR, sessionStart);
+                  metrics.error("streaming-summarization", owner, error);
+                }
+              });
+              return materialized;
+            })
+            .mapMaterializedValue(ignored -> NotUsed.getInstance())
+            .keepAlive(HEARTBEAT_INTERVAL, ServerSentEvent::heartbeat);
 
-    // Response is too slow to return like a normal response, so send it as a single element stream
-    // (this will work locally but not deployed where there is an in between timeout in the ingress)
-    return HttpResponses.serverSentEvents(Source.completionStage(futureSummary));
+    return HttpResponses.serverSentEvents(events);
+  }
+
+  private Source<ServerSentEvent, NotUsed> summaryEvents(String sessionId, long sessionStart,
+                                                         StreamingSummarizerAgent.StreamingPrompt prompt) {
+    var request = prompt.request();
+    var summaryText = new StringBuilder();
+    var modelStart = System.nanoTime();
+    return componentClient.forAgent()
+        .inSession(sessionId)
+        .tokenStream(StreamingSummarizerAgent::summarize)
+        .source(prompt)
+        .map(token -> {
+          summaryText.append(token);
+          return ServerSentEvent.create(token, "token");
+        })
+        .concat(Source.lazySingle(() -> {
+          metrics.llmSession(request.repositoryIdentifier().owner(), SummarizerMetrics.OUTCOME_SUCCESS, sessionStart);
+          // stored in the summary cache in the background, the client gets the summary right away
+          componentClient.forAgent()
+              .inSession(sessionId)
+              .method(StreamingSummarizerAgent::completed)
+              .invokeAsync(new StreamingSummarizerAgent.StreamedSummary(prompt, summaryText.toString(),
+                  Duration.ofNanos(System.nanoTime() - modelStart)));
+          return ServerSentEvent.create(
+              JsonSupport.getObjectMapper().writeValueAsString(new SummarizerAgent.SummaryResult(
+                  request.releaseDetails().id(), request.releaseDetails().name(), request.repositoryIdentifier(),
+                  summaryText.toString())),
+              "summary");
+        }));
   }
 
 }
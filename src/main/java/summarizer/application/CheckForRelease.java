@@ -7,17 +7,23 @@ import akka.javasdk.timer.TimerScheduler;
 import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import summarizer.domain.ReleaseSummary;
+import summarizer.domain.ReleaseCadence;
 import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.SummarizationPriority;
 import summarizer.integration.GitHubApiClient;
+import summarizer.integration.GitHubRateLimiter;
+import summarizer.integration.LatestReleaseBatchPoller;
+import summarizer.metrics.SummarizerMetrics;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Timed action that checks for a new release, runs summarization if there is a new release, reschedules itself
- * for the next check.
+ * Timed action that checks for a new release, starts a {@link SummarizationWorkflow} for each release published since
+ * the latest seen one, reschedules itself for the next check, based on the release cadence of the repository.
  */
 @ComponentId("check-for-release")
 public final class CheckForRelease extends TimedAction {
@@ -27,48 +33,135 @@ public final class CheckForRelease extends TimedAction {
   private final ComponentClient componentClient;
   private final GitHubApiClient gitHubApiClient;
   private final TimerScheduler timerScheduler;
-  private final Duration checkInterval;
+  private final SummarizerMetrics metrics;
+  private final ReleaseCadence.Schedule checkSchedule;
+  private final Duration webhookFallbackCheckInterval;
+  private final int maxCatchUpReleases;
+  private final int releasesPageSize;
 
-  public CheckForRelease(ComponentClient componentClient, GitHubApiClient gitHubApiClient, TimerScheduler timerScheduler, Config config) {
+  public CheckForRelease(ComponentClient componentClient, GitHubApiClient gitHubApiClient, TimerScheduler timerScheduler,
+                         SummarizerMetrics metrics, Config config) {
     this.componentClient = componentClient;
     this.gitHubApiClient = gitHubApiClient;
     this.timerScheduler = timerScheduler;
-    this.checkInterval = config.getDuration("new-release-check-interval");
+    this.metrics = metrics;
+    var scheduleConfig = config.getConfig("release-check-schedule");
+    this.checkSchedule = new ReleaseCadence.Schedule(
+        config.getDuration("new-release-check-interval"),
+        scheduleConfig.getDuration("min-interval"),
+        scheduleConfig.getDuration("max-interval"),
+        scheduleConfig.getDuration("dormant-after"),
+        scheduleConfig.getDouble("jitter"));
+    this.webhookFallbackCheckInterval = config.getDuration("github-webhook.fallback-check-interval");
+    this.maxCatchUpReleases = config.getInt("release-catch-up.max-releases");
+    this.releasesPageSize = config.getInt("release-catch-up.page-size");
   }
 
   public Effect checkForNewRelease(RepositoryIdentifier repositoryIdentifier) {
     logger.info("Checking for new release [{}]", repositoryIdentifier);
 
-    var latestSeenRelease = componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
-        .method(GitHubRepositoryEntity::getLatestSeenRelease)
-        .invoke();
+    var latestSeenRelease = metrics.entityCall("github-repository", "get-latest-seen-release", () ->
+        componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
+            .method(GitHubRepositoryEntity::getLatestSeenRelease)
+            .invoke());
 
     var authorizedGitHubApiClient =
         latestSeenRelease.gitHubApiToken().map(gitHubApiClient::withApiToken).orElse(gitHubApiClient);
 
-    var latestReleaseFromGitHub = authorizedGitHubApiClient.getLatestRelease(repositoryIdentifier.owner(), repositoryIdentifier.repo());
-    if (latestSeenRelease.id().isEmpty() || latestSeenRelease.id().get() < latestReleaseFromGitHub.id()) {
-      logger.info("Found new release for [{}], starting summarization", repositoryIdentifier);
-      var sessionId = UUID.randomUUID().toString();
-      var summary = componentClient.forAgent()
-          .inSession(sessionId)
-          .method(SummarizerAgent::summarize)
-          .invoke(new SummarizerAgent.SummarizeRequest(repositoryIdentifier, latestReleaseFromGitHub));
-
-      componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
-          .method(GitHubRepositoryEntity::addSummary)
-          .invoke(new ReleaseSummary(summary.releaseName(), summary.gitHubReleaseId(), Instant.now(), summary.summaryText()));
-    } else {
-      logger.debug("No new release found for [{}]", repositoryIdentifier);
+    var releaseCadence = latestSeenRelease.releaseCadence();
+    try {
+      var changedLatestRelease = unchangedAccordingToBatchedLookup(authorizedGitHubApiClient, repositoryIdentifier, latestSeenRelease.id())
+          ? Optional.<GitHubApiClient.ReleaseDetails>empty()
+          : authorizedGitHubApiClient.getLatestReleaseIfChanged(
+              repositoryIdentifier.owner(), repositoryIdentifier.repo(), latestSeenRelease.id());
+
+      if (changedLatestRelease.isEmpty()) {
+        logger.debug("Latest release not modified for [{}]", repositoryIdentifier);
+      } else if (latestSeenRelease.id().isEmpty()) {
+        // the first summary of a newly added repository is what the user is waiting for, no need to go back in history
+        logger.info("Found first release for [{}], queuing summarization", repositoryIdentifier);
+        if (startSummarization(repositoryIdentifier, changedLatestRelease.get(), SummarizationPriority.HIGH)) {
+          metrics.newReleasesDetected(repositoryIdentifier.owner(), SummarizerMetrics.SOURCE_POLL, 1);
+        }
+        releaseCadence = withRelease(releaseCadence, changedLatestRelease.get());
+      } else if (latestSeenRelease.id().get() < changedLatestRelease.get().id()) {
+        var unseenReleases = authorizedGitHubApiClient.listReleasesNewerThan(
+            repositoryIdentifier.owner(), repositoryIdentifier.repo(), latestSeenRelease.id().get(), maxCatchUpReleases, releasesPageSize);
+        if (unseenReleases.isEmpty()) {
+          // listing is not always consistent with the latest release right after publishing
+          unseenReleases = List.of(changedLatestRelease.get());
+        }
+        if (unseenReleases.size() == maxCatchUpReleases) {
+          logger.warn("Found at least {} new releases for [{}], only summarizing the {} latest", maxCatchUpReleases, repositoryIdentifier, maxCatchUpReleases);
+        } else {
+          logger.info("Found {} new release(s) for [{}], queuing summarization", unseenReleases.size(), repositoryIdentifier);
+        }
+        // oldest first, concurrency is limited by the summarization slots
+        var started = 0;
+        for (var release : unseenReleases) {
+          if (startSummarization(repositoryIdentifier, release, SummarizationPriority.NORMAL)) started++;
+          // not in the entity until summarized, but already tells us the repository is active
+          releaseCadence = withRelease(releaseCadence, release);
+        }
+        if (started > 0) metrics.newReleasesDetected(repositoryIdentifier.owner(), SummarizerMetrics.SOURCE_POLL, started);
+      } else {
+        logger.debug("No new release found for [{}]", repositoryIdentifier);
+      }
+    } catch (GitHubRateLimiter.RateLimitedException e) {
+      // out of quota for polling right now, try again once there is
+      logger.info("Deferring release check for [{}]: {}", repositoryIdentifier, e.getMessage());
+      scheduleNextCheck(repositoryIdentifier, e.retryAfter());
+      return effects().done();
+    } catch (RuntimeException e) {
+      metrics.error("release-check", repositoryIdentifier.owner(), e);
+      throw e;
+    }
+
+    // with webhooks, polling is only a sweep for deliveries that were missed
+    scheduleNextCheck(repositoryIdentifier, latestSeenRelease.webhookEnabled()
+        ? webhookFallbackCheckInterval
+        : releaseCadence.nextCheckDelay(Instant.now(), checkSchedule, ThreadLocalRandom.current()));
+    return effects().done();
+  }
+
+  /**
+   * With batching, only repositories with a newer release than the latest seen are fetched individually
+   */
+  private boolean unchangedAccordingToBatchedLookup(GitHubApiClient gitHubApiClient, RepositoryIdentifier repositoryIdentifier,
+                                                    Optional<Long> latestSeenReleaseId) {
+    if (!gitHubApiClient.batchesLatestReleaseLookups()) return false;
+    try {
+      var latestReleaseId = gitHubApiClient.getLatestReleaseIdBatched(repositoryIdentifier.owner(), repositoryIdentifier.repo());
+      return latestReleaseId.isEmpty() ||
+          (latestSeenReleaseId.isPresent() && latestReleaseId.get() <= latestSeenReleaseId.get());
+    } catch (LatestReleaseBatchPoller.LookupFailedException e) {
+      logger.info("Batched lookup failed for [{}], checking it individually: {}", repositoryIdentifier, e.getMessage());
+      return false;
     }
+  }
+
+  private static ReleaseCadence withRelease(ReleaseCadence releaseCadence, GitHubApiClient.ReleaseDetails release) {
+    return release.publishedAt() != null ? releaseCadence.withRelease(release.publishedAt().toInstant()) : releaseCadence;
+  }
 
-    logger.debug("Scheduling next release check [{}]", Instant.now().plus(checkInterval));
+  /**
+   * @return true if the release was not seen before, false if its summarization was already started
+   */
+  private boolean startSummarization(RepositoryIdentifier repositoryIdentifier, GitHubApiClient.ReleaseDetails release,
+                                     SummarizationPriority priority) {
+    return componentClient.forWorkflow(SummarizationWorkflow.workflowIdFor(repositoryIdentifier, release.id()))
+        .method(SummarizationWorkflow::start)
+        .invoke(new SummarizationWorkflow.StartSummarization(repositoryIdentifier, release, priority))
+        .started();
+  }
+
+  private void scheduleNextCheck(RepositoryIdentifier repositoryIdentifier, Duration delay) {
+    logger.debug("Scheduling next release check [{}]", Instant.now().plus(delay));
     timerScheduler.createSingleTimer(repositoryIdentifier.toString(),
-        checkInterval,
+        delay,
         componentClient.forTimedAction()
             .method(CheckForRelease::checkForNewRelease)
             .deferred(repositoryIdentifier)
     );
-    return effects().done();
   }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package summarizer.application;
+
+import akka.javasdk.agent.Agent;
+import akka.javasdk.annotations.ComponentId;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.RepositoryIdentifier;
+
+/**
+ * Summarizes one part of release notes that are too large to summarize in one go, the partial summaries are then
+ * merged by the {@link SummarizerAgent}. The model is picked from the tiers of {@link SummarizationModels} for the
+ * chunk, like the summarizer picks it for the whole release notes.
+ */
+@ComponentId("chunk-summarizer")
+public final class ChunkSummarizerAgent extends Agent {
+
+  /**
+   * @param issueContext details for the issues referenced in the chunk, if there are any
+   */
+  public record ChunkRequest(RepositoryIdentifier repositoryIdentifier, String releaseName, int chunkNumber,
+                             int chunkCount, String releaseNotesChunk, String issueContext) {}
+
+  static final String SYSTEM_MESSAGE =
+    """
+    You are a technical writer
+
+    You are given one part of release notes taken from github that are too large to summarize in one go. Summarize
+    the changes in this part, your summary will be merged with the summaries of the other parts.
+
+    Group changes based on category: features, bugfixes, documentation changes, dependency bumps.
+    Completely omit changes to the build and continuous integration workflows.
+
+    If there is a mention of a CVE for a dependency bump, add that to the issue summary.
+
+    Keep a link to the issue or PR in each summarized issue.
+
+    Provide the summary as markdown without any preamble, or additional text before and after.
+    """.stripIndent();
+
+  private final Logger logger = LoggerFactory.getLogger(ChunkSummarizerAgent.class);
+
+  private final SummarizationModels models;
+
+  public ChunkSummarizerAgent(Config config) {
+    this.models = new SummarizationModels(config);
+  }
+
+  public Effect<String> summarizeChunk(ChunkRequest request) {
+    var tier = models.tierFor(request.repositoryIdentifier(), request.releaseNotesChunk());
+    logger.debug("Summarizing chunk {}/{} of [{}] release [{}] with model tier [{}]", request.chunkNumber(), request.chunkCount(),
+        request.repositoryIdentifier(), request.releaseName(), tier.name());
+    return effects()
+        .model(tier.model())
+        .systemMessage(SYSTEM_MESSAGE)
+        .userMessage("""
+
+            Here is part %d of %d of the github release notes for %s %s in markdown:
+            <data>
+            %s
+            </data>
+            %s""".formatted(request.chunkNumber(), request.chunkCount(), request.repositoryIdentifier().repo(),
+            request.releaseName(), request.releaseNotesChunk(), request.issueContext()))
+        .thenReply();
+  }
+}
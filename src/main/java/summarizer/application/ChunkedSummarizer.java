@@ -0,0 +1,183 @@
+package summarizer.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.IssueReferences;
+import summarizer.domain.ReleaseNotesChunker;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.TokenEstimate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Map step of summarizing very large release notes: splits them into chunks under a token budget and summarizes the
+ * chunks concurrently with the {@link ChunkSummarizerAgent}. The {@link SummarizerAgent} then merges the partial
+ * summaries into one.
+ * <p>
+ * Chunk sessions count against the cluster wide limit of concurrent LLM sessions: one chunk at a time runs on the slot
+ * of the summarization, and each additional concurrent chunk needs a slot from the {@link SummarizationSlotsEntity}
+ * that is free right now. Without free slots the chunks are summarized one after the other.
+ * <p>
+ * All of this runs within the summarize step of the {@link SummarizationWorkflow}, so the number of chunks is capped
+ * and each chunk has its own timeout, the step timeout is sized from the two, see {@link SummarizationTimeouts}.
+ */
+final class ChunkedSummarizer {
+
+  private final Logger logger = LoggerFactory.getLogger(ChunkedSummarizer.class);
+
+  private final ComponentClient componentClient;
+  private final int thresholdTokens;
+  private final int maxTokensPerChunk;
+  private final int maxChunks;
+  private final Duration chunkTimeout;
+  private final int parallelism;
+  private final int maxConcurrent;
+  private final Duration slotLeaseTimeout;
+
+  ChunkedSummarizer(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.maxConcurrent = config.getInt("summarization.max-concurrent");
+    this.slotLeaseTimeout = SummarizationTimeouts.slotLease(config);
+    var chunkedConfig = config.getConfig("chunked-summarization");
+    this.thresholdTokens = chunkedConfig.getInt("threshold-tokens");
+    this.maxTokensPerChunk = chunkedConfig.getInt("max-tokens-per-chunk");
+    this.maxChunks = chunkedConfig.getInt("max-chunks");
+    this.chunkTimeout = chunkedConfig.getDuration("chunk-timeout");
+    this.parallelism = chunkedConfig.getInt("parallelism");
+  }
+
+  boolean shouldChunk(String releaseNotes) {
+    return TokenEstimate.of(releaseNotes) > thresholdTokens;
+  }
+
+  /**
+   * @return a summary for each chunk of the release notes, in order
+   */
+  List<String> summarizeChunks(RepositoryIdentifier repositoryIdentifier, String releaseName, String releaseNotes,
+                               List<IssuePrefetcher.PrefetchedIssue> prefetchedIssues) {
+    var chunks = split(releaseNotes, maxTokensPerChunk, maxChunks);
+    logger.info("Summarizing [{}] release [{}] in {} chunks", repositoryIdentifier, releaseName, chunks.size());
+
+    var tasks = new ArrayList<Callable<String>>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      var request = new ChunkSummarizerAgent.ChunkRequest(repositoryIdentifier, releaseName, i + 1, chunks.size(),
+          chunks.get(i), IssuePrefetcher.asPromptContext(issuesReferencedIn(repositoryIdentifier, chunks.get(i), prefetchedIssues)));
+      tasks.add(() -> summarizeChunk(request));
+    }
+
+    var start = System.nanoTime();
+    var extraSlots = acquireExtraSlots(Math.min(parallelism, chunks.size()) - 1);
+    logger.debug("Summarizing chunks of [{}] release [{}] with {} additional slots", repositoryIdentifier, releaseName, extraSlots.size());
+    try (var executor = Executors.newFixedThreadPool(1 + extraSlots.size(), Thread.ofVirtual().factory())) {
+      var summaries = new ArrayList<String>(chunks.size());
+      for (Future<String> future : executor.invokeAll(tasks)) {
+        summaries.add(future.get());
+      }
+      logger.info("Summarized {} chunks of [{}] release [{}] in {}ms", chunks.size(), repositoryIdentifier, releaseName,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return summaries;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while summarizing chunks", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to summarize chunk of release notes", e.getCause());
+    } finally {
+      extraSlots.forEach(this::releaseSlot);
+    }
+  }
+
+  private String summarizeChunk(ChunkSummarizerAgent.ChunkRequest request) throws Exception {
+    try {
+      return componentClient.forAgent()
+          .inSession(UUID.randomUUID().toString())
+          .method(ChunkSummarizerAgent::summarizeChunk)
+          .invokeAsync(request)
+          .toCompletableFuture()
+          .get(chunkTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new TimeoutException("Summarizing chunk %d of %d took longer than %s".formatted(request.chunkNumber(),
+          request.chunkCount(), chunkTimeout));
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception cause ? cause : e;
+    }
+  }
+
+  /**
+   * @return at most {@code maxChunks} chunks, larger than {@code maxTokensPerChunk} if the release notes don't fit
+   *         otherwise
+   */
+  static List<String> split(String releaseNotes, int maxTokensPerChunk, int maxChunks) {
+    var budget = maxTokensPerChunk;
+    var chunks = ReleaseNotesChunker.split(releaseNotes, budget);
+    while (chunks.size() > maxChunks) {
+      // chunks are split along sections and list items, so they don't fill the budget exactly, grow it until they fit
+      budget = (int) Math.min(Integer.MAX_VALUE, (long) budget * chunks.size() / maxChunks + 1);
+      chunks = ReleaseNotesChunker.split(releaseNotes, budget);
+    }
+    return chunks;
+  }
+
+  /**
+   * @return ids of the acquired slots, as many as are free up to {@code wanted}
+   */
+  private List<String> acquireExtraSlots(int wanted) {
+    var acquired = new ArrayList<String>(Math.max(wanted, 0));
+    for (int i = 0; i < wanted; i++) {
+      var slotId = "chunk/" + UUID.randomUUID();
+      var result = componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+          .method(SummarizationSlotsEntity::tryAcquire)
+          .invoke(new SummarizationSlotsEntity.TryAcquireSlot(slotId, maxConcurrent, slotLeaseTimeout));
+      if (!result.acquired()) break;
+      acquired.add(slotId);
+    }
+    return acquired;
+  }
+
+  private void releaseSlot(String slotId) {
+    try {
+      componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+          .method(SummarizationSlotsEntity::release)
+          .invoke(new SummarizationSlotsEntity.ReleaseSlot(slotId, maxConcurrent));
+    } catch (RuntimeException e) {
+      // the lease expires eventually
+      logger.warn("Failed to release chunk summarization slot [{}]: {}", slotId, e.getMessage());
+    }
+  }
+
+  private static List<IssuePrefetcher.PrefetchedIssue> issuesReferencedIn(RepositoryIdentifier repositoryIdentifier, String chunk,
+                                                                        List<IssuePrefetcher.PrefetchedIssue> prefetchedIssues) {
+    if (prefetchedIssues.isEmpty()) return List.of();
+    var referenced = new HashSet<>(IssueReferences.find(repositoryIdentifier, chunk, Integer.MAX_VALUE));
+    return prefetchedIssues.stream().filter(issue -> referenced.contains(issue.number())).toList();
+  }
+
+  /**
+   * @return the user message for merging the partial summaries into one
+   */
+  static String asMergePrompt(String repositoryName, String releaseName, List<String> chunkSummaries) {
+    var builder = new StringBuilder("\nThe github release notes for ")
+        .append(repositoryName).append(' ').append(releaseName)
+        .append(" were too large to summarize in one go, here are summaries of each of the ")
+        .append(chunkSummaries.size())
+        .append(" parts of them in markdown. Merge them into one summary, following the instructions for grouping and formatting:\n<data>\n");
+    for (int i = 0; i < chunkSummaries.size(); i++) {
+      builder.append("<part number=\"").append(i + 1).append("\">\n")
+          .append(chunkSummaries.get(i)).append('\n')
+          .append("</part>\n");
+    }
+    builder.append("</data>");
+    return builder.toString();
+  }
+}
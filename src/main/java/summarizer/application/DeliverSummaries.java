@@ -0,0 +1,100 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.SummaryOutbox;
+import summarizer.integration.SummarySink;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+
+/**
+ * Timed action delivering a micro-batch of pending summaries to one sink, and rescheduling itself for as long as there
+ * are summaries pending for the sink. There is at most one timer per sink, so deliveries to a sink never overlap: the
+ * concurrency limit of a sink is one batch in flight across the cluster, and a sink can only deliver the summaries of
+ * one batch concurrently, like the chat sink posting a few messages at a time.
+ */
+@ComponentId("deliver-summaries")
+public final class DeliverSummaries extends TimedAction {
+
+  private final Logger logger = LoggerFactory.getLogger(DeliverSummaries.class);
+
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final SummarySinks sinks;
+  private final SummarizerMetrics metrics;
+  private final int maxBatchSize;
+  private final SummaryOutbox.Backoff backoff;
+  private final int maxAttempts;
+
+  public DeliverSummaries(ComponentClient componentClient, TimerScheduler timerScheduler, SummarySinks sinks,
+                          SummarizerMetrics metrics, Config config) {
+    this.componentClient = componentClient;
+    this.timerScheduler = timerScheduler;
+    this.sinks = sinks;
+    this.metrics = metrics;
+    var deliveryConfig = config.getConfig("summary-delivery");
+    this.maxBatchSize = deliveryConfig.getInt("max-batch-size");
+    this.backoff = new SummaryOutbox.Backoff(deliveryConfig.getDuration("min-backoff"), deliveryConfig.getDuration("max-backoff"));
+    this.maxAttempts = deliveryConfig.getInt("max-attempts");
+  }
+
+  public static String timerNameFor(String sinkName) {
+    return "deliver-summaries-" + sinkName;
+  }
+
+  public Effect deliver(String sinkName) {
+    var sink = sinks.get(sinkName);
+    if (sink.isEmpty()) {
+      logger.warn("Summary sink [{}] is no longer configured, leaving its pending summaries", sinkName);
+      return effects().done();
+    }
+
+    var batch = componentClient.forKeyValueEntity(sinkName)
+        .method(SummaryOutboxEntity::getDue)
+        .invoke(maxBatchSize)
+        .entries();
+
+    var delivered = new ArrayList<String>();
+    var failed = new ArrayList<String>();
+    if (!batch.isEmpty()) {
+      var deliveries = batch.stream()
+          .map(entry -> new SummarySink.Delivery(entry.deliveryId(), entry.repositoryIdentifier(), entry.summary()))
+          .toList();
+      var acknowledged = sink.get().deliver(deliveries);
+      for (var entry : batch) {
+        if (acknowledged.contains(entry.deliveryId())) {
+          delivered.add(entry.deliveryId());
+        } else {
+          failed.add(entry.deliveryId());
+          if (entry.attempts() + 1 >= maxAttempts) {
+            logger.error("Giving up on delivering summary [{}] to [{}] after {} attempts", entry.deliveryId(), sinkName, maxAttempts);
+          }
+        }
+      }
+      logger.debug("Delivered {} of {} summaries to [{}]", delivered.size(), batch.size(), sinkName);
+      metrics.summariesDelivered(sinkName, delivered.size(), failed.size());
+    }
+
+    var recorded = componentClient.forKeyValueEntity(sinkName)
+        .method(SummaryOutboxEntity::recordAttempt)
+        .invoke(new SummaryOutboxEntity.RecordAttempt(delivered, failed, backoff, maxAttempts));
+
+    recorded.nextAttemptAt().ifPresent(nextAttemptAt -> {
+      var delay = Duration.between(Instant.now(), nextAttemptAt);
+      timerScheduler.createSingleTimer(timerNameFor(sinkName),
+          delay.isNegative() ? Duration.ZERO : delay,
+          componentClient.forTimedAction()
+              .method(DeliverSummaries::deliver)
+              .deferred(sinkName));
+    });
+    return effects().done();
+  }
+}
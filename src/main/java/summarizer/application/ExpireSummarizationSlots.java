@@ -0,0 +1,50 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+/**
+ * Timed action regularly freeing up summarization slots held past their lease timeout, for example by a node that
+ * crashed, so that summarizations waiting for a slot are granted one even when no new summarization requests a slot.
+ * Reschedules itself, the first timer is created on startup.
+ */
+@ComponentId("expire-summarization-slots")
+public final class ExpireSummarizationSlots extends TimedAction {
+
+  public static final String TIMER_NAME = "expire-summarization-slots";
+
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final int maxConcurrent;
+  private final Duration slotLeaseTimeout;
+  private final Duration interval;
+
+  public ExpireSummarizationSlots(ComponentClient componentClient, TimerScheduler timerScheduler, Config config) {
+    this.componentClient = componentClient;
+    this.timerScheduler = timerScheduler;
+    var summarizationConfig = config.getConfig("summarization");
+    this.maxConcurrent = summarizationConfig.getInt("max-concurrent");
+    this.slotLeaseTimeout = SummarizationTimeouts.slotLease(config);
+    this.interval = summarizationConfig.getDuration("slot-expiry-interval");
+  }
+
+  public Effect expireLeases() {
+    componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+        .method(SummarizationSlotsEntity::expireLeases)
+        .invoke(new SummarizationSlotsEntity.ExpireLeases(maxConcurrent, slotLeaseTimeout));
+    schedule(timerScheduler, componentClient, interval);
+    return effects().done();
+  }
+
+  public static void schedule(TimerScheduler timerScheduler, ComponentClient componentClient, Duration delay) {
+    timerScheduler.createSingleTimer(TIMER_NAME, delay,
+        componentClient.forTimedAction()
+            .method(ExpireSummarizationSlots::expireLeases)
+            .deferred());
+  }
+}
@@ -5,11 +5,13 @@ import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import summarizer.domain.ReleaseCadence;
 import summarizer.domain.ReleaseSummary;
 import summarizer.domain.RepositoryEvent;
 import summarizer.domain.RepositoryIdentifier;
 import summarizer.domain.RepositoryState;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
@@ -18,7 +20,10 @@ import java.util.Optional;
 import static akka.Done.done;
 
 /**
- * Represents one GitHub repository, its history of releases and their summaries
+ * Represents one GitHub repository, its history of releases and summaries of the most recent ones
+ * <p>
+ * The state is snapshotted regularly (see {@code akka.javasdk.event-sourced-entity.snapshot-every}), and bounded in
+ * size, so that recovery time and memory per entity stay the same no matter how many releases a repository has had.
  */
 @ComponentId("github-repository")
 public class GitHubRepositoryEntity extends EventSourcedEntity<RepositoryState, RepositoryEvent> {
@@ -41,11 +46,21 @@ public class GitHubRepositoryEntity extends EventSourcedEntity<RepositoryState,
     }
   }
 
-  public record SetUpRepository(String gitHubOrganization, String repositoryName, Optional<String> gitHubApiToken) {}
+  public record SetUpRepository(String gitHubOrganization, String repositoryName, Optional<String> gitHubApiToken,
+                                Optional<Duration> firstCheckDelay) {}
 
-  public record LatestSeenRelease(Optional<Long> id, Optional<String> gitHubApiToken) {}
+  public record LatestSeenRelease(Optional<Long> id, Optional<String> gitHubApiToken, boolean webhookEnabled,
+                                  ReleaseCadence releaseCadence) {}
 
-  public record Summaries(List<ReleaseSummary> summaries) {}
+  /**
+   * @param latestSeenRelease together with the number of seen releases identifies the version of the summaries
+   */
+  public record Summaries(List<ReleaseSummary> summaries, Optional<Long> latestSeenRelease, int seenReleaseCount) {}
+
+  /**
+   * @param compress store the summary gzipped in the event
+   */
+  public record AddSummary(ReleaseSummary summary, boolean compress) {}
 
   public Effect<Done> setUp(SetUpRepository setUpRepository) {
     if (currentState() != null) {
@@ -55,34 +70,72 @@ public class GitHubRepositoryEntity extends EventSourcedEntity<RepositoryState,
       setUpRepository.gitHubApiToken.isPresent() ? " (with custom auth token)" : ""
     );
 
-    return effects().persist(new RepositoryEvent.Created(Instant.now(), setUpRepository.gitHubApiToken()))
+    return effects().persist(new RepositoryEvent.Created(Instant.now(), setUpRepository.gitHubApiToken(), setUpRepository.firstCheckDelay()))
         .thenReply(ignored -> done());
   }
 
   public ReadOnlyEffect<LatestSeenRelease> getLatestSeenRelease() {
     var state = currentState();
-    return effects().reply(new LatestSeenRelease(state.getLatestSeenRelease(), state.getGitHubApiToken()));
+    return effects().reply(latestSeenRelease(state));
+  }
+
+  /**
+   * A release webhook delivery for the repository was received
+   */
+  public Effect<LatestSeenRelease> webhookDelivered() {
+    if (currentState() == null) {
+      return effects().error("Repository [" + commandContext().entityId() + "] is not set up");
+    }
+    if (currentState().webhookEnabled()) {
+      return effects().reply(latestSeenRelease(currentState()));
+    }
+    logger.info("First webhook delivery for [{}], only polling as a fallback from now on", commandContext().entityId());
+    return effects().persist(new RepositoryEvent.WebhookEnabled(Instant.now()))
+        .thenReply(this::latestSeenRelease);
+  }
+
+  private LatestSeenRelease latestSeenRelease(RepositoryState state) {
+    return new LatestSeenRelease(state.latestSeenRelease(), state.gitHubApiToken(), state.webhookEnabled(),
+        state.releaseCadence());
+  }
+
+  public Effect<Done> addSummary(AddSummary addSummary) {
+    var summary = addSummary.summary();
+    if (currentState().hasSeen(summary.githubReleaseId())) {
+      // duplicate write, for example a retried workflow step, first writer wins
+      logger.debug("Summary for release [{}] of [{}] already added, ignoring", summary.githubReleaseId(), commandContext().entityId());
+      return effects().reply(done());
+    }
+    RepositoryEvent event = addSummary.compress()
+        ? RepositoryEvent.CompressedSummaryAdded.of(summary)
+        : new RepositoryEvent.SummaryAdded(summary);
+    return effects().persist(event)
+        .thenReply(ignored -> done());
   }
 
-  public Effect<Done> addSummary(ReleaseSummary summary) {
-    // in case of multiple writes for same id, latest writer wins
-    return effects().persist(new RepositoryEvent.SummaryAdded(summary))
+  /**
+   * Give up on summarizing the release, it is seen from now on, so that checks do not detect it as new again
+   */
+  public Effect<Done> skipRelease(long gitHubReleaseId) {
+    if (currentState().hasSeen(gitHubReleaseId)) {
+      return effects().reply(done());
+    }
+    logger.warn("Skipping release [{}] of [{}] without a summary", gitHubReleaseId, commandContext().entityId());
+    return effects().persist(new RepositoryEvent.ReleaseSkipped(gitHubReleaseId, Instant.now()))
         .thenReply(ignored -> done());
   }
 
   public ReadOnlyEffect<Summaries> getSummaries() {
     if (currentState() != null) {
-      return effects().reply(new Summaries(currentState().getSummaries()));
+      return effects().reply(new Summaries(currentState().summaries(), currentState().latestSeenRelease(),
+          currentState().seenReleases().count()));
     } else {
-      return effects().reply(new Summaries(Collections.emptyList()));
+      return effects().reply(new Summaries(Collections.emptyList(), Optional.empty(), 0));
     }
   }
 
   @Override
   public RepositoryState applyEvent(RepositoryEvent event) {
-    return switch(event) {
-      case RepositoryEvent.Created created -> new RepositoryState(created.creationDate(), created.gitApiHubToken());
-      case RepositoryEvent.SummaryAdded summaryAdded -> currentState().addSummary(summaryAdded);
-    };
+    return RepositoryState.applyEvent(currentState(), event);
   }
 }
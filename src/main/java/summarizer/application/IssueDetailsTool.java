@@ -0,0 +1,59 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.Description;
+import akka.javasdk.annotations.FunctionTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.integration.GitHubApiClient;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tool for the model to look up details of issues in the repository of the release notes it is summarizing
+ */
+final class IssueDetailsTool {
+
+  private final Logger logger = LoggerFactory.getLogger(IssueDetailsTool.class);
+
+  private final GitHubApiClient gitHubApiClient;
+  private final RepositoryIdentifier repositoryIdentifier;
+  private final SummarizerMetrics metrics;
+  private final AtomicInteger calls = new AtomicInteger();
+
+  IssueDetailsTool(GitHubApiClient gitHubApiClient, RepositoryIdentifier repositoryIdentifier, SummarizerMetrics metrics) {
+    this.gitHubApiClient = gitHubApiClient;
+    this.repositoryIdentifier = repositoryIdentifier;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return number of times the model has called the tool so far
+   */
+  int calls() {
+    return calls.get();
+  }
+
+  @FunctionTool(description = """
+      Get more details for an issue id. The id must be a known issue id in the repository of the release notes. 
+        "Use when the release notes does not contain enough information about an issue to provide a summary for it.
+        "Only ask for issue details once for a given issue id, subsequent calls will return the same information
+      """)
+  public String getIssueDetails(@Description("The github issue id to get details for") int issueId) {
+    logger.info("Getting issue details for issue id {}", issueId);
+    calls.incrementAndGet();
+    var start = System.nanoTime();
+    GitHubApiClient.IssueDetails issueDetails;
+    try {
+      issueDetails = gitHubApiClient.getDetails(repositoryIdentifier.owner(), repositoryIdentifier.repo(), Integer.toString(issueId));
+    } catch (RuntimeException e) {
+      metrics.issueDetailsToolCall(repositoryIdentifier.owner(), SummarizerMetrics.OUTCOME_ERROR, start);
+      metrics.error("issue-details-tool", repositoryIdentifier.owner(), e);
+      throw e;
+    }
+    metrics.issueDetailsToolCall(repositoryIdentifier.owner(), SummarizerMetrics.OUTCOME_SUCCESS, start);
+    return (issueDetails.title() == null ? "" : ("##" + issueDetails.title() + "\n")) +
+        (issueDetails.body() == null ? "" : issueDetails.body());
+  }
+}
@@ -0,0 +1,119 @@
+package summarizer.application;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.IssueReferences;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.integration.GitHubApiClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches details for the issues and pull requests referenced in release notes concurrently, up front, so that they
+ * can be included in the prompt instead of the model having to ask for them one by one through tool calls.
+ */
+final class IssuePrefetcher {
+
+  record PrefetchedIssue(int number, String title, String body) {}
+
+  private final Logger logger = LoggerFactory.getLogger(IssuePrefetcher.class);
+
+  private final GitHubApiClient gitHubApiClient;
+  private final boolean enabled;
+  private final int maxReferences;
+  private final int maxCharsPerIssue;
+  private final int parallelism;
+  private final Duration timeout;
+
+  IssuePrefetcher(GitHubApiClient gitHubApiClient, Config config) {
+    this.gitHubApiClient = gitHubApiClient;
+    this.enabled = config.getBoolean("enabled");
+    this.maxReferences = config.getInt("max-references");
+    this.maxCharsPerIssue = config.getInt("max-chars-per-issue");
+    this.parallelism = config.getInt("parallelism");
+    this.timeout = config.getDuration("timeout");
+  }
+
+  /**
+   * @return details for the issues referenced in the release notes that could be fetched within the timeout, in
+   *         order of appearance. Issues that could not be fetched are left out, the model can still use the tool for
+   *         those.
+   */
+  List<PrefetchedIssue> prefetch(RepositoryIdentifier repositoryIdentifier, String releaseNotes) {
+    if (!enabled) return List.of();
+    var references = IssueReferences.find(repositoryIdentifier, releaseNotes, maxReferences);
+    if (references.isEmpty()) return List.of();
+
+    var start = System.nanoTime();
+    var tasks = new ArrayList<Callable<Optional<PrefetchedIssue>>>(references.size());
+    for (var issueNumber : references) {
+      tasks.add(() -> fetch(repositoryIdentifier, issueNumber));
+    }
+
+    var prefetched = new ArrayList<PrefetchedIssue>(references.size());
+    try (var executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().factory())) {
+      for (var future : executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        try {
+          future.get().ifPresent(prefetched::add);
+        } catch (CancellationException e) {
+          // did not complete within the timeout
+        } catch (ExecutionException e) {
+          // fetch already logs and maps failures to empty
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    logger.info("Prefetched details for {} of {} referenced issues for [{}] in {}ms",
+        prefetched.size(), references.size(), repositoryIdentifier, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return prefetched;
+  }
+
+  private Optional<PrefetchedIssue> fetch(RepositoryIdentifier repositoryIdentifier, int issueNumber) {
+    try {
+      var details = gitHubApiClient.getDetails(repositoryIdentifier.owner(), repositoryIdentifier.repo(), Integer.toString(issueNumber));
+      return Optional.of(new PrefetchedIssue(issueNumber, details.title() == null ? "" : details.title(), truncate(details.body())));
+    } catch (RuntimeException e) {
+      logger.debug("Could not prefetch issue {} for [{}]: {}", issueNumber, repositoryIdentifier, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private String truncate(String body) {
+    if (body == null) return "";
+    else if (body.length() <= maxCharsPerIssue) return body;
+    else return body.substring(0, maxCharsPerIssue) + "\n[truncated]";
+  }
+
+  /**
+   * @return the prefetched issues formatted for inclusion in the user message to the model, empty string if there
+   *         are none
+   */
+  static String asPromptContext(List<PrefetchedIssue> issues) {
+    if (issues.isEmpty()) return "";
+    var builder = new StringBuilder("""
+
+        Here are details for issues and pull requests referenced in the release notes, there is no need to use tools
+        to get details for these:
+        <issues>
+        """);
+    for (var issue : issues) {
+      builder.append("<issue id=\"").append(issue.number()).append("\">\n")
+          .append("## ").append(issue.title()).append('\n')
+          .append(issue.body()).append('\n')
+          .append("</issue>\n");
+    }
+    builder.append("</issues>\n");
+    return builder.toString();
+  }
+}
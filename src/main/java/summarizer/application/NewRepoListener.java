@@ -6,11 +6,13 @@ import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
 import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import summarizer.domain.RepositoryEvent;
 
 import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Listens for new repository creation, when seen, schedules checking for releases to summarize
@@ -23,18 +25,23 @@ public final class NewRepoListener extends Consumer {
 
   private final TimerScheduler timerScheduler;
   private final ComponentClient componentClient;
+  private final Duration firstCheckMaxDelay;
 
-  public NewRepoListener(TimerScheduler timerScheduler, ComponentClient componentClient) {
+  public NewRepoListener(TimerScheduler timerScheduler, ComponentClient componentClient, Config config) {
     this.timerScheduler = timerScheduler;
     this.componentClient = componentClient;
+    this.firstCheckMaxDelay = config.getDuration("release-check-schedule.first-check-max-delay");
   }
 
   public Effect onEvent(RepositoryEvent event) {
     if (event instanceof RepositoryEvent.Created created) {
       var repositoryId = messageContext().eventSubject().get();
-      logger.info("Saw repository created [{}] scheduling immediate check for release", repositoryId);
+      // spread out the first checks of repositories added at the same time
+      var delay = created.firstCheckDelay().orElseGet(() ->
+          Duration.ofSeconds(1).plusMillis(ThreadLocalRandom.current().nextLong(Math.max(1, firstCheckMaxDelay.toMillis()))));
+      logger.info("Saw repository created [{}] scheduling check for release in {}", repositoryId, delay);
 
-      timerScheduler.createSingleTimer(repositoryId, Duration.ofSeconds(1),
+      timerScheduler.createSingleTimer(repositoryId, delay,
           componentClient.forTimedAction()
               .method(CheckForRelease::checkForNewRelease)
               .deferred(GitHubRepositoryEntity.identifierFor(repositoryId)));
@@ -2,23 +2,60 @@ package summarizer.application;
 
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import summarizer.domain.RepositoryEvent;
 
+import java.time.Duration;
+
+/**
+ * Publishes new summaries to the configured {@link SummarySinks}: each summary is added to the
+ * {@link SummaryOutboxEntity} of each sink, and the first summary of a batch schedules {@link DeliverSummaries} for
+ * the sink after the batch window, so that summaries added close together are delivered together.
+ */
 @ComponentId("new-summary-publisher")
 @Consume.FromEventSourcedEntity(GitHubRepositoryEntity.class)
 public final class NewSummaryPublisher extends Consumer {
 
   private final Logger log = LoggerFactory.getLogger(NewSummaryPublisher.class);
 
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final SummarySinks sinks;
+  private final Duration batchWindow;
+
+  public NewSummaryPublisher(ComponentClient componentClient, TimerScheduler timerScheduler, SummarySinks sinks, Config config) {
+    this.componentClient = componentClient;
+    this.timerScheduler = timerScheduler;
+    this.sinks = sinks;
+    this.batchWindow = config.getDuration("summary-delivery.batch-window");
+  }
+
   public Consumer.Effect onEvent(RepositoryEvent event) {
-    if (event instanceof RepositoryEvent.SummaryAdded summaryAdded) {
-      // FIXME publish/send release summary somewhere where it can be read
-      log.info("New release summary added for repository [{}]: {}",
-          messageContext().eventSubject().get(),
-          summaryAdded);
+    var summary = switch (event) {
+      case RepositoryEvent.SummaryAdded summaryAdded -> summaryAdded.summary();
+      case RepositoryEvent.CompressedSummaryAdded summaryAdded -> summaryAdded.summary();
+      default -> null;
+    };
+    if (summary != null) {
+      var repositoryId = messageContext().eventSubject().get();
+      log.info("New release summary added for repository [{}]: {}", repositoryId, summary);
+      var repositoryIdentifier = GitHubRepositoryEntity.identifierFor(repositoryId);
+      for (var sinkName : sinks.names()) {
+        var enqueued = componentClient.forKeyValueEntity(sinkName)
+            .method(SummaryOutboxEntity::enqueue)
+            .invoke(new SummaryOutboxEntity.Enqueue(repositoryIdentifier, summary));
+        if (enqueued.firstPending()) {
+          timerScheduler.createSingleTimer(DeliverSummaries.timerNameFor(sinkName), batchWindow,
+              componentClient.forTimedAction()
+                  .method(DeliverSummaries::deliver)
+                  .deferred(sinkName));
+        }
+      }
       return effects().done();
     } else {
       return effects().ignore();
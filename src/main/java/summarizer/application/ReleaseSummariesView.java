@@ -0,0 +1,55 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Summaries across all repositories, newest first, paged using page tokens
+ */
+@ComponentId("release-summaries")
+public class ReleaseSummariesView extends View {
+
+  /**
+   * @param pageToken empty for the first page, then the next page token from the previous page
+   */
+  public record SinceQuery(Instant since, String pageToken, int pageSize) {}
+
+  public record OwnerSinceQuery(String owner, Instant since, String pageToken, int pageSize) {}
+
+  public record SummaryPage(List<ReleaseSummaryEntity.SummaryEntry> summaries, String nextPageToken, boolean hasMore) {}
+
+  @Table("release_summaries")
+  @Consume.FromKeyValueEntity(ReleaseSummaryEntity.class)
+  public static class ReleaseSummaries extends TableUpdater<ReleaseSummaryEntity.SummaryEntry> {}
+
+  @Query("""
+      SELECT * AS summaries, next_page_token() AS nextPageToken, has_more() AS hasMore
+      FROM release_summaries
+      WHERE creationDate >= :since
+      ORDER BY creationDate DESC
+      OFFSET page_token_offset(:pageToken)
+      LIMIT :pageSize
+      """)
+  public QueryEffect<SummaryPage> summariesSince(SinceQuery query) {
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT * AS summaries, next_page_token() AS nextPageToken, has_more() AS hasMore
+      FROM release_summaries
+      WHERE owner = :owner AND creationDate >= :since
+      ORDER BY creationDate DESC
+      OFFSET page_token_offset(:pageToken)
+      LIMIT :pageSize
+      """)
+  public QueryEffect<SummaryPage> summariesForOwnerSince(OwnerSinceQuery query) {
+    return queryResult();
+  }
+}
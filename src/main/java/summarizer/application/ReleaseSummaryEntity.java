@@ -0,0 +1,33 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static akka.Done.done;
+
+/**
+ * Read side copy of one release summary, one entity per repository and release, fed by the {@link SummaryIndexer}
+ * so that the {@link ReleaseSummariesView} can have a row per summary
+ */
+@ComponentId("release-summary")
+public class ReleaseSummaryEntity extends KeyValueEntity<ReleaseSummaryEntity.SummaryEntry> {
+
+  /**
+   * @param excerpt the start of the summary
+   */
+  public record SummaryEntry(String owner, String repo, String version, long githubReleaseId, Instant creationDate,
+                             Optional<Instant> publishedAt, String excerpt) {}
+
+  public static String entityIdFor(RepositoryIdentifier repositoryIdentifier, long gitHubReleaseId) {
+    return repositoryIdentifier.owner() + "/" + repositoryIdentifier.repo() + "/" + gitHubReleaseId;
+  }
+
+  public Effect<Done> store(SummaryEntry entry) {
+    return effects().updateState(entry).thenReply(done());
+  }
+}
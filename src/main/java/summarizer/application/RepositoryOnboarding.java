@@ -0,0 +1,103 @@
+package summarizer.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.integration.GitHubApiClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets up many repositories at once, concurrently, with their first release checks spread out evenly over a ramp
+ * window rather than all of them checking GitHub and starting summarizations right away.
+ */
+public final class RepositoryOnboarding {
+
+  public record SetUpResult(String repository, boolean created, Optional<String> error) {}
+
+  private final Logger logger = LoggerFactory.getLogger(RepositoryOnboarding.class);
+
+  private final ComponentClient componentClient;
+  private final GitHubApiClient gitHubApiClient;
+  private final int maxRepositories;
+  private final int parallelism;
+  private final Duration rampWindow;
+
+  public RepositoryOnboarding(ComponentClient componentClient, GitHubApiClient gitHubApiClient, Config config) {
+    this.componentClient = componentClient;
+    this.gitHubApiClient = gitHubApiClient;
+    this.maxRepositories = config.getInt("max-repositories");
+    this.parallelism = config.getInt("parallelism");
+    this.rampWindow = config.getDuration("ramp-window");
+  }
+
+  public int maxRepositories() {
+    return maxRepositories;
+  }
+
+  /**
+   * @return the public repositories of the owner, excluding forks and archived ones, at most one more than the max
+   *         number of repositories that can be set up at once
+   */
+  public List<RepositoryIdentifier> repositoriesOf(String owner, Optional<String> gitHubApiToken) {
+    var authorizedGitHubApiClient = gitHubApiToken.map(gitHubApiClient::withApiToken).orElse(gitHubApiClient);
+    return authorizedGitHubApiClient.repositories(owner, 100)
+        .limit(maxRepositories + 1L)
+        .map(repository -> RepositoryIdentifier.of(owner, repository.name()))
+        .toList();
+  }
+
+  /**
+   * @return the result for each repository, in the same order
+   */
+  public List<SetUpResult> setUp(List<RepositoryIdentifier> repositories, Optional<String> gitHubApiToken) {
+    var start = System.nanoTime();
+    var tasks = new ArrayList<Callable<SetUpResult>>(repositories.size());
+    for (int i = 0; i < repositories.size(); i++) {
+      var repository = repositories.get(i);
+      // evenly spread over the ramp window, in the order given
+      var firstCheckDelay = Duration.ofSeconds(1).plus(rampWindow.multipliedBy(i).dividedBy(repositories.size()));
+      tasks.add(() -> setUp(repository, gitHubApiToken, firstCheckDelay));
+    }
+
+    var results = new ArrayList<SetUpResult>(repositories.size());
+    try (var executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().factory())) {
+      for (var future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while setting up repositories", e);
+    } catch (ExecutionException e) {
+      // setUp maps failures to results
+      throw new RuntimeException("Failed to set up repositories", e.getCause());
+    }
+
+    logger.info("Set up {} of {} repositories in {}ms, first checks spread over {}",
+        results.stream().filter(SetUpResult::created).count(), repositories.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rampWindow);
+    return results;
+  }
+
+  private SetUpResult setUp(RepositoryIdentifier repository, Optional<String> gitHubApiToken, Duration firstCheckDelay) {
+    try {
+      componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repository))
+          .method(GitHubRepositoryEntity::setUp)
+          .invoke(new GitHubRepositoryEntity.SetUpRepository(repository.owner(), repository.repo(), gitHubApiToken,
+              Optional.of(firstCheckDelay)));
+      return new SetUpResult(repository.toString(), true, Optional.empty());
+    } catch (RuntimeException e) {
+      logger.debug("Failed to set up [{}]", repository, e);
+      return new SetUpResult(repository.toString(), false, Optional.ofNullable(e.getMessage()));
+    }
+  }
+}
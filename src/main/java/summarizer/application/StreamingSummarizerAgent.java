@@ -0,0 +1,93 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.agent.Agent;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.TokenEstimate;
+import summarizer.integration.GitHubApiClient;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Same as the {@link SummarizerAgent}, but streams the summary as the model generates it, so that a client sees the
+ * first of it right away. A cached summary is streamed as one element.
+ * <p>
+ * A streamed reply cannot be mapped like the reply of the {@link SummarizerAgent}, so a summarization is three calls:
+ * {@link #prepare} filters the release notes, looks for a cached summary and builds the prompt, very large release
+ * notes are summarized in chunks here, {@link #summarize} streams the summary, and {@link #completed} is called by the
+ * client with the complete text, to store it in the {@link SummaryCache} and record the model time and tokens.
+ */
+@ComponentId("streaming-summarizer")
+public final class StreamingSummarizerAgent extends Agent {
+
+  /**
+   * @param releaseString description of the release for logging
+   * @param tier          name of the model tier to summarize with
+   */
+  public record StreamingPrompt(SummarizerAgent.SummarizeRequest request, String releaseString, String cacheKey,
+                                Optional<String> cachedSummary, String tier, String userMessage) {}
+
+  /**
+   * @param modelTime time from starting the stream to the last token
+   */
+  public record StreamedSummary(StreamingPrompt prompt, String summaryText, Duration modelTime) {}
+
+  private final Logger logger = LoggerFactory.getLogger(StreamingSummarizerAgent.class);
+
+  private final GitHubApiClient gitHubApiClient;
+  private final SummarizationPreparation preparation;
+  private final SummarizerMetrics metrics;
+  private final SummarizationModels models;
+
+  public StreamingSummarizerAgent(GitHubApiClient gitHubApiClient, SummaryCache summaryCache, ComponentClient componentClient,
+                                  SummarizerMetrics metrics, Config config) {
+    this.gitHubApiClient = gitHubApiClient;
+    this.metrics = metrics;
+    this.preparation = new SummarizationPreparation(gitHubApiClient, summaryCache, componentClient, config);
+    this.models = new SummarizationModels(config);
+  }
+
+  public Effect<StreamingPrompt> prepare(SummarizerAgent.SummarizeRequest request) {
+    var prepared = preparation.prepare(request, SummarizerAgent.SYSTEM_MESSAGE);
+    if (prepared.cachedSummary().isPresent()) {
+      return effects().reply(new StreamingPrompt(request, prepared.releaseString(), prepared.cacheKey(),
+          prepared.cachedSummary(), SummarizationModels.DEFAULT_TIER, ""));
+    }
+    var tier = models.tierFor(request.repositoryIdentifier(), prepared.releaseNotes());
+    return effects().reply(new StreamingPrompt(request, prepared.releaseString(), prepared.cacheKey(), Optional.empty(),
+        tier.name(), preparation.userMessage(request, prepared)));
+  }
+
+  public StreamEffect summarize(StreamingPrompt prompt) {
+    if (prompt.cachedSummary().isPresent()) {
+      return streamEffects().reply(prompt.cachedSummary().get());
+    }
+
+    var tier = models.tierNamed(prompt.tier());
+    logger.info("Starting streaming summarization [{}] with the {} model", prompt.releaseString(), tier.name());
+    return streamEffects()
+        .model(tier.model())
+        .systemMessage(SummarizerAgent.SYSTEM_MESSAGE)
+        .tools(new IssueDetailsTool(gitHubApiClient, prompt.request().repositoryIdentifier(), metrics))
+        .userMessage(prompt.userMessage())
+        .thenReply();
+  }
+
+  public Effect<Done> completed(StreamedSummary summary) {
+    var prompt = summary.prompt();
+    if (prompt.cachedSummary().isEmpty()) {
+      preparation.completed(prompt.releaseString(), prompt.cacheKey(), SummarizerAgent.SYSTEM_MESSAGE,
+          prompt.userMessage(), summary.summaryText());
+      metrics.streamedSummaryCompleted(prompt.request().repositoryIdentifier().owner(), prompt.tier(), summary.modelTime(),
+          TokenEstimate.of(SummarizerAgent.SYSTEM_MESSAGE) + TokenEstimate.of(prompt.userMessage()),
+          TokenEstimate.of(summary.summaryText()));
+    }
+    return effects().reply(Done.getInstance());
+  }
+}
@@ -0,0 +1,82 @@
+package summarizer.application;
+
+import akka.javasdk.agent.ModelProvider;
+import com.typesafe.config.Config;
+import summarizer.domain.IssueReferences;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.TokenEstimate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the model to summarize a release with from the size of its release notes: the estimated number of tokens,
+ * the number of referenced issues and the number of sections. Small releases go to a fast and cheap model, only large
+ * ones to the strongest one.
+ */
+final class SummarizationModels {
+
+  /**
+   * @param name for logging and metrics
+   */
+  record Tier(String name, ModelProvider model, int maxInputTokens, int maxIssueReferences, int maxSections) {
+    boolean fits(int inputTokens, int issueReferences, int sections) {
+      return inputTokens <= maxInputTokens && issueReferences <= maxIssueReferences && sections <= maxSections;
+    }
+  }
+
+  static final String DEFAULT_TIER = "default";
+
+  private static final Pattern HEADING = Pattern.compile("(?m)^#{1,6}\\s");
+
+  private final List<Tier> tiers;
+
+  SummarizationModels(Config config) {
+    this.tiers = tiers(config);
+  }
+
+  private static List<Tier> tiers(Config config) {
+    var tiersConfig = config.getConfig("summarization-model-tiers");
+    if (!tiersConfig.getBoolean("enabled")) {
+      return List.of(new Tier(DEFAULT_TIER, ModelProvider.fromConfig(), Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+    var names = tiersConfig.getStringList("tiers");
+    var tiers = new ArrayList<Tier>(names.size());
+    for (int i = 0; i < names.size(); i++) {
+      var name = names.get(i);
+      var tierConfig = tiersConfig.getConfig(name);
+      var last = i == names.size() - 1;
+      tiers.add(new Tier(name,
+          ModelProvider.fromConfig("summarization-model-tiers." + name + ".model"),
+          last ? Integer.MAX_VALUE : tierConfig.getInt("max-input-tokens"),
+          last ? Integer.MAX_VALUE : tierConfig.getInt("max-issue-references"),
+          last ? Integer.MAX_VALUE : tierConfig.getInt("max-sections")));
+    }
+    return List.copyOf(tiers);
+  }
+
+  /**
+   * @param releaseNotes the release notes, or the part of them, that the model is asked to summarize
+   * @return the first tier the release notes are within all limits of, the last tier for anything larger
+   */
+  Tier tierFor(RepositoryIdentifier repositoryIdentifier, String releaseNotes) {
+    var inputTokens = TokenEstimate.of(releaseNotes);
+    var issueReferences = IssueReferences.find(repositoryIdentifier, releaseNotes, Integer.MAX_VALUE).size();
+    var sections = releaseNotes == null ? 0 : (int) HEADING.matcher(releaseNotes).results().count();
+    for (var tier : tiers) {
+      if (tier.fits(inputTokens, issueReferences, sections)) return tier;
+    }
+    return tiers.getLast();
+  }
+
+  /**
+   * @return the tier with the given name, the last tier if there is none, like after the tiers were reconfigured
+   */
+  Tier tierNamed(String name) {
+    for (var tier : tiers) {
+      if (tier.name().equals(name)) return tier;
+    }
+    return tiers.getLast();
+  }
+}
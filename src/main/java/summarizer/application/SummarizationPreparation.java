@@ -0,0 +1,196 @@
+package summarizer.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.ReleaseDelta;
+import summarizer.domain.ReleaseNotesFilter;
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.TokenEstimate;
+import summarizer.integration.GitHubApiClient;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Everything that goes into summarizing a release before and after the model is called, shared by the
+ * {@link SummarizerAgent} and the {@link StreamingSummarizerAgent}: filtering the release notes, looking up and
+ * storing the summary in the {@link SummaryCache}, prefetching referenced issues, summarizing very large release
+ * notes in chunks, and finding an earlier release whose summary can be updated with only the changes.
+ */
+final class SummarizationPreparation {
+
+  /**
+   * @param releaseString description of the release for logging
+   */
+  record Prepared(String releaseString, String releaseNotes, String cacheKey, Optional<String> cachedSummary) {}
+
+  /**
+   * @param previous summary of the earlier release to update with the changes
+   */
+  record DeltaContext(ReleaseSummary previous, ReleaseDelta.Delta delta) {}
+
+  private final Logger logger = LoggerFactory.getLogger(SummarizationPreparation.class);
+
+  private final IssuePrefetcher issuePrefetcher;
+  private final SummaryCache summaryCache;
+  private final ChunkedSummarizer chunkedSummarizer;
+  private final Optional<ReleaseNotesFilter> releaseNotesFilter;
+  private final GitHubApiClient gitHubApiClient;
+  private final ComponentClient componentClient;
+  private final boolean deltaSummarization;
+  private final double minSharedItems;
+
+  SummarizationPreparation(GitHubApiClient gitHubApiClient, SummaryCache summaryCache, ComponentClient componentClient, Config config) {
+    this.gitHubApiClient = gitHubApiClient;
+    this.componentClient = componentClient;
+    this.summaryCache = summaryCache;
+    this.issuePrefetcher = new IssuePrefetcher(gitHubApiClient, config.getConfig("issue-prefetch"));
+    this.chunkedSummarizer = new ChunkedSummarizer(componentClient, config);
+    this.releaseNotesFilter = releaseNotesFilter(config.getConfig("release-notes-filter"));
+    this.deltaSummarization = config.getBoolean("delta-summarization.enabled");
+    this.minSharedItems = config.getDouble("delta-summarization.min-shared-items");
+  }
+
+  private static Optional<ReleaseNotesFilter> releaseNotesFilter(Config config) {
+    if (!config.getBoolean("enabled")) return Optional.empty();
+    return Optional.of(new ReleaseNotesFilter(new ReleaseNotesFilter.Rules(
+        config.getStringList("drop-line-patterns").stream().map(Pattern::compile).toList(),
+        Set.copyOf(config.getStringList("drop-sections")),
+        Set.copyOf(config.getStringList("bot-authors")),
+        Pattern.compile(config.getString("dependency-bump-pattern")),
+        config.getInt("max-input-tokens"))));
+  }
+
+  /**
+   * Filter the release notes and look for a cached summary of them
+   */
+  Prepared prepare(SummarizerAgent.SummarizeRequest request, String systemMessage) {
+    var releaseString = "[" + request.repositoryIdentifier().owner() + "/" + request.repositoryIdentifier().repo() + "] release [" + request.releaseDetails().name() + " (" + request.releaseDetails().id() + ")]";
+    var releaseNotes = filterReleaseNotes(request, releaseString);
+    var cacheKey = summaryCache.keyFor(releaseNotes, systemMessage);
+    return new Prepared(releaseString, releaseNotes, cacheKey, cachedSummary(cacheKey, releaseString));
+  }
+
+  /**
+   * Drop the parts of the release notes that would not end up in the summary anyway, before spending tokens on them
+   */
+  private String filterReleaseNotes(SummarizerAgent.SummarizeRequest request, String releaseString) {
+    return filterReleaseNotes(request.releaseDetails().body(), releaseString);
+  }
+
+  private String filterReleaseNotes(String releaseNotes, String releaseString) {
+    if (releaseNotesFilter.isEmpty()) return releaseNotes;
+    var filtered = releaseNotesFilter.get().apply(releaseNotes);
+    logger.info("Filtered release notes for [{}] from {} to {} estimated tokens", releaseString,
+        filtered.estimatedTokensBefore(), filtered.estimatedTokensAfter());
+    return filtered.releaseNotes();
+  }
+
+  /**
+   * @return the user message for the model, with the release notes and details about referenced issues, or for very
+   *         large release notes, the summaries of each part of them to merge
+   */
+  String userMessage(SummarizerAgent.SummarizeRequest request, Prepared prepared) {
+    var repositoryIdentifier = request.repositoryIdentifier();
+    var releaseName = request.releaseDetails().name();
+    var prefetchedIssues = issuePrefetcher.prefetch(repositoryIdentifier, prepared.releaseNotes());
+    if (chunkedSummarizer.shouldChunk(prepared.releaseNotes())) {
+      // too large to summarize in one go, summarize parts concurrently and let the model merge those
+      var chunkSummaries = chunkedSummarizer.summarizeChunks(repositoryIdentifier, releaseName, prepared.releaseNotes(), prefetchedIssues);
+      return ChunkedSummarizer.asMergePrompt(repositoryIdentifier.repo(), releaseName, chunkSummaries);
+    } else {
+      return """
+           
+            Here are the github release notes for
+            """ + repositoryIdentifier.repo() + " " + releaseName + " in markdown: \n<data>\n" +
+            prepared.releaseNotes() + "\n</data>" +
+            IssuePrefetcher.asPromptContext(prefetchedIssues);
+    }
+  }
+
+  /**
+   * Look for an earlier summarized release of the same version line with mostly the same release notes. Pre-releases
+   * are never summarized, so release candidates are only found if they were published as regular releases. The earlier
+   * release notes are fetched again to compare them.
+   *
+   * @return the summary to update and the changes, empty if the release should be summarized from scratch
+   */
+  Optional<DeltaContext> delta(SummarizerAgent.SummarizeRequest request, Prepared prepared) {
+    if (!deltaSummarization) return Optional.empty();
+    var repositoryIdentifier = request.repositoryIdentifier();
+    var summaries = componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
+        .method(GitHubRepositoryEntity::getSummaries)
+        .invoke()
+        .summaries();
+    var related = ReleaseDelta.relatedSummary(request.releaseDetails().name(), request.releaseDetails().id(), summaries);
+    if (related.isEmpty()) return Optional.empty();
+
+    GitHubApiClient.ReleaseDetails earlierRelease;
+    try {
+      earlierRelease = gitHubApiClient.getRelease(repositoryIdentifier.owner(), repositoryIdentifier.repo(), related.get().githubReleaseId());
+    } catch (RuntimeException e) {
+      logger.info("Could not fetch earlier release [{}] for [{}], summarizing from scratch: {}", related.get().version(),
+          prepared.releaseString(), e.getMessage());
+      return Optional.empty();
+    }
+    var delta = ReleaseDelta.between(filterReleaseNotes(earlierRelease.body(), prepared.releaseString()), prepared.releaseNotes());
+    var deltaTokens = TokenEstimate.of(delta.asMarkdown()) + TokenEstimate.of(related.get().summary());
+    var fullTokens = TokenEstimate.of(prepared.releaseNotes());
+    if (delta.sharedRatio() < minSharedItems || deltaTokens >= fullTokens) {
+      logger.debug("Release notes of [{}] share {} of {} items with [{}], summarizing from scratch", prepared.releaseString(),
+          delta.sharedItems(), delta.items(), related.get().version());
+      return Optional.empty();
+    }
+    if (chunkedSummarizer.shouldChunk(related.get().summary() + "\n" + delta.asMarkdown())) {
+      // the update prompt is not chunked, the full release notes are
+      logger.info("Changes in [{}] since [{}] too large for one prompt, summarizing from scratch", prepared.releaseString(),
+          related.get().version());
+      return Optional.empty();
+    }
+    logger.info("Updating summary of [{}] for [{}] with {} added and {} removed items, {} instead of {} estimated tokens",
+        related.get().version(), prepared.releaseString(), delta.addedItems().size(), delta.removedItems().size(),
+        deltaTokens, fullTokens);
+    return Optional.of(new DeltaContext(related.get(), delta));
+  }
+
+  /**
+   * @return the user message for the model, with the summary to update, the changed items of the release notes and
+   *         details about issues referenced in the added items
+   */
+  String deltaUserMessage(SummarizerAgent.SummarizeRequest request, DeltaContext deltaContext) {
+    var repositoryIdentifier = request.repositoryIdentifier();
+    var changes = deltaContext.delta().asMarkdown();
+    var prefetchedIssues = issuePrefetcher.prefetch(repositoryIdentifier, changes);
+    return "\nHere is the summary of the earlier release " + repositoryIdentifier.repo() + " " +
+        deltaContext.previous().version() + " in markdown: \n<summary>\n" + deltaContext.previous().summary() +
+        "\n</summary>\n\nHere are the changes in the github release notes for " + repositoryIdentifier.repo() + " " +
+        request.releaseDetails().name() + " compared to the earlier release, in markdown: \n<data>\n" + changes +
+        "\n</data>" + IssuePrefetcher.asPromptContext(prefetchedIssues);
+  }
+
+  /**
+   * A summary updated from an earlier summary is cached under the update prompt and its input, the key of the full
+   * release notes must only ever give a summary generated from the full release notes
+   */
+  String deltaCacheKey(DeltaContext deltaContext) {
+    return summaryCache.keyFor(deltaContext.previous().summary() + "\n" + deltaContext.delta().asMarkdown(),
+        SummarizerAgent.UPDATE_SYSTEM_MESSAGE);
+  }
+
+  Optional<String> cachedSummary(String cacheKey, String releaseString) {
+    var cachedSummary = summaryCache.lookup(cacheKey).map(SummaryCacheEntity.CachedSummary::summaryText);
+    if (cachedSummary.isPresent()) {
+      logger.info("Found cached summary for [{}]", releaseString);
+    }
+    return cachedSummary;
+  }
+
+  void completed(String releaseString, String cacheKey, String systemMessage, String userMessage, String summaryText) {
+    logger.info("Summary completed [{}]", releaseString);
+    summaryCache.store(cacheKey, summaryText,
+        TokenEstimate.of(systemMessage) + TokenEstimate.of(userMessage) + TokenEstimate.of(summaryText));
+  }
+}
@@ -0,0 +1,47 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.SummarizationSlotEvent;
+
+/**
+ * Resumes summarization workflows that were waiting for a slot once one is granted to them, and releases the slot
+ * right away if the workflow no longer needs it
+ */
+@ComponentId("summarization-slot-listener")
+@Consume.FromEventSourcedEntity(SummarizationSlotsEntity.class)
+public final class SummarizationSlotListener extends Consumer {
+
+  private final Logger logger = LoggerFactory.getLogger(SummarizationSlotListener.class);
+
+  private final ComponentClient componentClient;
+  private final int maxConcurrent;
+
+  public SummarizationSlotListener(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.maxConcurrent = config.getInt("summarization.max-concurrent");
+  }
+
+  public Effect onEvent(SummarizationSlotEvent event) {
+    if (event instanceof SummarizationSlotEvent.SlotGranted granted) {
+      logger.debug("Summarization slot granted to [{}]", granted.workflowId());
+      var result = componentClient.forWorkflow(granted.workflowId())
+          .method(SummarizationWorkflow::slotGranted)
+          .invoke();
+      if (!result.needed()) {
+        logger.info("Summarization slot granted to [{}] that no longer needs it, releasing it", granted.workflowId());
+        componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+            .method(SummarizationSlotsEntity::release)
+            .invoke(new SummarizationSlotsEntity.ReleaseSlot(granted.workflowId(), maxConcurrent));
+      }
+      return effects().done();
+    } else {
+      return effects().ignore();
+    }
+  }
+}
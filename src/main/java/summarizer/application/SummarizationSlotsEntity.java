@@ -0,0 +1,107 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import summarizer.domain.SummarizationPriority;
+import summarizer.domain.SummarizationSlotEvent;
+import summarizer.domain.SummarizationSlots;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static akka.Done.done;
+
+/**
+ * Cluster wide limit on the number of concurrently running summarizations. There is a single instance of this entity,
+ * with id {@link #GLOBAL_ID}.
+ * <p>
+ * A summarization that could not get a slot right away is queued, and resumed by {@link SummarizationSlotListener}
+ * once a slot is granted to it.
+ */
+@ComponentId("summarization-slots")
+public class SummarizationSlotsEntity extends EventSourcedEntity<SummarizationSlots, SummarizationSlotEvent> {
+
+  public static final String GLOBAL_ID = "global";
+
+  /**
+   * Capacity and lease timeout come from config in the caller, entities cannot read config
+   */
+  public record AcquireSlot(String workflowId, SummarizationPriority priority, int capacity, Duration leaseTimeout) {}
+
+  public record ReleaseSlot(String workflowId, int capacity) {}
+
+  /**
+   * An additional slot, acquired only if one is free, never queued
+   */
+  public record TryAcquireSlot(String slotId, int capacity, Duration leaseTimeout) {}
+
+  public record ExpireLeases(int capacity, Duration leaseTimeout) {}
+
+  /**
+   * @param acquired true if a slot was acquired, false if the request was queued
+   */
+  public record AcquireResult(boolean acquired) {}
+
+  public record SlotStatus(int active, int queued) {}
+
+  @Override
+  public SummarizationSlots emptyState() {
+    return SummarizationSlots.empty();
+  }
+
+  public Effect<AcquireResult> acquire(AcquireSlot acquireSlot) {
+    var events = currentState().request(acquireSlot.workflowId(), acquireSlot.priority(), Instant.now(),
+        acquireSlot.leaseTimeout(), acquireSlot.capacity());
+    if (events.isEmpty()) {
+      return effects().reply(new AcquireResult(currentState().isActive(acquireSlot.workflowId())));
+    } else {
+      return effects().persistAll(events)
+          .thenReply(newState -> new AcquireResult(newState.isActive(acquireSlot.workflowId())));
+    }
+  }
+
+  public Effect<AcquireResult> tryAcquire(TryAcquireSlot tryAcquireSlot) {
+    var events = currentState().tryAcquire(tryAcquireSlot.slotId(), Instant.now(), tryAcquireSlot.leaseTimeout(),
+        tryAcquireSlot.capacity());
+    if (events.isEmpty()) {
+      return effects().reply(new AcquireResult(false));
+    } else {
+      return effects().persistAll(events)
+          .thenReply(newState -> new AcquireResult(newState.isActive(tryAcquireSlot.slotId())));
+    }
+  }
+
+  public Effect<Done> release(ReleaseSlot releaseSlot) {
+    var events = currentState().release(releaseSlot.workflowId(), Instant.now(), releaseSlot.capacity());
+    if (events.isEmpty()) {
+      return effects().reply(done());
+    } else {
+      return effects().persistAll(events)
+          .thenReply(ignored -> done());
+    }
+  }
+
+  /**
+   * Free up slots held past the lease timeout and grant them to queued summarizations, leases are otherwise only
+   * expired when a slot is requested
+   */
+  public Effect<Done> expireLeases(ExpireLeases expireLeases) {
+    var events = currentState().expireLeases(Instant.now(), expireLeases.leaseTimeout(), expireLeases.capacity());
+    if (events.isEmpty()) {
+      return effects().reply(done());
+    } else {
+      return effects().persistAll(events)
+          .thenReply(ignored -> done());
+    }
+  }
+
+  public ReadOnlyEffect<SlotStatus> getStatus() {
+    return effects().reply(new SlotStatus(currentState().active().size(), currentState().queueDepth()));
+  }
+
+  @Override
+  public SummarizationSlots applyEvent(SummarizationSlotEvent event) {
+    return currentState().apply(event);
+  }
+}
@@ -0,0 +1,34 @@
+package summarizer.application;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+/**
+ * Timeouts of summarizing a release, derived from the configuration so that the summarize step covers summarizing
+ * the largest release notes in chunks, and a slot lease covers all attempts of the summarize step.
+ */
+final class SummarizationTimeouts {
+
+  private SummarizationTimeouts() {}
+
+  /**
+   * The summarization timeout, plus the time to summarize the max number of chunks one after the other, which is what
+   * it takes when there are no free slots for summarizing chunks concurrently
+   */
+  static Duration summarizeStep(Config config) {
+    var chunkedConfig = config.getConfig("chunked-summarization");
+    return config.getDuration("summarization.timeout")
+        .plus(chunkedConfig.getDuration("chunk-timeout").multipliedBy(chunkedConfig.getInt("max-chunks")));
+  }
+
+  /**
+   * The configured lease timeout, but never shorter than the summarize step with all its retries, a lease expiring
+   * while the summarization is still running would let more summarizations run concurrently than allowed
+   */
+  static Duration slotLease(Config config) {
+    var allAttempts = summarizeStep(config).multipliedBy(config.getInt("summarization.max-retries") + 1L);
+    var configured = config.getDuration("summarization.slot-lease-timeout");
+    return configured.compareTo(allAttempts) >= 0 ? configured : allAttempts;
+  }
+}
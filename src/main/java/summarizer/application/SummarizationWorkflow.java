@@ -0,0 +1,293 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.workflow.Workflow;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.SummarizationPriority;
+import summarizer.integration.GitHubApiClient;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static akka.javasdk.workflow.Workflow.RecoverStrategy.maxRetries;
+
+/**
+ * Summarizes one release of a repository and stores the summary in the {@link GitHubRepositoryEntity}.
+ * <p>
+ * There is one workflow per repository and release, so a release is only ever summarized once, no matter how many
+ * times it is seen. Before talking to the LLM, the workflow acquires a slot from the {@link SummarizationSlotsEntity},
+ * limiting the number of concurrent LLM sessions across the cluster. If there is no free slot the workflow pauses
+ * until one is granted to it.
+ * <p>
+ * Only the id, name and publish time of the release are kept in the workflow state, which is stored on every step
+ * transition, release notes can be hundreds of kilobytes. The release is fetched again from GitHub when summarizing.
+ * <p>
+ * A failed summarization is paused rather than ended, and started over when the release is seen again after a
+ * backoff, up to a max number of attempts. After the last failed attempt the release is skipped in the repository
+ * entity, so that checks stop detecting it as a new release.
+ */
+@ComponentId("summarize-release")
+public class SummarizationWorkflow extends Workflow<SummarizationWorkflow.State> {
+
+  public enum Status { ACQUIRING_SLOT, WAITING_FOR_SLOT, SUMMARIZING, STORING_SUMMARY, COMPLETED, FAILED }
+
+  /**
+   * The release to summarize, without the release notes
+   */
+  public record Release(long id, String name, Optional<Instant> publishedAt) {
+    static Release of(GitHubApiClient.ReleaseDetails releaseDetails) {
+      return new Release(releaseDetails.id(), releaseDetails.name(),
+          Optional.ofNullable(releaseDetails.publishedAt()).map(ZonedDateTime::toInstant));
+    }
+  }
+
+  /**
+   * @param attempt  starting at 1, incremented each time a failed summarization is started over
+   * @param failedAt when the latest attempt failed, empty unless failed
+   */
+  public record State(String workflowId, RepositoryIdentifier repositoryIdentifier, Release release,
+                      SummarizationPriority priority, Status status, int attempt, Optional<Instant> failedAt) {
+    State withStatus(Status newStatus) {
+      return new State(workflowId, repositoryIdentifier, release, priority, newStatus, attempt, failedAt);
+    }
+
+    State failed(Instant now) {
+      return new State(workflowId, repositoryIdentifier, release, priority, Status.FAILED, attempt, Optional.of(now));
+    }
+  }
+
+  public record StartSummarization(RepositoryIdentifier repositoryIdentifier, GitHubApiClient.ReleaseDetails releaseDetails,
+                                   SummarizationPriority priority) {}
+
+  /**
+   * @param started true if the release was not seen before, false if the summarization was already started, also
+   *                when a failed summarization is started over
+   */
+  public record StartResult(boolean started) {}
+
+  /**
+   * @param needed false if the workflow is no longer waiting for a slot, finished or failed, and the granted slot should
+   *               be released again
+   */
+  public record SlotGrantResult(boolean needed) {}
+
+  public static String workflowIdFor(RepositoryIdentifier repositoryIdentifier, long gitHubReleaseId) {
+    return repositoryIdentifier.owner() + "/" + repositoryIdentifier.repo() + "/" + gitHubReleaseId;
+  }
+
+  private static final String ACQUIRE_SLOT = "acquire-slot";
+  private static final String SUMMARIZE = "summarize";
+  private static final String STORE_SUMMARY = "store-summary";
+  private static final String RELEASE_SLOT = "release-slot";
+  private static final String SUMMARIZATION_FAILED = "summarization-failed";
+  private static final String SKIP_RELEASE = "skip-release";
+
+  private final Logger logger = LoggerFactory.getLogger(SummarizationWorkflow.class);
+
+  private final ComponentClient componentClient;
+  private final GitHubApiClient gitHubApiClient;
+  private final SummarizerMetrics metrics;
+  private final int maxConcurrent;
+  private final Duration slotLeaseTimeout;
+  private final Duration summarizationTimeout;
+  private final Duration summarizeStepTimeout;
+  private final int maxRetries;
+  private final boolean compressSummaries;
+  private final int maxAttempts;
+  private final Duration failedRetryBackoff;
+
+  public SummarizationWorkflow(ComponentClient componentClient, GitHubApiClient gitHubApiClient, SummarizerMetrics metrics,
+                               Config config) {
+    this.componentClient = componentClient;
+    this.gitHubApiClient = gitHubApiClient;
+    this.metrics = metrics;
+    var summarizationConfig = config.getConfig("summarization");
+    this.maxConcurrent = summarizationConfig.getInt("max-concurrent");
+    this.slotLeaseTimeout = SummarizationTimeouts.slotLease(config);
+    this.summarizationTimeout = summarizationConfig.getDuration("timeout");
+    this.summarizeStepTimeout = SummarizationTimeouts.summarizeStep(config);
+    this.maxRetries = summarizationConfig.getInt("max-retries");
+    this.compressSummaries = summarizationConfig.getBoolean("compress-stored-summaries");
+    this.maxAttempts = summarizationConfig.getInt("max-attempts");
+    this.failedRetryBackoff = summarizationConfig.getDuration("failed-retry-backoff");
+  }
+
+  @Override
+  public WorkflowDef<State> definition() {
+    Step acquireSlot = step(ACQUIRE_SLOT)
+        .call(() -> metrics.entityCall("summarization-slots", "acquire", () ->
+            componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+                .method(SummarizationSlotsEntity::acquire)
+                .invoke(new SummarizationSlotsEntity.AcquireSlot(currentState().workflowId(), currentState().priority(), maxConcurrent, slotLeaseTimeout))))
+        .andThen(SummarizationSlotsEntity.AcquireResult.class, result -> {
+          if (result.acquired()) {
+            return effects().updateState(currentState().withStatus(Status.SUMMARIZING))
+                .transitionTo(SUMMARIZE);
+          } else {
+            logger.info("No free summarization slot for [{}], waiting", currentState().workflowId());
+            return effects().updateState(currentState().withStatus(Status.WAITING_FOR_SLOT))
+                .pause();
+          }
+        });
+
+    // large release notes are summarized in chunks within this step, see ChunkedSummarizer
+    Step summarize = step(SUMMARIZE)
+        .call(this::summarize)
+        .andThen(SummarizerAgent.SummaryResult.class, summary ->
+            effects().updateState(currentState().withStatus(Status.STORING_SUMMARY))
+                .transitionTo(STORE_SUMMARY,
+                    new ReleaseSummary(summary.releaseName(), summary.gitHubReleaseId(), Instant.now(), summary.summaryText(),
+                        currentState().release().publishedAt())))
+        .timeout(summarizeStepTimeout);
+
+    Step storeSummary = step(STORE_SUMMARY)
+        .call(ReleaseSummary.class, summary -> metrics.entityCall("github-repository", "add-summary", () ->
+            componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(currentState().repositoryIdentifier()))
+                .method(GitHubRepositoryEntity::addSummary)
+                .invoke(new GitHubRepositoryEntity.AddSummary(summary, compressSummaries))))
+        .andThen(Done.class, ignored ->
+            effects().updateState(currentState().withStatus(Status.COMPLETED))
+                .transitionTo(RELEASE_SLOT));
+
+    Step releaseSlot = step(RELEASE_SLOT)
+        .call(this::releaseSlot)
+        .andThen(Done.class, ignored -> effects().end());
+
+    Step summarizationFailed = step(SUMMARIZATION_FAILED)
+        .call(this::releaseSlot)
+        .andThen(Done.class, ignored -> {
+          if (currentState().attempt() >= maxAttempts) {
+            logger.error("Summarization of [{}] failed {} times, giving up", currentState().workflowId(), currentState().attempt());
+            return effects().updateState(currentState().failed(Instant.now()))
+                .transitionTo(SKIP_RELEASE);
+          } else {
+            // paused rather than ended, so that it can be started over when the release is seen again
+            logger.warn("Summarization of [{}] failed, attempt {} of {}", currentState().workflowId(),
+                currentState().attempt(), maxAttempts);
+            return effects().updateState(currentState().failed(Instant.now())).pause();
+          }
+        });
+
+    Step skipRelease = step(SKIP_RELEASE)
+        .call(() -> metrics.entityCall("github-repository", "skip-release", () ->
+            componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(currentState().repositoryIdentifier()))
+                .method(GitHubRepositoryEntity::skipRelease)
+                .invoke(currentState().release().id())))
+        .andThen(Done.class, ignored -> effects().end());
+
+    return workflow()
+        .defaultStepTimeout(summarizationTimeout)
+        .addStep(acquireSlot)
+        .addStep(summarize, maxRetries(maxRetries).failoverTo(SUMMARIZATION_FAILED))
+        .addStep(storeSummary)
+        .addStep(releaseSlot)
+        .addStep(summarizationFailed)
+        .addStep(skipRelease);
+  }
+
+  private SummarizerAgent.SummaryResult summarize() {
+    var request = new SummarizerAgent.SummarizeRequest(currentState().repositoryIdentifier(), fetchRelease());
+    var owner = request.repositoryIdentifier().owner();
+    var start = System.nanoTime();
+    try {
+      var result = componentClient.forAgent()
+          .inSession(UUID.randomUUID().toString())
+          .method(SummarizerAgent::summarize)
+          .invoke(request);
+      metrics.llmSession(owner, SummarizerMetrics.OUTCOME_SUCCESS, start);
+      return result;
+    } catch (RuntimeException e) {
+      metrics.llmSession(owner, SummarizerMetrics.OUTCOME_ERROR, start);
+      metrics.error("summarization", owner, e);
+      throw e;
+    }
+  }
+
+  /**
+   * @return the release with its release notes, fetched with the API token of the repository if it has one
+   */
+  private GitHubApiClient.ReleaseDetails fetchRelease() {
+    var repositoryIdentifier = currentState().repositoryIdentifier();
+    var latestSeenRelease = metrics.entityCall("github-repository", "get-latest-seen-release", () ->
+        componentClient.forEventSourcedEntity(GitHubRepositoryEntity.entityIdFor(repositoryIdentifier))
+            .method(GitHubRepositoryEntity::getLatestSeenRelease)
+            .invoke());
+    var authorizedGitHubApiClient =
+        latestSeenRelease.gitHubApiToken().map(gitHubApiClient::withApiToken).orElse(gitHubApiClient);
+    return authorizedGitHubApiClient.getRelease(repositoryIdentifier.owner(), repositoryIdentifier.repo(),
+        currentState().release().id());
+  }
+
+  private Done releaseSlot() {
+    return metrics.entityCall("summarization-slots", "release", () ->
+        componentClient.forEventSourcedEntity(SummarizationSlotsEntity.GLOBAL_ID)
+            .method(SummarizationSlotsEntity::release)
+            .invoke(new SummarizationSlotsEntity.ReleaseSlot(currentState().workflowId(), maxConcurrent)));
+  }
+
+  public Effect<StartResult> start(StartSummarization start) {
+    if (currentState() != null && currentState().status() == Status.FAILED && currentState().attempt() < maxAttempts) {
+      var retryAt = currentState().failedAt().orElse(Instant.EPOCH)
+          .plus(failedRetryBackoff.multipliedBy(1L << Math.min(currentState().attempt() - 1, 20)));
+      if (Instant.now().isBefore(retryAt)) {
+        logger.debug("Summarization [{}] failed, not starting it over before {}", commandContext().workflowId(), retryAt);
+        return effects().reply(new StartResult(false));
+      }
+      logger.info("Starting failed summarization [{}] over, attempt {} of {}", commandContext().workflowId(),
+          currentState().attempt() + 1, maxAttempts);
+      return effects()
+          .updateState(new State(commandContext().workflowId(), start.repositoryIdentifier(), Release.of(start.releaseDetails()),
+              start.priority(), Status.ACQUIRING_SLOT, currentState().attempt() + 1, Optional.empty()))
+          .transitionTo(ACQUIRE_SLOT)
+          .thenReply(new StartResult(false));
+    }
+    if (currentState() != null) {
+      // release already seen, for example by overlapping checks, only summarize it once
+      logger.debug("Summarization [{}] already started, status {}", commandContext().workflowId(), currentState().status());
+      return effects().reply(new StartResult(false));
+    }
+    logger.info("Starting summarization [{}] with priority {}", commandContext().workflowId(), start.priority());
+    return effects()
+        .updateState(new State(commandContext().workflowId(), start.repositoryIdentifier(), Release.of(start.releaseDetails()),
+            start.priority(), Status.ACQUIRING_SLOT, 1, Optional.empty()))
+        .transitionTo(ACQUIRE_SLOT)
+        .thenReply(new StartResult(true));
+  }
+
+  /**
+   * Resume a workflow that was waiting for a summarization slot, once it has been granted one
+   */
+  public Effect<SlotGrantResult> slotGranted() {
+    if (currentState() == null) {
+      return effects().reply(new SlotGrantResult(false));
+    }
+    return switch (currentState().status()) {
+      case WAITING_FOR_SLOT -> effects()
+          .updateState(currentState().withStatus(Status.SUMMARIZING))
+          .transitionTo(SUMMARIZE)
+          .thenReply(new SlotGrantResult(true));
+      // granted before we paused, the caller retries
+      case ACQUIRING_SLOT -> effects().error("Summarization [" + commandContext().workflowId() + "] not yet waiting for a slot");
+      case SUMMARIZING, STORING_SUMMARY -> effects().reply(new SlotGrantResult(true));
+      // finished or failed over while queued, nobody releases the slot otherwise until its lease expires
+      case COMPLETED, FAILED -> effects().reply(new SlotGrantResult(false));
+    };
+  }
+
+  public ReadOnlyEffect<State> getState() {
+    if (currentState() == null) {
+      return effects().error("Summarization [" + commandContext().workflowId() + "] not started");
+    }
+    return effects().reply(currentState());
+  }
+}
@@ -1,12 +1,13 @@
 package summarizer.application;
 
 import akka.javasdk.agent.Agent;
-import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.ComponentId;
-import akka.javasdk.annotations.Description;
-import akka.javasdk.annotations.FunctionTool;
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
 import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.TokenEstimate;
 import summarizer.integration.GitHubApiClient;
+import summarizer.metrics.SummarizerMetrics;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
@@ -18,7 +19,7 @@ public final class SummarizerAgent extends Agent {
   public record SummarizeRequest(RepositoryIdentifier repositoryIdentifier, GitHubApiClient.ReleaseDetails releaseDetails) { }
 
 
-  private static final String SYSTEM_MESSAGE =
+  static final String SYSTEM_MESSAGE =
     """
     You are a technical writer
     
@@ -39,45 +40,83 @@ public final class SummarizerAgent extends Agent {
     Provide the summary as markdown without any preamble, or additional text before and after, so that it can be published as is.
     """.stripIndent();
 
+  /**
+   * For a release whose notes mostly repeat an earlier summarized release of the same version line
+   */
+  static final String UPDATE_SYSTEM_MESSAGE = SYSTEM_MESSAGE +
+    """
+    
+    Instead of the full release notes you are given the summary of an earlier release of the same project, and the
+    changes to the release notes since that release: items that were added or changed, and items that were removed.
+    The new release contains everything in the earlier release except the removed items. Update the earlier summary:
+    add the added and changed items, drop the removed items, and keep everything else as it is. Do not mention the
+    earlier release.
+    """.stripIndent();
+
   private final Logger logger = LoggerFactory.getLogger(SummarizerAgent.class);
 
   private final GitHubApiClient gitHubApiClient;
-  volatile private RepositoryIdentifier repositoryIdentifier = null;
+  private final SummarizationPreparation preparation;
+  private final SummarizerMetrics metrics;
+  private final SummarizationModels models;
 
-  public SummarizerAgent(GitHubApiClient gitHubApiClient) {
+  public SummarizerAgent(GitHubApiClient gitHubApiClient, SummaryCache summaryCache, ComponentClient componentClient,
+                         SummarizerMetrics metrics, Config config) {
     this.gitHubApiClient = gitHubApiClient;
+    this.metrics = metrics;
+    this.preparation = new SummarizationPreparation(gitHubApiClient, summaryCache, componentClient, config);
+    this.models = new SummarizationModels(config);
   }
 
   public Effect<SummaryResult> summarize(SummarizeRequest request) {
-    var releaseString = "[" + request.repositoryIdentifier.owner() + "/" + request.repositoryIdentifier.repo() + "] release [" + request.releaseDetails.name() + " (" + request.releaseDetails.id() + ")]";
-    repositoryIdentifier = request.repositoryIdentifier;
-    logger.info("Starting summarization [{}]", releaseString);
+    var prepared = preparation.prepare(request, SYSTEM_MESSAGE);
+    if (prepared.cachedSummary().isPresent()) {
+      return effects().reply(
+          new SummaryResult(request.releaseDetails.id(), request.releaseDetails.name(), request.repositoryIdentifier, prepared.cachedSummary().get()));
+    }
+
+    var deltaContext = preparation.delta(request, prepared);
+    if (deltaContext.isPresent() && deltaContext.get().delta().unchanged()) {
+      logger.info("Release notes of [{}] unchanged since [{}], reusing its summary", prepared.releaseString(),
+          deltaContext.get().previous().version());
+      return effects().reply(
+          new SummaryResult(request.releaseDetails.id(), request.releaseDetails.name(), request.repositoryIdentifier, deltaContext.get().previous().summary()));
+    }
+
+    var cacheKey = deltaContext.map(preparation::deltaCacheKey).orElse(prepared.cacheKey());
+    if (deltaContext.isPresent()) {
+      var cachedUpdate = preparation.cachedSummary(cacheKey, prepared.releaseString());
+      if (cachedUpdate.isPresent()) {
+        return effects().reply(
+            new SummaryResult(request.releaseDetails.id(), request.releaseDetails.name(), request.repositoryIdentifier, cachedUpdate.get()));
+      }
+    }
+
+    // an update repeats the earlier summary with the changes applied, so it needs as much output as the earlier summary
+    var tier = models.tierFor(request.repositoryIdentifier, deltaContext
+        .map(context -> context.previous().summary() + "\n" + context.delta().asMarkdown())
+        .orElse(prepared.releaseNotes()));
+    logger.info("Starting summarization [{}] with the {} model", prepared.releaseString(), tier.name());
+    var systemMessage = deltaContext.isPresent() ? UPDATE_SYSTEM_MESSAGE : SYSTEM_MESSAGE;
+    var userMessage = deltaContext.isPresent()
+        ? preparation.deltaUserMessage(request, deltaContext.get())
+        : preparation.userMessage(request, prepared);
+    var issueDetailsTool = new IssueDetailsTool(gitHubApiClient, request.repositoryIdentifier, metrics);
+    var start = System.nanoTime();
     return effects()
-        .model(ModelProvider.fromConfig())
-        .systemMessage(SYSTEM_MESSAGE)
-        .userMessage("""
-           
-            Here are the github release notes for
-            """ + request.repositoryIdentifier.repo() + " " + request.releaseDetails.name() + " in markdown: \n<data>\n" +
-            request.releaseDetails.body() + "\n</data>"
-        ).responseAs(String.class)
+        .model(tier.model())
+        .systemMessage(systemMessage)
+        .tools(issueDetailsTool)
+        .userMessage(userMessage)
+        .responseAs(String.class)
         .map(summaryText -> {
-          logger.info("Summary completed [{}]", releaseString);
-            return new SummaryResult(request.releaseDetails.id(), request.releaseDetails.name(), request.repositoryIdentifier, summaryText);
+          preparation.completed(prepared.releaseString(), cacheKey, systemMessage, userMessage, summaryText);
+          metrics.summaryCompleted(request.repositoryIdentifier.owner(), tier.name(), start,
+              TokenEstimate.of(systemMessage) + TokenEstimate.of(userMessage), TokenEstimate.of(summaryText),
+              issueDetailsTool.calls());
+          return new SummaryResult(request.releaseDetails.id(), request.releaseDetails.name(), request.repositoryIdentifier, summaryText);
         })
         .thenReply();
     }
 
-    @FunctionTool(description = """
-        Get more details for an issue id. The id must be a known issue id in the repository of the release notes. 
-          "Use when the release notes does not contain enough information about an issue to provide a summary for it.
-          "Only ask for issue details once for a given issue id, subsequent calls will return the same information
-        """)
-    private String getIssueDetails(@Description("The github issue id to get details for") int issueId) {
-      logger.info("Getting issue details for issue id {}", issueId);
-      var issueDetails = gitHubApiClient.getDetails(repositoryIdentifier.owner(), repositoryIdentifier.repo(), Integer.toString(issueId));
-      return (issueDetails.title() == null ? "" : ("##" + issueDetails.title() + "\n")) +
-          (issueDetails.body() == null ? "" : issueDetails.body());
-    }
-
 }
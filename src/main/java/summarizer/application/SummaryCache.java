@@ -0,0 +1,131 @@
+package summarizer.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigRenderOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Content addressed cache of generated summaries, stored in {@link SummaryCacheEntity} instances keyed by a hash of
+ * the normalized input, the system prompt and the model configuration. The input is the release notes, or for a
+ * summary updated from an earlier one, the earlier summary and the changes. Changing the prompt or the model
+ * results in different keys, so there is never a need to invalidate entries.
+ * <p>
+ * One instance is shared by all agents on the node, keeping hit/miss counts and the estimated number of tokens saved.
+ */
+public final class SummaryCache {
+
+  public record Stats(long hits, long misses, long estimatedTokensSaved) {}
+
+  private static final Pattern TRAILING_WHITESPACE = Pattern.compile("[ \\t]+\\n");
+  private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+
+  private final Logger logger = LoggerFactory.getLogger(SummaryCache.class);
+
+  private final ComponentClient componentClient;
+  private final boolean enabled;
+  private final String modelFingerprint;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder estimatedTokensSaved = new LongAdder();
+
+  public SummaryCache(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.enabled = config.getBoolean("summary-cache.enabled");
+    this.modelFingerprint = modelFingerprint(config);
+  }
+
+  /**
+   * @return the cache key for a summary of the release notes, or other input, generated with the given system message
+   */
+  String keyFor(String releaseNotes, String systemMessage) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(normalize(releaseNotes).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(systemMessage.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(modelFingerprint.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  Optional<SummaryCacheEntity.CachedSummary> lookup(String key) {
+    if (!enabled) return Optional.empty();
+    var cached = componentClient.forKeyValueEntity(key)
+        .method(SummaryCacheEntity::get)
+        .invoke()
+        .summary();
+    if (cached.isPresent()) {
+      hits.increment();
+      estimatedTokensSaved.add(cached.get().estimatedTokens());
+    } else {
+      misses.increment();
+    }
+    return cached;
+  }
+
+  void store(String key, String summaryText, int estimatedTokens) {
+    if (!enabled) return;
+    // not waiting for it, and not being able to cache the summary should not fail the summarization
+    componentClient.forKeyValueEntity(key)
+        .method(SummaryCacheEntity::put)
+        .invokeAsync(new SummaryCacheEntity.CachedSummary(summaryText, Instant.now(), estimatedTokens))
+        .exceptionally(error -> {
+          logger.warn("Failed to store summary in cache", error);
+          return null;
+        });
+  }
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), estimatedTokensSaved.sum());
+  }
+
+  /**
+   * Line endings, trailing whitespace and runs of blank lines are not significant for the summary
+   */
+  static String normalize(String releaseNotes) {
+    if (releaseNotes == null) return "";
+    var normalized = releaseNotes.replace("\r\n", "\n").replace('\r', '\n');
+    normalized = TRAILING_WHITESPACE.matcher(normalized).replaceAll("\n");
+    normalized = BLANK_LINES.matcher(normalized).replaceAll("\n\n");
+    return normalized.strip();
+  }
+
+  /**
+   * The configuration of the model providers used for summarization, including the model tiers, except for the api
+   * keys, so that rotating a key does not invalidate the cache. Large release notes are summarized in chunks that are
+   * merged, so the chunk prompt and how release notes are split into chunks are part of it as well.
+   */
+  private static String modelFingerprint(Config config) {
+    var provider = config.getString("akka.javasdk.agent.model-provider");
+    var providerConfig = config.getConfig("akka.javasdk.agent." + provider).withoutPath("api-key");
+    var fingerprint = new StringBuilder(provider).append(':').append(providerConfig.root().render(ConfigRenderOptions.concise()));
+    var tiersConfig = config.getConfig("summarization-model-tiers");
+    if (tiersConfig.getBoolean("enabled")) {
+      for (var tier : tiersConfig.getStringList("tiers")) {
+        var tierConfig = tiersConfig.getConfig(tier).withoutPath("model.api-key");
+        fingerprint.append('|').append(tier).append(':').append(tierConfig.root().render(ConfigRenderOptions.concise()));
+      }
+    }
+    var chunkedConfig = config.getConfig("chunked-summarization");
+    fingerprint.append("|chunks:").append(chunkedConfig.getInt("threshold-tokens"))
+        .append(',').append(chunkedConfig.getInt("max-tokens-per-chunk"))
+        .append(',').append(chunkedConfig.getInt("max-chunks"))
+        .append(':').append(ChunkSummarizerAgent.SYSTEM_MESSAGE);
+    return fingerprint.toString();
+  }
+}
@@ -0,0 +1,33 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static akka.Done.done;
+
+/**
+ * A previously generated summary, the entity id is a hash of the normalized release notes, the prompt and the model
+ * configuration used to generate it, see {@link SummaryCache}
+ */
+@ComponentId("summary-cache")
+public class SummaryCacheEntity extends KeyValueEntity<SummaryCacheEntity.CachedSummary> {
+
+  /**
+   * @param estimatedTokens estimated input and output tokens it took to generate the summary
+   */
+  public record CachedSummary(String summaryText, Instant createdAt, int estimatedTokens) {}
+
+  public record Lookup(Optional<CachedSummary> summary) {}
+
+  public ReadOnlyEffect<Lookup> get() {
+    return effects().reply(new Lookup(Optional.ofNullable(currentState())));
+  }
+
+  public Effect<Done> put(CachedSummary summary) {
+    return effects().updateState(summary).thenReply(done());
+  }
+}
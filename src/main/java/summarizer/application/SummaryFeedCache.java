@@ -0,0 +1,70 @@
+package summarizer.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import summarizer.domain.AtomFeed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rendered Atom feed documents, kept for a short time so that readers polling a feed, the global feed most of all, do
+ * not each read the {@link SummaryFeedEntity}. After the time to live the feed is read again, and the document only
+ * rendered again if there are new entries. A new summary shows up in the feed at most the time to live later.
+ * <p>
+ * One instance is shared by all endpoints on the node, keeping the least recently read feeds up to a max number.
+ */
+public final class SummaryFeedCache {
+
+  /**
+   * @param version the version of the feed the document was rendered from, for the {@code ETag}
+   */
+  public record RenderedFeed(long version, String document) {}
+
+  private record Cached(RenderedFeed feed, Instant readAt) {}
+
+  private final ComponentClient componentClient;
+  private final Duration timeToLive;
+  private final Map<String, Cached> cache;
+
+  public SummaryFeedCache(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.timeToLive = config.getDuration("summary-feed.cache-time-to-live");
+    var maxEntries = config.getInt("summary-feed.cache-max-entries");
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @param emptyFeed the feed to render if there are no entries for the id yet
+   */
+  public RenderedFeed get(String feedId, AtomFeed emptyFeed) {
+    var now = Instant.now();
+    Cached cached;
+    synchronized (cache) {
+      cached = cache.get(feedId);
+    }
+    if (cached != null && cached.readAt().plus(timeToLive).isAfter(now)) {
+      return cached.feed();
+    }
+
+    var feed = componentClient.forKeyValueEntity(feedId)
+        .method(SummaryFeedEntity::getFeed)
+        .invoke()
+        .feed()
+        .orElse(emptyFeed);
+    var rendered = cached != null && cached.feed().version() == feed.version()
+        ? cached.feed()
+        : new RenderedFeed(feed.version(), feed.render());
+    synchronized (cache) {
+      cache.put(feedId, new Cached(rendered, now));
+    }
+    return rendered;
+  }
+}
@@ -0,0 +1,45 @@
+package summarizer.application;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import summarizer.domain.AtomFeed;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.util.Optional;
+
+import static akka.Done.done;
+
+/**
+ * The Atom feed of the summaries of one repository, or {@link #GLOBAL_ID} for the summaries of all repositories,
+ * updated by the {@link SummaryFeedUpdater} as summaries are added
+ */
+@ComponentId("summary-feed")
+public class SummaryFeedEntity extends KeyValueEntity<AtomFeed> {
+
+  public static final String GLOBAL_ID = "global";
+
+  public static String entityIdFor(RepositoryIdentifier repositoryIdentifier) {
+    return GitHubRepositoryEntity.entityIdFor(repositoryIdentifier);
+  }
+
+  /**
+   * @param emptyFeed the feed to add the entry to if there is no feed yet
+   */
+  public record AddEntry(AtomFeed emptyFeed, AtomFeed.Entry entry, int maxEntries) {}
+
+  public record Feed(Optional<AtomFeed> feed) {}
+
+  public Effect<Done> addEntry(AddEntry addEntry) {
+    var feed = currentState() != null ? currentState() : addEntry.emptyFeed();
+    if (feed.contains(addEntry.entry().id())) {
+      // seen before, the updater consumes events at least once
+      return effects().reply(done());
+    }
+    return effects().updateState(feed.add(addEntry.entry(), addEntry.maxEntries())).thenReply(done());
+  }
+
+  public ReadOnlyEffect<Feed> getFeed() {
+    return effects().reply(new Feed(Optional.ofNullable(currentState())));
+  }
+}
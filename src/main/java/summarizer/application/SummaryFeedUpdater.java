@@ -0,0 +1,46 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.typesafe.config.Config;
+import summarizer.domain.AtomFeed;
+import summarizer.domain.RepositoryEvent;
+import summarizer.domain.RepositoryState;
+
+/**
+ * Adds each new summary to the Atom feed of its repository and to the global feed, so that the feeds are ready to be
+ * served as is
+ */
+@ComponentId("summary-feed-updater")
+@Consume.FromEventSourcedEntity(GitHubRepositoryEntity.class)
+public final class SummaryFeedUpdater extends Consumer {
+
+  private final ComponentClient componentClient;
+  private final int maxGlobalEntries;
+
+  public SummaryFeedUpdater(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.maxGlobalEntries = config.getInt("summary-feed.max-global-entries");
+  }
+
+  public Effect onEvent(RepositoryEvent event) {
+    var summary = switch (event) {
+      case RepositoryEvent.SummaryAdded summaryAdded -> summaryAdded.summary();
+      case RepositoryEvent.CompressedSummaryAdded summaryAdded -> summaryAdded.summary();
+      default -> null;
+    };
+    if (summary == null) return effects().ignore();
+
+    var repositoryIdentifier = GitHubRepositoryEntity.identifierFor(messageContext().eventSubject().get());
+    var entry = AtomFeed.entryFor(repositoryIdentifier, summary);
+    componentClient.forKeyValueEntity(SummaryFeedEntity.entityIdFor(repositoryIdentifier))
+        .method(SummaryFeedEntity::addEntry)
+        .invoke(new SummaryFeedEntity.AddEntry(AtomFeed.emptyFor(repositoryIdentifier), entry, RepositoryState.MAX_SUMMARIES));
+    componentClient.forKeyValueEntity(SummaryFeedEntity.GLOBAL_ID)
+        .method(SummaryFeedEntity::addEntry)
+        .invoke(new SummaryFeedEntity.AddEntry(AtomFeed.emptyGlobal(), entry, maxGlobalEntries));
+    return effects().done();
+  }
+}
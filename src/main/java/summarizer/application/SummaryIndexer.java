@@ -0,0 +1,46 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryEvent;
+
+/**
+ * Copies each new summary into a {@link ReleaseSummaryEntity} of its own, for querying summaries across repositories
+ * through the {@link ReleaseSummariesView}
+ */
+@ComponentId("summary-indexer")
+@Consume.FromEventSourcedEntity(GitHubRepositoryEntity.class)
+public final class SummaryIndexer extends Consumer {
+
+  private static final int EXCERPT_LENGTH = 280;
+
+  private final ComponentClient componentClient;
+
+  public SummaryIndexer(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect onEvent(RepositoryEvent event) {
+    var summary = switch (event) {
+      case RepositoryEvent.SummaryAdded summaryAdded -> summaryAdded.summary();
+      case RepositoryEvent.CompressedSummaryAdded summaryAdded -> summaryAdded.summary();
+      default -> null;
+    };
+    if (summary == null) return effects().ignore();
+
+    var repositoryIdentifier = GitHubRepositoryEntity.identifierFor(messageContext().eventSubject().get());
+    componentClient.forKeyValueEntity(ReleaseSummaryEntity.entityIdFor(repositoryIdentifier, summary.githubReleaseId()))
+        .method(ReleaseSummaryEntity::store)
+        .invoke(new ReleaseSummaryEntity.SummaryEntry(repositoryIdentifier.owner(), repositoryIdentifier.repo(),
+            summary.version(), summary.githubReleaseId(), summary.creationDate(), summary.publishedAt(), excerpt(summary)));
+    return effects().done();
+  }
+
+  private static String excerpt(ReleaseSummary summary) {
+    var text = summary.summary().strip();
+    return text.length() <= EXCERPT_LENGTH ? text : text.substring(0, EXCERPT_LENGTH).stripTrailing() + "…";
+  }
+}
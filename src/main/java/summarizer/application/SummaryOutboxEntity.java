@@ -0,0 +1,59 @@
+package summarizer.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryIdentifier;
+import summarizer.domain.SummaryOutbox;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Summaries waiting for delivery to one sink, the entity id is the name of the sink. Filled by the
+ * {@link NewSummaryPublisher} and emptied by {@link DeliverSummaries}.
+ */
+@ComponentId("summary-outbox")
+public class SummaryOutboxEntity extends KeyValueEntity<SummaryOutbox> {
+
+  public record Enqueue(RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary) {}
+
+  /**
+   * @param firstPending true if there were no pending summaries before, and a delivery needs to be scheduled
+   */
+  public record EnqueueResult(boolean firstPending) {}
+
+  public record DueBatch(List<SummaryOutbox.Entry> entries) {}
+
+  public record RecordAttempt(List<String> delivered, List<String> failed, SummaryOutbox.Backoff backoff, int maxAttempts) {}
+
+  /**
+   * @param nextAttemptAt when the next pending summary is due, empty if there are none
+   */
+  public record AttemptRecorded(Optional<Instant> nextAttemptAt) {}
+
+  @Override
+  public SummaryOutbox emptyState() {
+    return SummaryOutbox.empty();
+  }
+
+  public Effect<EnqueueResult> enqueue(Enqueue enqueue) {
+    var updated = currentState().add(enqueue.repositoryIdentifier(), enqueue.summary(), Instant.now());
+    if (updated == currentState()) {
+      // already pending or delivered
+      return effects().reply(new EnqueueResult(false));
+    }
+    return effects().updateState(updated).thenReply(new EnqueueResult(currentState().pending().isEmpty()));
+  }
+
+  public ReadOnlyEffect<DueBatch> getDue(int maxBatchSize) {
+    return effects().reply(new DueBatch(currentState().due(Instant.now(), maxBatchSize)));
+  }
+
+  public Effect<AttemptRecorded> recordAttempt(RecordAttempt attempt) {
+    var updated = currentState().recordAttempt(attempt.delivered(), attempt.failed(), Instant.now(), attempt.backoff(),
+        attempt.maxAttempts());
+    return effects().updateState(updated).thenReply(new AttemptRecorded(updated.nextAttemptAt()));
+  }
+}
@@ -0,0 +1,60 @@
+package summarizer.application;
+
+import akka.javasdk.http.HttpClientProvider;
+import com.typesafe.config.Config;
+import summarizer.integration.ChatSummarySink;
+import summarizer.integration.FileSummarySink;
+import summarizer.integration.SummarySink;
+import summarizer.integration.WebhookSummarySink;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The sinks new summaries are delivered to, by name, as enabled in {@code summary-delivery.sinks}. One instance is
+ * shared by all components on the node.
+ */
+public final class SummarySinks {
+
+  private final Map<String, SummarySink> sinks;
+
+  public SummarySinks(Map<String, SummarySink> sinks) {
+    this.sinks = Collections.unmodifiableMap(new LinkedHashMap<>(sinks));
+  }
+
+  public static SummarySinks fromConfig(Config sinksConfig, HttpClientProvider httpClientProvider) {
+    var sinks = new LinkedHashMap<String, SummarySink>();
+    for (var name : sinksConfig.root().keySet()) {
+      var sinkConfig = sinksConfig.getConfig(name);
+      if (!sinkConfig.getBoolean("enabled")) continue;
+      var type = sinkConfig.getString("type");
+      sinks.put(name, switch (type) {
+        case "file" -> new FileSummarySink(Path.of(sinkConfig.getString("directory")));
+        case "webhook" -> {
+          var url = URI.create(sinkConfig.getString("url"));
+          yield new WebhookSummarySink(httpClientProvider.httpClientFor(url.getScheme() + "://" + url.getAuthority()), url.getPath());
+        }
+        case "chat" -> {
+          var url = URI.create(sinkConfig.getString("url"));
+          yield new ChatSummarySink(httpClientProvider.httpClientFor(url.getScheme() + "://" + url.getAuthority()), url.getPath(),
+              sinkConfig.getInt("parallelism"));
+        }
+        default -> throw new IllegalArgumentException("Unknown type [" + type + "] of summary sink [" + name + "]");
+      });
+    }
+    return new SummarySinks(sinks);
+  }
+
+  public Set<String> names() {
+    return sinks.keySet();
+  }
+
+  public Optional<SummarySink> get(String name) {
+    return Optional.ofNullable(sinks.get(name));
+  }
+}
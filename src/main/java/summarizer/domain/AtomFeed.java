@@ -0,0 +1,105 @@
+package summarizer.domain;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An Atom feed of release summaries, newest first. Only the entries are kept, the document is rendered from them, and
+ * is the same for the same version.
+ *
+ * @param version incremented for each added entry, for the {@code ETag} of the document
+ */
+public record AtomFeed(String id, String title, String link, List<Entry> entries, long version) {
+
+  /**
+   * @param summary markdown
+   */
+  public record Entry(String id, String title, String link, Instant updated, String summary) {}
+
+  private static final String ID_PREFIX = "urn:changelog-summarizer:";
+
+  public static AtomFeed empty(String id, String title, String link) {
+    return new AtomFeed(id, title, link, List.of(), 0);
+  }
+
+  public static AtomFeed emptyGlobal() {
+    return empty(ID_PREFIX + "summaries", "Release summaries", "https://github.com");
+  }
+
+  public static AtomFeed emptyFor(RepositoryIdentifier repositoryIdentifier) {
+    var name = repositoryIdentifier.owner() + "/" + repositoryIdentifier.repo();
+    return empty(ID_PREFIX + "summaries:" + name, "Release summaries for " + name, "https://github.com/" + name + "/releases");
+  }
+
+  public static Entry entryFor(RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary) {
+    var name = repositoryIdentifier.owner() + "/" + repositoryIdentifier.repo();
+    return new Entry(ID_PREFIX + "release:" + name + ":" + summary.githubReleaseId(), name + " " + summary.version(),
+        "https://github.com/" + name + "/releases", summary.creationDate(), summary.summary());
+  }
+
+  public boolean contains(String entryId) {
+    return entries.stream().anyMatch(entry -> entry.id().equals(entryId));
+  }
+
+  /**
+   * @return the feed with the entry added, keeping the {@code maxEntries} newest
+   */
+  public AtomFeed add(Entry entry, int maxEntries) {
+    if (contains(entry.id())) return this;
+    var newEntries = new ArrayList<>(entries);
+    newEntries.add(entry);
+    newEntries.sort(Comparator.comparing(Entry::updated).reversed());
+    if (newEntries.size() > maxEntries) newEntries.subList(maxEntries, newEntries.size()).clear();
+    return new AtomFeed(id, title, link, List.copyOf(newEntries), version + 1);
+  }
+
+  /**
+   * @return the Atom XML document
+   */
+  public String render() {
+    var updated = entries.isEmpty() ? Instant.EPOCH : entries.getFirst().updated();
+    var xml = new StringBuilder(1024 + entries.stream().mapToInt(entry -> entry.summary().length() + 512).sum());
+    xml.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+        .append("<feed xmlns=\"http://www.w3.org/2005/Atom\">\n")
+        .append("  <id>").append(escape(id)).append("</id>\n")
+        .append("  <title>").append(escape(title)).append("</title>\n")
+        .append("  <link href=\"").append(escape(link)).append("\"/>\n")
+        .append("  <updated>").append(timestamp(updated)).append("</updated>\n")
+        .append("  <author><name>Changelog summarizer</name></author>\n");
+    for (var entry : entries) {
+      xml.append("  <entry>\n")
+          .append("    <id>").append(escape(entry.id())).append("</id>\n")
+          .append("    <title>").append(escape(entry.title())).append("</title>\n")
+          .append("    <link href=\"").append(escape(entry.link())).append("\"/>\n")
+          .append("    <updated>").append(timestamp(entry.updated())).append("</updated>\n")
+          .append("    <content type=\"text\">").append(escape(entry.summary())).append("</content>\n")
+          .append("  </entry>\n");
+    }
+    return xml.append("</feed>\n").toString();
+  }
+
+  private static String timestamp(Instant instant) {
+    return instant.truncatedTo(ChronoUnit.SECONDS).toString();
+  }
+
+  private static String escape(String text) {
+    var escaped = new StringBuilder(text.length() + 16);
+    for (int i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      switch (c) {
+        case '&' -> escaped.append("&amp;");
+        case '<' -> escaped.append("&lt;");
+        case '>' -> escaped.append("&gt;");
+        case '"' -> escaped.append("&quot;");
+        default -> {
+          // characters not allowed in XML 1.0
+          if (c >= 0x20 || c == '\n' || c == '\r' || c == '\t') escaped.append(c);
+        }
+      }
+    }
+    return escaped.toString();
+  }
+}
@@ -0,0 +1,51 @@
+package summarizer.domain;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Finds references to issues and pull requests in release notes markdown
+ */
+public final class IssueReferences {
+
+  // #123, but not as part of a word, an html entity (&#123;) or a url fragment
+  private static final Pattern HASH_REFERENCE = Pattern.compile("(?<![\\w&/#])#(\\d{1,9})\\b");
+  // https://github.com/owner/repo/issues/123 or https://github.com/owner/repo/pull/123
+  private static final Pattern URL_REFERENCE =
+      Pattern.compile("https://github\\.com/([\\w.-]+)/([\\w.-]+)/(?:issues|pull)/(\\d{1,9})\\b");
+
+  private IssueReferences() {}
+
+  /**
+   * @return the distinct issue or pull request numbers referenced in the text, for the given repository, in order
+   *         of first appearance and at most <code>max</code> of them
+   */
+  public static List<Integer> find(RepositoryIdentifier repository, String markdown, int max) {
+    if (markdown == null || max <= 0) return List.of();
+
+    var owner = repository.owner().toLowerCase(Locale.ROOT);
+    var repo = repository.repo().toLowerCase(Locale.ROOT);
+    var urlMatcher = URL_REFERENCE.matcher(markdown);
+    var positions = new ArrayList<int[]>(); // start, number
+    while (urlMatcher.find()) {
+      if (urlMatcher.group(1).toLowerCase(Locale.ROOT).equals(owner) && urlMatcher.group(2).toLowerCase(Locale.ROOT).equals(repo)) {
+        positions.add(new int[]{urlMatcher.start(), Integer.parseInt(urlMatcher.group(3))});
+      }
+    }
+    var hashMatcher = HASH_REFERENCE.matcher(markdown);
+    while (hashMatcher.find()) {
+      positions.add(new int[]{hashMatcher.start(), Integer.parseInt(hashMatcher.group(1))});
+    }
+    positions.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+    var found = new LinkedHashSet<Integer>();
+    for (var position : positions) {
+      if (found.size() >= max) break;
+      found.add(position[1]);
+    }
+    return List.copyOf(found);
+  }
+}
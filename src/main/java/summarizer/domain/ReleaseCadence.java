@@ -0,0 +1,117 @@
+package summarizer.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Small model of how often a repository publishes releases, from the publish times of its most recent releases, used
+ * to decide when to check for the next release: more often around when a release is expected, exponentially less often
+ * the longer a repository has been dormant.
+ *
+ * @param recentPublishTimes publish times of the most recent releases, oldest first
+ */
+public record ReleaseCadence(List<Instant> recentPublishTimes) {
+
+  /**
+   * Bounds and defaults for scheduling release checks
+   *
+   * @param defaultInterval     interval to use when nothing is known about the release cadence
+   * @param minInterval         never check more often than this
+   * @param maxInterval         never check less often than this
+   * @param dormantAfter        without a known cadence, the repository is seen as dormant after no release for this long
+   * @param jitter              fraction of the interval to randomly add or remove, to avoid synchronized checks
+   */
+  public record Schedule(Duration defaultInterval, Duration minInterval, Duration maxInterval, Duration dormantAfter,
+                         double jitter) {}
+
+  private static final int MAX_SAMPLES = 8;
+  // checks per expected release interval while a release is due, a daily releasing repository is checked hourly
+  private static final int CHECKS_PER_INTERVAL = 24;
+
+  public static ReleaseCadence empty() {
+    return new ReleaseCadence(List.of());
+  }
+
+  public ReleaseCadence withRelease(Instant publishedAt) {
+    if (recentPublishTimes.contains(publishedAt)) return this;
+    var publishTimes = new ArrayList<>(recentPublishTimes);
+    publishTimes.add(publishedAt);
+    publishTimes.sort(null);
+    if (publishTimes.size() > MAX_SAMPLES) {
+      publishTimes.subList(0, publishTimes.size() - MAX_SAMPLES).clear();
+    }
+    return new ReleaseCadence(List.copyOf(publishTimes));
+  }
+
+  /**
+   * @return the median time between releases, or null if there are not enough releases to tell
+   */
+  Duration typicalInterval() {
+    if (recentPublishTimes.size() < 2) return null;
+    var gaps = new ArrayList<Duration>(recentPublishTimes.size() - 1);
+    for (int i = 1; i < recentPublishTimes.size(); i++) {
+      gaps.add(Duration.between(recentPublishTimes.get(i - 1), recentPublishTimes.get(i)));
+    }
+    gaps.sort(null);
+    return gaps.get(gaps.size() / 2);
+  }
+
+  /**
+   * @return how long to wait until the next check for a new release
+   */
+  public Duration nextCheckDelay(Instant now, Schedule schedule, RandomGenerator random) {
+    return withJitter(clamp(nextCheckInterval(now, schedule), schedule), schedule, random);
+  }
+
+  private Duration nextCheckInterval(Instant now, Schedule schedule) {
+    if (recentPublishTimes.isEmpty()) return schedule.defaultInterval();
+
+    var sinceLastRelease = Duration.between(recentPublishTimes.getLast(), now);
+    var typicalInterval = typicalInterval();
+    if (typicalInterval == null || typicalInterval.isZero()) {
+      // only one release seen, check as usual unless it is old
+      return backOff(schedule.defaultInterval(), sinceLastRelease.minus(schedule.dormantAfter()), schedule.dormantAfter());
+    }
+
+    var dueCheckInterval = typicalInterval.dividedBy(CHECKS_PER_INTERVAL);
+    var windowStart = typicalInterval.multipliedBy(3).dividedBy(4);
+    if (sinceLastRelease.compareTo(windowStart) < 0) {
+      // not due yet, check a few times until the expected window, in case it comes early
+      return max(dueCheckInterval, min(windowStart.minus(sinceLastRelease), typicalInterval.dividedBy(4)));
+    }
+    // due, check often until twice the usual interval has passed, then back off
+    return backOff(dueCheckInterval, sinceLastRelease.minus(typicalInterval.multipliedBy(2)), typicalInterval);
+  }
+
+  /**
+   * @return the interval doubled for each time the overdue time has passed another multiple of the reference
+   */
+  private static Duration backOff(Duration interval, Duration overdue, Duration reference) {
+    if (overdue.isNegative() || overdue.isZero()) return interval;
+    var multiples = 1 + overdue.toMillis() / Math.max(1, reference.toMillis());
+    // floor(log2(multiples)) + 1 doublings, capped well before overflow, clamped to the max interval anyway
+    var doublings = Math.min(20, 64 - Long.numberOfLeadingZeros(multiples));
+    return interval.multipliedBy(1L << doublings);
+  }
+
+  private static Duration clamp(Duration interval, Schedule schedule) {
+    return max(schedule.minInterval(), min(schedule.maxInterval(), interval));
+  }
+
+  private static Duration withJitter(Duration interval, Schedule schedule, RandomGenerator random) {
+    if (schedule.jitter() <= 0) return interval;
+    var factor = 1 + schedule.jitter() * (random.nextDouble() * 2 - 1);
+    return Duration.ofMillis(Math.round(interval.toMillis() * factor));
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  private static Duration max(Duration a, Duration b) {
+    return a.compareTo(b) >= 0 ? a : b;
+  }
+}
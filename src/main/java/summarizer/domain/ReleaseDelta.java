@@ -0,0 +1,135 @@
+package summarizer.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Relates a new release to an already summarized release of the same version line, like the next patch release, and
+ * finds the items of the release notes that changed between them, so that the previous summary can be updated with
+ * only the changes rather than summarizing everything again.
+ */
+public final class ReleaseDelta {
+
+  private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)");
+  private static final Pattern HEADING = Pattern.compile("^#{1,6}\\s.*");
+  private static final Pattern LIST_ITEM_MARKER = Pattern.compile("^\\s*([-*+]|\\d+[.)])\\s+");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  /**
+   * @param addedItems   items of the new release notes that are not in the previous ones, in order, each preceded by
+   *                     the heading of its section when that changes
+   * @param removedItems items of the previous release notes that are not in the new ones
+   * @param sharedItems  number of items of the new release notes that are also in the previous ones
+   * @param items        number of items in the new release notes
+   */
+  public record Delta(List<String> addedItems, List<String> removedItems, int sharedItems, int items) {
+
+    public boolean unchanged() {
+      return addedItems.isEmpty() && removedItems.isEmpty();
+    }
+
+    /**
+     * @return the share of the new release notes that was already in the previous ones, 0 to 1
+     */
+    public double sharedRatio() {
+      return items == 0 ? 0 : (double) sharedItems / items;
+    }
+
+    /**
+     * @return the changes as markdown, added items first
+     */
+    public String asMarkdown() {
+      var markdown = new StringBuilder();
+      if (!addedItems.isEmpty()) {
+        markdown.append("Added or changed:\n\n");
+        addedItems.forEach(line -> markdown.append(line).append('\n'));
+      }
+      if (!removedItems.isEmpty()) {
+        if (!markdown.isEmpty()) markdown.append('\n');
+        markdown.append("Removed:\n\n");
+        removedItems.forEach(line -> markdown.append(line).append('\n'));
+      }
+      return markdown.toString();
+    }
+  }
+
+  private ReleaseDelta() {}
+
+  /**
+   * @param summaries newest release first, as kept in the {@link RepositoryState}
+   * @return the summary of the most recent release before the given one with the same major and minor version
+   */
+  public static Optional<ReleaseSummary> relatedSummary(String releaseName, long gitHubReleaseId, List<ReleaseSummary> summaries) {
+    var versionLine = versionLine(releaseName);
+    if (versionLine.isEmpty()) return Optional.empty();
+    return summaries.stream()
+        .filter(summary -> summary.githubReleaseId() < gitHubReleaseId)
+        .filter(summary -> versionLine.equals(versionLine(summary.version())))
+        .findFirst();
+  }
+
+  /**
+   * @return major and minor version, like {@code 2.10}, from release names like {@code v2.10.1}, {@code Akka 2.10.0-RC1}
+   */
+  static Optional<String> versionLine(String releaseName) {
+    if (releaseName == null) return Optional.empty();
+    var version = VERSION.matcher(releaseName);
+    return version.find() ? Optional.of(version.group(1) + "." + version.group(2)) : Optional.empty();
+  }
+
+  /**
+   * Items are the list items and other non-blank lines that are not headings, compared ignoring list markers and
+   * whitespace
+   */
+  public static Delta between(String previousReleaseNotes, String releaseNotes) {
+    var previousItems = new LinkedHashSet<String>();
+    var previousLines = new ArrayList<String>();
+    for (var line : lines(previousReleaseNotes)) {
+      if (isItem(line) && previousItems.add(normalize(line))) previousLines.add(line.strip());
+    }
+
+    var items = new HashSet<String>();
+    var addedItems = new ArrayList<String>();
+    var shared = 0;
+    String heading = null;
+    String headingOfLastAdded = null;
+    for (var line : lines(releaseNotes)) {
+      if (HEADING.matcher(line).matches()) {
+        heading = line.strip();
+      } else if (isItem(line) && items.add(normalize(line))) {
+        if (previousItems.contains(normalize(line))) {
+          shared++;
+        } else {
+          if (heading != null && !heading.equals(headingOfLastAdded)) {
+            addedItems.add(heading);
+            headingOfLastAdded = heading;
+          }
+          addedItems.add(line.strip());
+        }
+      }
+    }
+
+    var removedItems = new ArrayList<String>();
+    for (var line : previousLines) {
+      if (!items.contains(normalize(line))) removedItems.add(line);
+    }
+    return new Delta(List.copyOf(addedItems), List.copyOf(removedItems), shared, items.size());
+  }
+
+  private static List<String> lines(String markdown) {
+    return markdown == null ? List.of() : List.of(markdown.split("\n"));
+  }
+
+  private static boolean isItem(String line) {
+    return !line.isBlank() && !HEADING.matcher(line).matches();
+  }
+
+  private static String normalize(String line) {
+    var withoutMarker = LIST_ITEM_MARKER.matcher(line).replaceFirst("");
+    return WHITESPACE.matcher(withoutMarker).replaceAll(" ").strip();
+  }
+}
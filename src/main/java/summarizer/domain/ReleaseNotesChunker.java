@@ -0,0 +1,114 @@
+package summarizer.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits release notes markdown into chunks that each fit within a token budget, along section and list item
+ * boundaries, so that each chunk can be summarized on its own.
+ */
+public final class ReleaseNotesChunker {
+
+  private static final Pattern HEADING = Pattern.compile("^#{1,6}\\s.*");
+  private static final Pattern LIST_ITEM = Pattern.compile("^\\s{0,3}([-*+]|\\d+[.)])\\s.*");
+
+  private ReleaseNotesChunker() {}
+
+  /**
+   * @return the chunks, in order. Sections that are too large on their own are split between list items, with the
+   *         section heading repeated at the start of each part. Single lines that are too large are split as is.
+   */
+  public static List<String> split(String markdown, int maxTokensPerChunk) {
+    if (markdown == null || markdown.isBlank()) return List.of();
+    var maxChars = TokenEstimate.charsFor(maxTokensPerChunk);
+
+    var chunks = new ArrayList<String>();
+    var current = new StringBuilder();
+    for (var section : sections(markdown)) {
+      if (current.length() + section.length() <= maxChars) {
+        current.append(section);
+      } else {
+        if (!current.isEmpty()) {
+          chunks.add(current.toString());
+          current.setLength(0);
+        }
+        if (section.length() <= maxChars) {
+          current.append(section);
+        } else {
+          for (var part : splitSection(section, maxChars)) {
+            if (current.length() + part.length() > maxChars && !current.isEmpty()) {
+              chunks.add(current.toString());
+              current.setLength(0);
+            }
+            current.append(part);
+          }
+        }
+      }
+    }
+    if (!current.isEmpty()) chunks.add(current.toString());
+    return chunks.stream().map(String::strip).filter(chunk -> !chunk.isEmpty()).toList();
+  }
+
+  /**
+   * Sections start at each heading, each with its trailing newline kept
+   */
+  private static List<String> sections(String markdown) {
+    var sections = new ArrayList<String>();
+    var current = new StringBuilder();
+    for (var line : markdown.split("\n", -1)) {
+      if (HEADING.matcher(line).matches() && !current.isEmpty()) {
+        sections.add(current.toString());
+        current.setLength(0);
+      }
+      current.append(line).append('\n');
+    }
+    if (!current.isEmpty()) sections.add(current.toString());
+    return sections;
+  }
+
+  /**
+   * Split a section that is too large into parts at list item boundaries, repeating the heading in each part
+   */
+  private static List<String> splitSection(String section, int maxChars) {
+    var lines = section.split("\n", -1);
+    var heading = HEADING.matcher(lines[0]).matches() ? lines[0] + "\n" : "";
+    var parts = new ArrayList<String>();
+    var current = new StringBuilder(heading);
+    var currentItem = new StringBuilder();
+
+    for (int i = heading.isEmpty() ? 0 : 1; i < lines.length; i++) {
+      var line = lines[i];
+      if (LIST_ITEM.matcher(line).matches() && !currentItem.isEmpty()) {
+        addItem(parts, current, currentItem.toString(), heading, maxChars);
+        currentItem.setLength(0);
+      }
+      currentItem.append(line).append('\n');
+    }
+    if (!currentItem.isEmpty()) addItem(parts, current, currentItem.toString(), heading, maxChars);
+    if (current.length() > heading.length()) parts.add(current.toString());
+    return parts;
+  }
+
+  private static void addItem(List<String> parts, StringBuilder current, String item, String heading, int maxChars) {
+    if (current.length() + item.length() > maxChars && current.length() > heading.length()) {
+      parts.add(current.toString());
+      current.setLength(0);
+      current.append(heading);
+    }
+    if (heading.length() + item.length() <= maxChars) {
+      current.append(item);
+    } else {
+      // a single item that does not fit, no natural boundary left to split at
+      var room = Math.max(1, maxChars - heading.length());
+      for (int start = 0; start < item.length(); start += room) {
+        if (current.length() > heading.length()) {
+          parts.add(current.toString());
+          current.setLength(0);
+          current.append(heading);
+        }
+        current.append(item, start, Math.min(item.length(), start + room));
+      }
+    }
+  }
+}
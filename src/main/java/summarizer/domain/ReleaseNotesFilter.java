@@ -0,0 +1,126 @@
+package summarizer.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic, rule based clean up of release notes markdown before it is sent to the model: drops lines and whole
+ * sections that the summary would leave out anyway, and collapses runs of dependency bumps into one compact list
+ * item, keeping the ones mentioning a CVE as is. Finally cuts the notes at a line boundary to fit a token budget.
+ */
+public final class ReleaseNotesFilter {
+
+  /**
+   * @param dropLinePatterns      lines matching any of these are dropped
+   * @param dropSections          sections with these headings, case insensitive, are dropped with everything in them
+   * @param botAuthors            list items by these authors ({@code by @author}) are seen as dependency bumps
+   * @param dependencyBumpPattern list items matching this are seen as dependency bumps
+   * @param maxInputTokens        notes estimated to be larger than this after filtering are cut off
+   */
+  public record Rules(List<Pattern> dropLinePatterns, Set<String> dropSections, Set<String> botAuthors,
+                      Pattern dependencyBumpPattern, int maxInputTokens) {}
+
+  public record Filtered(String releaseNotes, int estimatedTokensBefore, int estimatedTokensAfter) {}
+
+  private static final Pattern HEADING = Pattern.compile("^(#{1,6})\\s+(.*?)\\s*#*\\s*$");
+  private static final Pattern LIST_ITEM = Pattern.compile("^\\s*[-*+]\\s+(.*)$");
+  private static final Pattern AUTHOR = Pattern.compile("\\bby @([\\w\\-\\[\\]]+)");
+  private static final Pattern CVE = Pattern.compile("(?i)\\b(CVE-\\d{4}-\\d+|GHSA(-[\\w]{4}){3})\\b");
+  private static final Pattern BUMP = Pattern.compile("(?i)\\b(?:bump|bumps|update|updates|upgrade|upgrades)\\s+`?([^\\s`]+)`?\\s+from\\s+`?([^\\s`,;)]*[^\\s`,;).])`?\\s+to\\s+`?([^\\s`,;)]*[^\\s`,;).])");
+
+  private final Rules rules;
+  private final Set<String> dropSections;
+  private final Set<String> botAuthors;
+
+  public ReleaseNotesFilter(Rules rules) {
+    this.rules = rules;
+    this.dropSections = rules.dropSections().stream().map(section -> section.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+    this.botAuthors = rules.botAuthors().stream().map(author -> author.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+  }
+
+  public Filtered apply(String releaseNotes) {
+    if (releaseNotes == null || releaseNotes.isBlank()) return new Filtered("", 0, 0);
+
+    var lines = new ArrayList<String>();
+    var bumps = new ArrayList<String>();
+    var bumpListIndex = -1;
+    var droppedSectionLevel = 0;
+    for (var line : releaseNotes.replace("\r\n", "\n").split("\n", -1)) {
+      var heading = HEADING.matcher(line);
+      if (heading.matches()) {
+        var level = heading.group(1).length();
+        if (droppedSectionLevel > 0 && level > droppedSectionLevel) continue;
+        droppedSectionLevel = dropSections.contains(heading.group(2).toLowerCase(Locale.ROOT)) ? level : 0;
+        if (droppedSectionLevel > 0) continue;
+        // bumps are collapsed per section
+        bumpListIndex = flushBumps(lines, bumps, bumpListIndex);
+        lines.add(line);
+        continue;
+      }
+      if (droppedSectionLevel > 0 || isDropped(line)) continue;
+
+      var listItem = LIST_ITEM.matcher(line);
+      if (listItem.matches() && isDependencyBump(listItem.group(1)) && !CVE.matcher(line).find()) {
+        if (bumps.isEmpty()) {
+          bumpListIndex = lines.size();
+          lines.add(null);
+        }
+        bumps.add(compactBump(listItem.group(1)));
+      } else {
+        lines.add(line);
+      }
+    }
+    flushBumps(lines, bumps, bumpListIndex);
+
+    var filtered = cutToBudget(String.join("\n", lines).replaceAll("\n{3,}", "\n\n").strip());
+    return new Filtered(filtered, TokenEstimate.of(releaseNotes), TokenEstimate.of(filtered));
+  }
+
+  private boolean isDropped(String line) {
+    for (var pattern : rules.dropLinePatterns()) {
+      if (pattern.matcher(line).find()) return true;
+    }
+    return false;
+  }
+
+  private boolean isDependencyBump(String item) {
+    var author = AUTHOR.matcher(item);
+    if (author.find() && botAuthors.contains(author.group(1).toLowerCase(Locale.ROOT))) return true;
+    return rules.dependencyBumpPattern().matcher(item).find();
+  }
+
+  /**
+   * "Bump com.example:lib from 1.2.3 to 1.2.4 by @dependabot in https://..." becomes "com.example:lib 1.2.3 → 1.2.4"
+   */
+  private static String compactBump(String item) {
+    var bump = BUMP.matcher(item);
+    if (bump.find()) return bump.group(1) + " " + bump.group(2) + " → " + bump.group(3);
+    var byAuthor = AUTHOR.matcher(item);
+    return (byAuthor.find() ? item.substring(0, byAuthor.start()) : item).strip();
+  }
+
+  /**
+   * Put the collected bumps in one list item where the first of them was
+   *
+   * @return the index for the next collected bumps
+   */
+  private static int flushBumps(List<String> lines, List<String> bumps, int bumpListIndex) {
+    if (bumps.isEmpty()) return -1;
+    lines.set(bumpListIndex, "* Dependency updates: " + String.join(", ", bumps));
+    bumps.clear();
+    return -1;
+  }
+
+  private String cutToBudget(String releaseNotes) {
+    var maxChars = TokenEstimate.charsFor(rules.maxInputTokens());
+    if (releaseNotes.length() <= maxChars) return releaseNotes;
+    var cutAt = releaseNotes.lastIndexOf('\n', maxChars);
+    if (cutAt <= 0) cutAt = maxChars;
+    var omittedLines = releaseNotes.substring(cutAt).lines().filter(line -> !line.isBlank()).count();
+    return releaseNotes.substring(0, cutAt) + "\n\n(" + omittedLines + " more lines of the release notes were left out)";
+  }
+}
@@ -1,6 +1,10 @@
 package summarizer.domain;
 
 import java.time.Instant;
+import java.util.Optional;
 
-public record ReleaseSummary(String version, long githubReleaseId, Instant creationDate, String summary) {
+/**
+ * @param publishedAt when the release was published on GitHub, not known for summaries added before it was tracked
+ */
+public record ReleaseSummary(String version, long githubReleaseId, Instant creationDate, String summary, Optional<Instant> publishedAt) {
 }
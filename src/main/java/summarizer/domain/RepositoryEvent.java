@@ -1,11 +1,38 @@
 package summarizer.domain;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
 public sealed interface RepositoryEvent {
 
-  record Created(Instant creationDate, Optional<String> gitApiHubToken) implements RepositoryEvent {}
+  /**
+   * @param firstCheckDelay when to first check for a release, to spread out checks for repositories added in bulk
+   */
+  record Created(Instant creationDate, Optional<String> gitApiHubToken, Optional<Duration> firstCheckDelay) implements RepositoryEvent {}
   record SummaryAdded(ReleaseSummary summary) implements RepositoryEvent {}
+  /**
+   * Same as {@link SummaryAdded} but with the summary markdown gzipped, to keep the journal small
+   */
+  record CompressedSummaryAdded(String version, long githubReleaseId, Instant creationDate, byte[] compressedSummary,
+                                Optional<Instant> publishedAt) implements RepositoryEvent {
+
+    public static CompressedSummaryAdded of(ReleaseSummary summary) {
+      return new CompressedSummaryAdded(summary.version(), summary.githubReleaseId(), summary.creationDate(),
+          SummaryCompression.compress(summary.summary()), summary.publishedAt());
+    }
+
+    public ReleaseSummary summary() {
+      return new ReleaseSummary(version, githubReleaseId, creationDate, SummaryCompression.decompress(compressedSummary), publishedAt);
+    }
+  }
+  /**
+   * The first release webhook delivery for the repository was received, from then on polling is only a fallback
+   */
+  record WebhookEnabled(Instant firstDeliveryAt) implements RepositoryEvent {}
+  /**
+   * Summarizing the release failed too many times, it is seen without a summary so that it is not detected again
+   */
+  record ReleaseSkipped(long githubReleaseId, Instant skippedAt) implements RepositoryEvent {}
 }
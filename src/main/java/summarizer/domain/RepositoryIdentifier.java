@@ -1,6 +1,17 @@
 package summarizer.domain;
 
+import java.util.Locale;
+
 public record RepositoryIdentifier(String owner, String repo) {
+
+  /**
+   * Owner and repository names are not case sensitive on GitHub, they are normalized to lower case wherever they
+   * come into the service, so that a repository always maps to the same entities whatever case it was given in
+   */
+  public static RepositoryIdentifier of(String owner, String repo) {
+    return new RepositoryIdentifier(owner.toLowerCase(Locale.ROOT), repo.toLowerCase(Locale.ROOT));
+  }
+
   @Override
   public String toString() {
     return owner + "/" + repo;
@@ -2,45 +2,87 @@ package summarizer.domain;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
-public final class RepositoryState {
+/**
+ * Immutable state of a repository, bounded in size no matter how many releases it has had: only the most recent
+ * summaries are kept, and only the ids of the most recent seen releases, see {@link SeenReleases}.
+ *
+ * @param latestSeenReleaseId {@link #NO_RELEASE} until the first summary was added
+ * @param seenReleases        GitHub release id:s of the releases summarized or skipped
+ * @param summaries           at most {@link #MAX_SUMMARIES}, newest release first
+ */
+public record RepositoryState(
+    Instant creationDate,
+    Optional<String> gitHubApiToken,
+    boolean webhookEnabled,
+    long latestSeenReleaseId,
+    SeenReleases seenReleases,
+    List<ReleaseSummary> summaries,
+    ReleaseCadence releaseCadence) {
 
-  final Instant creationDate;
-  // GitHub release id:s
-  final Set<Long> seenReleases;
-  final List<ReleaseSummary> summaries;
-  final Optional<String> gitHubApiToken;
+  public static final int MAX_SUMMARIES = 20;
+  public static final long NO_RELEASE = -1L;
 
-  public RepositoryState(Instant creationDate, Optional<String> gitHubApiToken) {
-    this.creationDate = creationDate;
-    this.seenReleases = new HashSet<>();
-    this.summaries = new ArrayList<>();
-    this.gitHubApiToken = gitHubApiToken;
+  public static RepositoryState initial(Instant creationDate, Optional<String> gitHubApiToken) {
+    return new RepositoryState(creationDate, gitHubApiToken, false, NO_RELEASE, SeenReleases.NONE, List.of(), ReleaseCadence.empty());
   }
 
-  public Optional<Long> getLatestSeenRelease() {
-    return seenReleases.stream().max(Long::compareTo);
+  /**
+   * @param state null before the repository was created
+   * @return the state after the event
+   */
+  public static RepositoryState applyEvent(RepositoryState state, RepositoryEvent event) {
+    return switch (event) {
+      case RepositoryEvent.Created created -> initial(created.creationDate(), created.gitApiHubToken());
+      case RepositoryEvent.SummaryAdded summaryAdded -> state.addSummary(summaryAdded.summary());
+      case RepositoryEvent.CompressedSummaryAdded summaryAdded -> state.addSummary(summaryAdded.summary());
+      case RepositoryEvent.WebhookEnabled ignored -> state.enableWebhook();
+      case RepositoryEvent.ReleaseSkipped skipped -> state.skipRelease(skipped.githubReleaseId());
+    };
+  }
+
+  public Optional<Long> latestSeenRelease() {
+    return latestSeenReleaseId == NO_RELEASE ? Optional.empty() : Optional.of(latestSeenReleaseId);
   }
 
-  public RepositoryState addSummary(RepositoryEvent.SummaryAdded summaryAdded) {
-    // FIXME limit the number we keep around
-    summaries.addFirst(summaryAdded.summary());
-    seenReleases.add(summaryAdded.summary().githubReleaseId());
-    return this;
+  public boolean hasSeen(long gitHubReleaseId) {
+    return seenReleases.contains(gitHubReleaseId);
   }
 
-  public List<ReleaseSummary> getSummaries() {
-    return summaries; // defensive copy
+  public RepositoryState addSummary(ReleaseSummary summary) {
+    var releaseId = summary.githubReleaseId();
+    if (hasSeen(releaseId)) return this;
+
+    // newest release first, releases caught up on concurrently may be summarized out of order
+    var newSummaries = new ArrayList<ReleaseSummary>(Math.min(summaries.size() + 1, MAX_SUMMARIES));
+    var added = false;
+    for (var existing : summaries) {
+      if (!added && existing.githubReleaseId() < releaseId) {
+        newSummaries.add(summary);
+        added = true;
+      }
+      newSummaries.add(existing);
+    }
+    if (!added) newSummaries.add(summary);
+    if (newSummaries.size() > MAX_SUMMARIES) newSummaries.subList(MAX_SUMMARIES, newSummaries.size()).clear();
+
+    var newReleaseCadence = summary.publishedAt().map(releaseCadence::withRelease).orElse(releaseCadence);
+    return new RepositoryState(creationDate, gitHubApiToken, webhookEnabled, Math.max(latestSeenReleaseId, releaseId),
+        seenReleases.with(releaseId), List.copyOf(newSummaries), newReleaseCadence);
   }
 
   /**
-   * @return the specific GitHub api token to use for this repository if there is one
+   * Mark the release as seen without adding a summary for it
    */
-  public Optional<String> getGitHubApiToken() {
-    return gitHubApiToken;
+  public RepositoryState skipRelease(long releaseId) {
+    if (hasSeen(releaseId)) return this;
+    return new RepositoryState(creationDate, gitHubApiToken, webhookEnabled, Math.max(latestSeenReleaseId, releaseId),
+        seenReleases.with(releaseId), summaries, releaseCadence);
+  }
+
+  public RepositoryState enableWebhook() {
+    return new RepositoryState(creationDate, gitHubApiToken, true, latestSeenReleaseId, seenReleases, summaries, releaseCadence);
   }
 }
@@ -0,0 +1,45 @@
+package summarizer.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of the releases of a repository that were seen, bounded in size: the ids of the most recent
+ * {@link #MAX_TRACKED} seen releases are kept, and every release at or below a floor counts as seen. GitHub release
+ * ids grow over time, so a release older than all the tracked ones is not a new release.
+ *
+ * @param floor every release id up to and including this one counts as seen, {@link RepositoryState#NO_RELEASE}
+ *              until more than {@link #MAX_TRACKED} releases were seen
+ * @param above ids of the seen releases above the floor, sorted ascending, at most {@link #MAX_TRACKED}
+ * @param count number of releases marked as seen, including the ones no longer tracked
+ */
+public record SeenReleases(long floor, List<Long> above, int count) {
+
+  public static final int MAX_TRACKED = 100;
+
+  public static final SeenReleases NONE = new SeenReleases(RepositoryState.NO_RELEASE, List.of(), 0);
+
+  public SeenReleases {
+    above = List.copyOf(above);
+  }
+
+  public boolean contains(long releaseId) {
+    return releaseId <= floor || Collections.binarySearch(above, releaseId) >= 0;
+  }
+
+  /**
+   * @return with the release marked as seen, the oldest tracked release below the new floor if there are more than
+   *         {@link #MAX_TRACKED}
+   */
+  public SeenReleases with(long releaseId) {
+    if (contains(releaseId)) return this;
+    var insertAt = -(Collections.binarySearch(above, releaseId) + 1);
+    var ids = new ArrayList<Long>(above.size() + 1);
+    ids.addAll(above.subList(0, insertAt));
+    ids.add(releaseId);
+    ids.addAll(above.subList(insertAt, above.size()));
+    var newFloor = ids.size() > MAX_TRACKED ? ids.removeFirst() : floor;
+    return new SeenReleases(newFloor, ids, count + 1);
+  }
+}
@@ -0,0 +1,15 @@
+package summarizer.domain;
+
+/**
+ * Order in which summarizations waiting for a free slot are started
+ */
+public enum SummarizationPriority {
+  /**
+   * For example the first release of a newly added repository, that the user is waiting for
+   */
+  HIGH,
+  /**
+   * Releases found by routine polling
+   */
+  NORMAL
+}
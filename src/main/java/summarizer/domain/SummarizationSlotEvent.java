@@ -0,0 +1,18 @@
+package summarizer.domain;
+
+import java.time.Instant;
+
+public sealed interface SummarizationSlotEvent {
+
+  record SlotAcquired(String workflowId, Instant acquiredAt) implements SummarizationSlotEvent {}
+  record SlotRequestQueued(String workflowId, SummarizationPriority priority) implements SummarizationSlotEvent {}
+  /**
+   * A queued request was given a slot that was freed up
+   */
+  record SlotGranted(String workflowId, Instant acquiredAt) implements SummarizationSlotEvent {}
+  record SlotReleased(String workflowId) implements SummarizationSlotEvent {}
+  /**
+   * A slot was held for longer than the lease timeout, most likely because the workflow holding it got stuck
+   */
+  record SlotExpired(String workflowId) implements SummarizationSlotEvent {}
+}
@@ -0,0 +1,154 @@
+package summarizer.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Slots for running summarizations, limiting how many LLM sessions run concurrently, with a queue per priority for
+ * summarizations waiting for a slot.
+ *
+ * @param active workflow id to when the slot was acquired
+ */
+public record SummarizationSlots(Map<String, Instant> active, List<String> highPriorityQueue, List<String> normalPriorityQueue) {
+
+  public static SummarizationSlots empty() {
+    return new SummarizationSlots(Map.of(), List.of(), List.of());
+  }
+
+  public boolean isActive(String workflowId) {
+    return active.containsKey(workflowId);
+  }
+
+  public boolean isQueued(String workflowId) {
+    return highPriorityQueue.contains(workflowId) || normalPriorityQueue.contains(workflowId);
+  }
+
+  public int queueDepth() {
+    return highPriorityQueue.size() + normalPriorityQueue.size();
+  }
+
+  /**
+   * @return events for slots held longer than the lease timeout, and for granting the freed slots to queued requests
+   */
+  public List<SummarizationSlotEvent> expireLeases(Instant now, Duration leaseTimeout, int capacity) {
+    var expired = active.entrySet().stream()
+        .filter(entry -> entry.getValue().plus(leaseTimeout).isBefore(now))
+        .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+        .map(entry -> (SummarizationSlotEvent) new SummarizationSlotEvent.SlotExpired(entry.getKey()))
+        .toList();
+    var events = new ArrayList<>(expired);
+    events.addAll(grantQueued(active.size() - expired.size(), capacity, now));
+    return events;
+  }
+
+  /**
+   * @return events for requesting a slot, either acquiring one right away or queuing up for one
+   */
+  public List<SummarizationSlotEvent> request(String workflowId, SummarizationPriority priority, Instant now, Duration leaseTimeout, int capacity) {
+    var events = new ArrayList<>(expireLeases(now, leaseTimeout, capacity));
+    var stateAfterExpiry = applyAll(events);
+    if (stateAfterExpiry.isActive(workflowId) || stateAfterExpiry.isQueued(workflowId)) {
+      // duplicate request, for example a retried workflow step
+      return events;
+    } else if (stateAfterExpiry.active.size() < capacity) {
+      events.add(new SummarizationSlotEvent.SlotAcquired(workflowId, now));
+    } else {
+      events.add(new SummarizationSlotEvent.SlotRequestQueued(workflowId, priority));
+    }
+    return events;
+  }
+
+  /**
+   * Acquire an additional slot only if one is free right now, never queuing, for work that can also be done with the
+   * slots already held. Summarizations waiting in the queue go first.
+   *
+   * @return events for expired leases, and for acquiring the slot if there was a free one
+   */
+  public List<SummarizationSlotEvent> tryAcquire(String slotId, Instant now, Duration leaseTimeout, int capacity) {
+    var events = new ArrayList<>(expireLeases(now, leaseTimeout, capacity));
+    var stateAfterExpiry = applyAll(events);
+    if (!stateAfterExpiry.isActive(slotId) && stateAfterExpiry.queueDepth() == 0 && stateAfterExpiry.active.size() < capacity) {
+      events.add(new SummarizationSlotEvent.SlotAcquired(slotId, now));
+    }
+    return events;
+  }
+
+  /**
+   * @return events for releasing the slot, and for granting it to the next queued request if there is one
+   */
+  public List<SummarizationSlotEvent> release(String workflowId, Instant now, int capacity) {
+    if (!isActive(workflowId) && !isQueued(workflowId)) return List.of();
+    var events = new ArrayList<SummarizationSlotEvent>();
+    events.add(new SummarizationSlotEvent.SlotReleased(workflowId));
+    var activeAfterRelease = isActive(workflowId) ? active.size() - 1 : active.size();
+    events.addAll(applyAll(events).grantQueued(activeAfterRelease, capacity, now));
+    return events;
+  }
+
+  private List<SummarizationSlotEvent> grantQueued(int activeCount, int capacity, Instant now) {
+    var free = capacity - activeCount;
+    var events = new ArrayList<SummarizationSlotEvent>();
+    for (var workflowId : highPriorityQueue) {
+      if (events.size() >= free) return events;
+      events.add(new SummarizationSlotEvent.SlotGranted(workflowId, now));
+    }
+    for (var workflowId : normalPriorityQueue) {
+      if (events.size() >= free) return events;
+      events.add(new SummarizationSlotEvent.SlotGranted(workflowId, now));
+    }
+    return events;
+  }
+
+  private SummarizationSlots applyAll(List<SummarizationSlotEvent> events) {
+    var state = this;
+    for (var event : events) {
+      state = state.apply(event);
+    }
+    return state;
+  }
+
+  public SummarizationSlots apply(SummarizationSlotEvent event) {
+    return switch (event) {
+      case SummarizationSlotEvent.SlotAcquired acquired -> withActive(acquired.workflowId(), acquired.acquiredAt());
+      case SummarizationSlotEvent.SlotGranted granted -> withoutQueued(granted.workflowId()).withActive(granted.workflowId(), granted.acquiredAt());
+      case SummarizationSlotEvent.SlotRequestQueued queued -> {
+        if (queued.priority() == SummarizationPriority.HIGH) {
+          var queue = new ArrayList<>(highPriorityQueue);
+          queue.add(queued.workflowId());
+          yield new SummarizationSlots(active, List.copyOf(queue), normalPriorityQueue);
+        } else {
+          var queue = new ArrayList<>(normalPriorityQueue);
+          queue.add(queued.workflowId());
+          yield new SummarizationSlots(active, highPriorityQueue, List.copyOf(queue));
+        }
+      }
+      case SummarizationSlotEvent.SlotReleased released -> withoutActive(released.workflowId()).withoutQueued(released.workflowId());
+      case SummarizationSlotEvent.SlotExpired expired -> withoutActive(expired.workflowId());
+    };
+  }
+
+  private SummarizationSlots withActive(String workflowId, Instant acquiredAt) {
+    var newActive = new HashMap<>(active);
+    newActive.put(workflowId, acquiredAt);
+    return new SummarizationSlots(Map.copyOf(newActive), highPriorityQueue, normalPriorityQueue);
+  }
+
+  private SummarizationSlots withoutActive(String workflowId) {
+    if (!active.containsKey(workflowId)) return this;
+    var newActive = new HashMap<>(active);
+    newActive.remove(workflowId);
+    return new SummarizationSlots(Map.copyOf(newActive), highPriorityQueue, normalPriorityQueue);
+  }
+
+  private SummarizationSlots withoutQueued(String workflowId) {
+    if (!isQueued(workflowId)) return this;
+    return new SummarizationSlots(active,
+        highPriorityQueue.stream().filter(id -> !id.equals(workflowId)).toList(),
+        normalPriorityQueue.stream().filter(id -> !id.equals(workflowId)).toList());
+  }
+}
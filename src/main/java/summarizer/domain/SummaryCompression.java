@@ -0,0 +1,35 @@
+package summarizer.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip encoding of summary markdown, for storing summaries in events
+ */
+public final class SummaryCompression {
+
+  private SummaryCompression() {}
+
+  public static byte[] compress(String text) {
+    var bytes = new ByteArrayOutputStream(text.length() / 3);
+    try (var gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(text.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to compress summary", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static String decompress(byte[] compressed) {
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decompress summary", e);
+    }
+  }
+}
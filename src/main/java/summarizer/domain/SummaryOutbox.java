@@ -0,0 +1,110 @@
+package summarizer.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * New summaries waiting to be delivered to one sink, kept until the sink has acknowledged them, so that each summary
+ * is delivered at least once. Failed deliveries are retried with exponential backoff, and given up on after a max
+ * number of attempts.
+ *
+ * @param pending           in the order they were added
+ * @param recentlyDelivered ids of the latest delivered summaries, at most {@link #MAX_RECENTLY_DELIVERED}, so that a
+ *                          summary added again, for example by a consumer replaying events, is not delivered twice
+ */
+public record SummaryOutbox(List<Entry> pending, List<String> recentlyDelivered, long deliveredCount, long abandonedCount) {
+
+  public static final int MAX_RECENTLY_DELIVERED = 1000;
+
+  /**
+   * @param deliveryId unique for the summary, repository and release
+   */
+  public record Entry(String deliveryId, RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary, int attempts,
+                      Instant nextAttemptAt) {}
+
+  public record Backoff(Duration min, Duration max) {
+    /**
+     * @return the delay before the next attempt after the given number of failed attempts, doubling from min to max
+     */
+    public Duration delayAfter(int failedAttempts) {
+      var delay = min;
+      for (int i = 1; i < failedAttempts && delay.compareTo(max) < 0; i++) {
+        delay = delay.multipliedBy(2);
+      }
+      return delay.compareTo(max) < 0 ? delay : max;
+    }
+  }
+
+  public static SummaryOutbox empty() {
+    return new SummaryOutbox(List.of(), List.of(), 0, 0);
+  }
+
+  public static String deliveryIdFor(RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary) {
+    return repositoryIdentifier.owner() + "/" + repositoryIdentifier.repo() + "/" + summary.githubReleaseId();
+  }
+
+  public boolean contains(String deliveryId) {
+    return recentlyDelivered.contains(deliveryId) || pending.stream().anyMatch(entry -> entry.deliveryId().equals(deliveryId));
+  }
+
+  public SummaryOutbox add(RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary, Instant now) {
+    var deliveryId = deliveryIdFor(repositoryIdentifier, summary);
+    if (contains(deliveryId)) return this;
+    var newPending = new ArrayList<>(pending);
+    newPending.add(new Entry(deliveryId, repositoryIdentifier, summary, 0, now));
+    return new SummaryOutbox(List.copyOf(newPending), recentlyDelivered, deliveredCount, abandonedCount);
+  }
+
+  /**
+   * @return the oldest entries that are due for a delivery attempt, at most {@code max}
+   */
+  public List<Entry> due(Instant now, int max) {
+    return pending.stream()
+        .filter(entry -> !entry.nextAttemptAt().isAfter(now))
+        .limit(max)
+        .toList();
+  }
+
+  /**
+   * @return when the next pending entry is due, empty if there are none
+   */
+  public Optional<Instant> nextAttemptAt() {
+    return pending.stream().map(Entry::nextAttemptAt).min(Instant::compareTo);
+  }
+
+  /**
+   * @param delivered ids acknowledged by the sink, they are no longer pending
+   * @param failed    ids the sink failed to deliver, retried after a backoff unless out of attempts
+   */
+  public SummaryOutbox recordAttempt(Collection<String> delivered, Collection<String> failed, Instant now, Backoff backoff,
+                                     int maxAttempts) {
+    var newPending = new ArrayList<Entry>(pending.size());
+    var newRecentlyDelivered = new ArrayList<>(recentlyDelivered);
+    var newDeliveredCount = deliveredCount;
+    var newAbandonedCount = abandonedCount;
+    for (var entry : pending) {
+      if (delivered.contains(entry.deliveryId())) {
+        newRecentlyDelivered.add(entry.deliveryId());
+        newDeliveredCount++;
+      } else if (failed.contains(entry.deliveryId())) {
+        var attempts = entry.attempts() + 1;
+        if (attempts >= maxAttempts) {
+          newAbandonedCount++;
+        } else {
+          newPending.add(new Entry(entry.deliveryId(), entry.repositoryIdentifier(), entry.summary(), attempts,
+              now.plus(backoff.delayAfter(attempts))));
+        }
+      } else {
+        newPending.add(entry);
+      }
+    }
+    if (newRecentlyDelivered.size() > MAX_RECENTLY_DELIVERED) {
+      newRecentlyDelivered.subList(0, newRecentlyDelivered.size() - MAX_RECENTLY_DELIVERED).clear();
+    }
+    return new SummaryOutbox(List.copyOf(newPending), List.copyOf(newRecentlyDelivered), newDeliveredCount, newAbandonedCount);
+  }
+}
@@ -0,0 +1,24 @@
+package summarizer.domain;
+
+/**
+ * Rough estimate of the number of LLM tokens for a text, without having to run a model specific tokenizer.
+ * English prose and markdown averages about four characters per token.
+ */
+public final class TokenEstimate {
+
+  private static final int CHARS_PER_TOKEN = 4;
+
+  private TokenEstimate() {}
+
+  public static int of(String text) {
+    if (text == null || text.isEmpty()) return 0;
+    return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+  }
+
+  /**
+   * @return the approximate number of characters that fits in the given number of tokens
+   */
+  public static int charsFor(int tokens) {
+    return tokens * CHARS_PER_TOKEN;
+  }
+}
@@ -0,0 +1,78 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.headers.UserAgent;
+import akka.javasdk.http.HttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Posts each summary as a message to a chat channel through a Slack compatible incoming webhook, the messages of a
+ * batch are posted concurrently, up to a max number at a time.
+ */
+public final class ChatSummarySink implements SummarySink {
+
+  public record ChatMessage(String text) {}
+
+  private static final UserAgent USER_AGENT = UserAgent.create("AI Changelog Summarizer");
+
+  private final Logger logger = LoggerFactory.getLogger(ChatSummarySink.class);
+
+  private final HttpClient httpClient;
+  private final String path;
+  private final int parallelism;
+
+  /**
+   * @param path of the incoming webhook for the http client
+   */
+  public ChatSummarySink(HttpClient httpClient, String path, int parallelism) {
+    this.httpClient = httpClient;
+    this.path = path;
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public Set<String> deliver(List<Delivery> deliveries) {
+    var tasks = new ArrayList<Callable<Boolean>>(deliveries.size());
+    for (var delivery : deliveries) {
+      tasks.add(() -> post(delivery));
+    }
+    var delivered = new HashSet<String>();
+    try (var executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().factory())) {
+      var results = executor.invokeAll(tasks);
+      for (int i = 0; i < deliveries.size(); i++) {
+        if (results.get(i).get()) delivered.add(deliveries.get(i).deliveryId());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // post does not throw
+      throw new IllegalStateException(e.getCause());
+    }
+    return delivered;
+  }
+
+  private boolean post(Delivery delivery) {
+    var repository = delivery.repositoryIdentifier().owner() + "/" + delivery.repositoryIdentifier().repo();
+    var message = new ChatMessage("*" + repository + " " + delivery.summary().version() + "*\n\n" + delivery.summary().summary());
+    try {
+      var response = httpClient.POST(path)
+          .withHeaders(List.<HttpHeader>of(USER_AGENT))
+          .withRequestBody(message)
+          .invoke();
+      if (response.status().isSuccess()) return true;
+      logger.warn("Chat webhook responded with {} to summary [{}]", response.status().intValue(), delivery.deliveryId());
+    } catch (RuntimeException e) {
+      logger.warn("Failed to post summary [{}] to chat: {}", delivery.deliveryId(), e.getMessage());
+    }
+    return false;
+  }
+}
@@ -0,0 +1,88 @@
+package summarizer.integration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, least recently used, cache of the validators (ETag and Last-Modified) GitHub returned for the latest
+ * release of a repository, so that the next poll can be sent as a conditional request. A 304 Not Modified response
+ * is not counted against the GitHub API rate limit.
+ * <p>
+ * Entries are kept per API token, since what a token has access to may differ. Shared between all
+ * {@link GitHubApiClient} instances and safe to use concurrently.
+ */
+public final class ConditionalRequestCache {
+
+  public record Validators(Optional<String> eTag, Optional<String> lastModified, long releaseId) {}
+
+  public record Stats(long hits, long misses, long notModified, int size, int maxSize) {}
+
+  private record Key(Optional<String> apiToken, String path) {}
+
+  private final int maxSize;
+  private final Map<Key, Validators> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder notModified = new LongAdder();
+
+  public ConditionalRequestCache(int maxSize) {
+    if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1, was " + maxSize);
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Validators> eldest) {
+        return size() > ConditionalRequestCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Validators are only used if they are for a release the caller has already seen, otherwise a 304 could hide a
+   * release that was fetched earlier but never processed, for example because summarizing it failed.
+   *
+   * @return the validators to send for the path if there are any usable, counting a hit or a miss
+   */
+  Optional<Validators> validatorsFor(Optional<String> apiToken, String path, Optional<Long> latestSeenReleaseId) {
+    Validators validators;
+    synchronized (entries) {
+      validators = entries.get(new Key(apiToken, path));
+    }
+    var usable = Optional.ofNullable(validators)
+        .filter(v -> latestSeenReleaseId.isPresent() && v.releaseId() <= latestSeenReleaseId.get());
+    if (usable.isPresent()) hits.increment();
+    else misses.increment();
+    return usable;
+  }
+
+  void put(Optional<String> apiToken, String path, Validators validators) {
+    if (validators.eTag().isEmpty() && validators.lastModified().isEmpty()) {
+      // nothing to validate with, don't keep it around
+      remove(apiToken, path);
+    } else {
+      synchronized (entries) {
+        entries.put(new Key(apiToken, path), validators);
+      }
+    }
+  }
+
+  void remove(Optional<String> apiToken, String path) {
+    synchronized (entries) {
+      entries.remove(new Key(apiToken, path));
+    }
+  }
+
+  void recordNotModified() {
+    notModified.increment();
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new Stats(hits.sum(), misses.sum(), notModified.sum(), size, maxSize);
+  }
+}
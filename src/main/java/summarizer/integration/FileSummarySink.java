@@ -0,0 +1,49 @@
+package summarizer.integration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes each summary as a markdown file, {@code <owner>/<repo>/<release id>.md} in a directory. Writing the same
+ * summary again replaces the file, so repeated deliveries are harmless.
+ */
+public final class FileSummarySink implements SummarySink {
+
+  private final Logger logger = LoggerFactory.getLogger(FileSummarySink.class);
+
+  private final Path directory;
+
+  public FileSummarySink(Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public Set<String> deliver(List<Delivery> deliveries) {
+    var delivered = new HashSet<String>();
+    for (var delivery : deliveries) {
+      var repositoryDirectory = directory
+          .resolve(delivery.repositoryIdentifier().owner())
+          .resolve(delivery.repositoryIdentifier().repo());
+      try {
+        Files.createDirectories(repositoryDirectory);
+        // write then move, so that readers never see a partially written file
+        var temporary = Files.createTempFile(repositoryDirectory, ".summary", ".tmp");
+        Files.writeString(temporary, "# " + delivery.summary().version() + "\n\n" + delivery.summary().summary() + "\n");
+        Files.move(temporary, repositoryDirectory.resolve(delivery.summary().githubReleaseId() + ".md"),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        delivered.add(delivery.deliveryId());
+      } catch (IOException e) {
+        logger.warn("Failed to write summary [{}] to [{}]: {}", delivery.deliveryId(), repositoryDirectory, e.getMessage());
+      }
+    }
+    return delivered;
+  }
+}
@@ -1,6 +1,7 @@
 package summarizer.integration;
 
 import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
 import akka.http.javadsl.model.MediaRanges;
 import akka.http.javadsl.model.MediaTypes;
 import akka.http.javadsl.model.headers.Accept;
@@ -9,38 +10,60 @@ import akka.http.javadsl.model.headers.HttpCredentials;
 import akka.http.javadsl.model.headers.Location;
 import akka.http.javadsl.model.headers.RawHeader;
 import akka.http.javadsl.model.headers.UserAgent;
-import akka.javasdk.JsonSupport;
 import akka.javasdk.http.HttpClient;
 import akka.javasdk.http.HttpClientProvider;
-import akka.javasdk.http.StrictResponse;
+import akka.util.ByteString;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CompletionStage;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import summarizer.integration.GitHubRateLimiter.Priority;
+import summarizer.integration.GitHubRateLimiter.Resource;
+import summarizer.metrics.SummarizerMetrics;
 
 public final class GitHubApiClient {
 
+  // https://docs.github.com/en/rest/releases/releases?apiVersion=2022-11-28#get-the-latest-release
   public record ReleaseDetails(
       String url,
-      String htmlUrl,
+      @JsonProperty("html_url") String htmlUrl,
       long id,
-      String nodeId,
-      String tagName,
-      String targetCommitish,
+      @JsonProperty("node_id") String nodeId,
+      @JsonProperty("tag_name") String tagName,
+      @JsonProperty("target_commitish") String targetCommitish,
       String name,
       String body,
       boolean draft,
       boolean prerelease,
-      ZonedDateTime createdAt,
-      ZonedDateTime publishedAt
+      @JsonProperty("created_at") ZonedDateTime createdAt,
+      @JsonProperty("published_at") ZonedDateTime publishedAt
       // Note: ignoring author and assets for now
   ) {
   }
 
+  public record RepositoryDetails(
+      String name,
+      @JsonProperty("full_name") String fullName,
+      boolean fork,
+      boolean archived
+      // Note: ignoring everything else
+  ) {
+  }
+
   public record IssueDetails(
       long id,
       String nodeId,
@@ -58,25 +81,118 @@ public final class GitHubApiClient {
   ) {
   }
 
+  /**
+   * The issue was transferred to another repository, not found or deleted
+   */
+  public static final class IssueNotAvailableException extends RuntimeException {
+    public IssueNotAvailableException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Where the REST requests are sent, the GitHub API, or a stub in tests
+   */
+  @FunctionalInterface
+  interface RestEndpoint {
+    RestResponse get(String path, Map<String, String> queryParameters, List<HttpHeader> headers);
+  }
+
+  record RestResponse(HttpResponse httpResponse, ByteString body) {
+    int status() {
+      return httpResponse.status().intValue();
+    }
+  }
+
   private static final UserAgent USER_AGENT = UserAgent.create("AI Changelog Summarizer");
   private static final HttpHeader GITHUB_API_VERSION = RawHeader.create("X-GitHub-Api-Version", "2022-11-28");
 
   // FIXME what about access token?
 
-  private final HttpClient httpClient;
+  private final RestEndpoint endpoint;
+  private final Optional<String> apiToken;
   private final Optional<HttpHeader> apiTokenHeader;
+  private final ConditionalRequestCache conditionalRequestCache;
+  private final GitHubRateLimiter rateLimiter;
+  private final IssueDetailsCache issueDetailsCache;
+  private final SummarizerMetrics metrics;
+  private final Optional<LatestReleaseBatchPoller> latestReleaseBatchPoller;
+  private final GitHubJsonParser jsonParser;
 
-  public GitHubApiClient(HttpClientProvider httpClientProvider, Optional<String> apiToken) {
-    this(httpClientProvider.httpClientFor("https://api.github.com"), apiToken);
+  /**
+   * @param baseUrl the GitHub REST API, {@code https://api.github.com} unless GitHub Enterprise
+   */
+  public GitHubApiClient(HttpClientProvider httpClientProvider, String baseUrl, Optional<String> apiToken,
+                         ConditionalRequestCache conditionalRequestCache, GitHubRateLimiter rateLimiter,
+                         IssueDetailsCache issueDetailsCache, SummarizerMetrics metrics,
+                         Optional<LatestReleaseBatchPoller> latestReleaseBatchPoller, GitHubJsonParser jsonParser) {
+    this(httpEndpoint(httpClientProvider.httpClientFor(baseUrl)), apiToken, conditionalRequestCache, rateLimiter,
+        issueDetailsCache, metrics, latestReleaseBatchPoller, jsonParser);
   }
 
-  private GitHubApiClient(HttpClient httpClient, Optional<String> apiToken) {
-    this.httpClient = httpClient;
+  GitHubApiClient(RestEndpoint endpoint, Optional<String> apiToken, ConditionalRequestCache conditionalRequestCache,
+                  GitHubRateLimiter rateLimiter, IssueDetailsCache issueDetailsCache, SummarizerMetrics metrics,
+                  Optional<LatestReleaseBatchPoller> latestReleaseBatchPoller, GitHubJsonParser jsonParser) {
+    this.endpoint = endpoint;
+    this.apiToken = apiToken;
     this.apiTokenHeader = apiToken.map(token -> Authorization.create(HttpCredentials.createOAuth2BearerToken(token)));
+    this.conditionalRequestCache = conditionalRequestCache;
+    this.rateLimiter = rateLimiter;
+    this.issueDetailsCache = issueDetailsCache;
+    this.metrics = metrics;
+    this.latestReleaseBatchPoller = latestReleaseBatchPoller;
+    this.jsonParser = jsonParser;
   }
 
   public GitHubApiClient withApiToken(String apiToken) {
-    return new GitHubApiClient(httpClient, Optional.of(apiToken));
+    return new GitHubApiClient(endpoint, Optional.of(apiToken), conditionalRequestCache, rateLimiter, issueDetailsCache,
+        metrics, latestReleaseBatchPoller, jsonParser);
+  }
+
+  private static RestEndpoint httpEndpoint(HttpClient httpClient) {
+    return (path, queryParameters, headers) -> {
+      var request = httpClient.GET(path).withHeaders(headers);
+      for (var parameter : queryParameters.entrySet()) {
+        request = request.addQueryParameter(parameter.getKey(), parameter.getValue());
+      }
+      var response = request.invoke();
+      return new RestResponse(response.httpResponse(), response.body());
+    };
+  }
+
+  /**
+   * @return true if {@link #getLatestReleaseIdBatched} can be used, batching is enabled and there is an API token, which
+   *         the GraphQL API requires
+   */
+  public boolean batchesLatestReleaseLookups() {
+    return latestReleaseBatchPoller.isPresent() && apiToken.isPresent();
+  }
+
+  /**
+   * Looks up only the id of the latest release, in one GraphQL query together with other repositories using the same
+   * API token, blocks until the batch has been sent.
+   *
+   * @return the id of the latest release, empty if the repository has no releases
+   * @throws LatestReleaseBatchPoller.LookupFailedException if the repository could not be looked up in the batch, and
+   *                                                        should be checked with {@link #getLatestReleaseIfChanged}
+   */
+  public Optional<Long> getLatestReleaseIdBatched(String owner, String repo) {
+    if (!batchesLatestReleaseLookups()) {
+      throw new IllegalStateException("Latest release lookups are not batched");
+    }
+    return latestReleaseBatchPoller.get().latestReleaseId(apiToken.get(), owner, repo);
+  }
+
+  public ConditionalRequestCache.Stats conditionalRequestStats() {
+    return conditionalRequestCache.stats();
+  }
+
+  public List<GitHubRateLimiter.TokenStats> rateLimitStats() {
+    return rateLimiter.stats();
+  }
+
+  public IssueDetailsCache.Stats issueDetailsCacheStats() {
+    return issueDetailsCache.stats();
   }
 
   private List<HttpHeader> headers(HttpHeader... additionalHeaders) {
@@ -90,53 +206,209 @@ public final class GitHubApiClient {
     return headers;
   }
 
-  @SuppressWarnings("unchecked")
-  public List<ReleaseDetails> listLast5Releases(String owner, String repository) {
+  /**
+   * Send a request through the rate limiter, keeping track of the remaining quota from the response
+   *
+   * @param endpointName name of the GitHub API endpoint, for metrics
+   * @throws GitHubRateLimiter.RateLimitedException if there is no quota left for the request
+   */
+  private RestResponse send(String path, Map<String, String> queryParameters, List<HttpHeader> headers, Priority priority,
+                            String endpointName, String owner) {
+    var start = System.nanoTime();
+    rateLimiter.acquire(apiToken, Resource.CORE, priority);
+    var response = endpoint.get(path, queryParameters, headers);
+    rateLimiter.update(apiToken, Resource.CORE, response.httpResponse());
+    var status = response.status();
+    metrics.gitHubResponse(endpointName, owner, status, start);
+    if (status == 403 || status == 429) {
+      var exhaustedFor = rateLimiter.exhaustedFor(apiToken, Resource.CORE);
+      if (exhaustedFor.isPresent()) {
+        throw new GitHubRateLimiter.RateLimitedException("GitHub API rate limit exceeded, response code " + status, exhaustedFor.get());
+      }
+    }
+    return response;
+  }
+
+  /**
+   * Lazily pages through the releases of the repository, newest first, fetching the next page only once the previous
+   * one has been consumed. Drafts and pre-releases are skipped, like for the latest release.
+   */
+  public Stream<ReleaseDetails> releases(String owner, String repository, int pageSize) {
+    return paged(pageSize, page -> listReleases(owner, repository, pageSize, page))
+        .filter(release -> !release.draft() && !release.prerelease());
+  }
+
+  /**
+   * Lazily pages through the public repositories of a user or organization, forks and archived repositories are skipped
+   */
+  public Stream<RepositoryDetails> repositories(String owner, int pageSize) {
+    return paged(pageSize, page -> listRepositories(owner, pageSize, page))
+        .filter(repository -> !repository.fork() && !repository.archived());
+  }
+
+  /**
+   * @return a stream fetching the next page only once the previous one has been consumed, until a page that is not full
+   */
+  private static <T> Stream<T> paged(int pageSize, IntFunction<List<T>> fetchPage) {
+    var iterator = new Iterator<T>() {
+      private int nextPage = 1;
+      private boolean lastPage = false;
+      private Iterator<T> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext() && !lastPage) {
+          var page = fetchPage.apply(nextPage);
+          nextPage++;
+          lastPage = page.size() < pageSize;
+          current = page.iterator();
+        }
+        return current.hasNext();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * @return the releases published after the given release, oldest first, at most {@code maxReleases} of the newest
+   *         ones, paging only as far back as needed
+   */
+  public List<ReleaseDetails> listReleasesNewerThan(String owner, String repository, long latestSeenReleaseId, int maxReleases, int pageSize) {
+    var newerReleases = new ArrayList<>(releases(owner, repository, pageSize)
+        .takeWhile(release -> release.id() > latestSeenReleaseId)
+        .limit(maxReleases)
+        .toList());
+    Collections.reverse(newerReleases);
+    return newerReleases;
+  }
+
+  private static Map<String, String> pageParameters(int pageSize, int page) {
+    var parameters = new LinkedHashMap<String, String>();
+    parameters.put("per_page", Integer.toString(pageSize));
+    parameters.put("page", Integer.toString(page));
+    return parameters;
+  }
+
+  private List<RepositoryDetails> listRepositories(String owner, int pageSize, int page) {
+    // https://docs.github.com/en/rest/repos/repos?apiVersion=2022-11-28#list-repositories-for-a-user
+    var response = send("/users/" + owner + "/repos",
+        pageParameters(pageSize, page),
+        headers(
+            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json")))),
+        Priority.LOW, "list-repositories", owner);
+    if (response.status() != 200) {
+      throw new RuntimeException("Unexpected response code " + response.status() + " when trying to list repositories for " + owner);
+    }
+    return jsonParser.repositories(response.body());
+  }
+
+  private List<ReleaseDetails> listReleases(String owner, String repository, int pageSize, int page) {
     // https://docs.github.com/en/rest/releases/releases?apiVersion=2022-11-28#list-releases
-    return httpClient.GET("/repos/" + owner + "/" + repository + "/releases")
-        .withHeaders(
-            headers(
-                Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json")))))
-        .addQueryParameter("per_page", "5") // page is 1 by default
-        .parseResponseBody(bytes -> {
-          // FIXME no support for collection responses
-          try {
-            return (List<ReleaseDetails>) JsonSupport.getObjectMapper().readerForListOf(ReleaseDetails.class).readValue(bytes);
-          } catch (IOException e) {
-            throw new RuntimeException("Failed to parse github api response", e);
-          }
-        })
-        .invoke().body();
+    var response = send("/repos/" + owner + "/" + repository + "/releases",
+        pageParameters(pageSize, page),
+        headers(
+            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json")))),
+        Priority.LOW, "list-releases", owner);
+    if (response.status() != 200) {
+      throw new RuntimeException("Unexpected response code " + response.status() + " when trying to list releases for " + owner + "/" + repository);
+    }
+    return jsonParser.releases(response.body());
   }
 
   public ReleaseDetails getLatestRelease(String owner, String repository) {
     // https://docs.github.com/en/rest/releases/releases?apiVersion=2022-11-28#get-the-latest-release
-    return httpClient.GET("/repos/" + owner + "/" + repository + "/releases/latest")
-        .withHeaders(
-            headers(
-                Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json"))))
-        ).responseBodyAs(ReleaseDetails.class)
-        .invoke().body();
+    var response = send("/repos/" + owner + "/" + repository + "/releases/latest", Map.of(),
+        headers(
+            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json")))),
+        Priority.LOW, "latest-release", owner);
+    if (response.status() != 200) {
+      throw new RuntimeException("Unexpected response code " + response.status() + " when trying to get latest release for " + owner + "/" + repository);
+    }
+    return jsonParser.release(response.body());
   }
 
+  /**
+   * Fetched during summarization, so with priority over polling
+   */
+  public ReleaseDetails getRelease(String owner, String repository, long releaseId) {
+    // https://docs.github.com/en/rest/releases/releases?apiVersion=2022-11-28#get-a-release
+    var response = send("/repos/" + owner + "/" + repository + "/releases/" + releaseId, Map.of(),
+        headers(
+            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json")))),
+        Priority.HIGH, "release", owner);
+    if (response.status() != 200) {
+      throw new RuntimeException("Unexpected response code " + response.status() + " when trying to get release " + releaseId + " for " + owner + "/" + repository);
+    }
+    return jsonParser.release(response.body());
+  }
+
+  /**
+   * Same as {@link #getLatestRelease(String, String)} but sent as a conditional request, using the validators from
+   * the previous response for the same repository and token, as long as that was for a release the caller has
+   * already seen.
+   *
+   * @return the latest release, or empty if it did not change since the latest release the caller has seen
+   */
+  public Optional<ReleaseDetails> getLatestReleaseIfChanged(String owner, String repository, Optional<Long> latestSeenReleaseId) {
+    var path = "/repos/" + owner + "/" + repository + "/releases/latest";
+    var requestHeaders = headers(Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github+json"))));
+    conditionalRequestCache.validatorsFor(apiToken, path, latestSeenReleaseId).ifPresent(validators -> {
+      validators.eTag().ifPresent(eTag -> requestHeaders.add(RawHeader.create("If-None-Match", eTag)));
+      validators.lastModified().ifPresent(lastModified -> requestHeaders.add(RawHeader.create("If-Modified-Since", lastModified)));
+    });
+
+    var response = send(path, Map.of(), requestHeaders, Priority.LOW, "latest-release", owner);
+
+    return switch (response.status()) {
+      case 304 -> {
+        conditionalRequestCache.recordNotModified();
+        yield Optional.empty();
+      }
+      case 200 -> {
+        var releaseDetails = jsonParser.release(response.body());
+        conditionalRequestCache.put(apiToken, path, new ConditionalRequestCache.Validators(
+            response.httpResponse().getHeader("ETag").map(HttpHeader::value),
+            response.httpResponse().getHeader("Last-Modified").map(HttpHeader::value),
+            releaseDetails.id()));
+        yield Optional.of(releaseDetails);
+      }
+      default -> {
+        conditionalRequestCache.remove(apiToken, path);
+        throw new RuntimeException("Unexpected response code " + response.status() + " when trying to get latest release for " + owner + "/" + repository);
+      }
+    };
+  }
+
+  /**
+   * @return details for the issue, served from the node local cache if it was looked up recently
+   * @throws IssueNotAvailableException if the issue was transferred to another repository, not found or deleted
+   */
   public IssueDetails getDetails(String owner, String repository, String issueNumber) {
+    return issueDetailsCache.get(apiToken, owner, repository, issueNumber, () -> fetchDetails(owner, repository, issueNumber));
+  }
+
+  private IssueDetails fetchDetails(String owner, String repository, String issueNumber) {
     // https://docs.github.com/en/rest/issues/issues?apiVersion=2022-11-28#get-an-issue
-    var response = httpClient.GET("/repos/" + owner + "/" + repository + "/issues/" + issueNumber)
-        .withHeaders(headers(
-            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github.raw+json")))
-        ))
-        .responseBodyAs(IssueDetails.class)
-        .invoke();
-
-    return switch (response.status().intValue()) {
-      case 200 -> response.body();
+    var response = send("/repos/" + owner + "/" + repository + "/issues/" + issueNumber, Map.of(),
+        headers(
+            Accept.create(MediaRanges.create(MediaTypes.applicationWithOpenCharset("vnd.github.raw+json")))),
+        Priority.HIGH, "issue", owner);
+
+    return switch (response.status()) {
+      case 200 -> jsonParser.issue(response.body());
       case 301 ->
-          throw new RuntimeException("Issue " + issueNumber + " was transferred to another repository (" + response.httpResponse().getHeader(Location.class) + ")");
+          throw new IssueNotAvailableException("Issue " + issueNumber + " was transferred to another repository (" + response.httpResponse().getHeader(Location.class) + ")");
       case 404 ->
-          throw new RuntimeException("Issue " + issueNumber + " was not found or transferred to another repository we dont have access to");
-      case 410 -> throw new RuntimeException("Issue " + issueNumber + " was deleted");
+          throw new IssueNotAvailableException("Issue " + issueNumber + " was not found or transferred to another repository we dont have access to");
+      case 410 -> throw new IssueNotAvailableException("Issue " + issueNumber + " was deleted");
       default ->
-          throw new RuntimeException("Unexpected response code " + response.status().intValue() + " when trying to get details for issue " + issueNumber);
+          throw new RuntimeException("Unexpected response code " + response.status() + " when trying to get details for issue " + issueNumber);
     };
   }
 }
@@ -0,0 +1,345 @@
+package summarizer.integration;
+
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for GitHub API responses that reads only the fields of the records in {@link GitHubApiClient}.
+ * Everything else, like the author, assets and reactions of a release or the user and labels of an issue, is skipped
+ * token by token without being turned into objects or strings. Bodies longer than the max length are truncated while
+ * parsing: only the kept part is decoded, directly from the response bytes, and the rest is skipped by the parser
+ * without being decoded, so memory use for a body does not grow beyond the max length.
+ */
+public final class GitHubJsonParser {
+
+  static final String TRUNCATED_MARKER = "\n[truncated]";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final int maxReleaseBodyLength;
+  private final int maxIssueBodyLength;
+
+  /**
+   * @param maxReleaseBodyLength max number of characters kept of release notes
+   * @param maxIssueBodyLength   max number of characters kept of issue and pull request descriptions
+   */
+  public GitHubJsonParser(int maxReleaseBodyLength, int maxIssueBodyLength) {
+    this.maxReleaseBodyLength = maxReleaseBodyLength;
+    this.maxIssueBodyLength = maxIssueBodyLength;
+  }
+
+  /**
+   * @param bytes       the whole response
+   * @param startOffset index of the first byte of the response in {@code bytes}
+   */
+  private record Input(ByteBuffer bytes, int startOffset) {}
+
+  @FunctionalInterface
+  private interface ObjectReader<T> {
+    /**
+     * @param parser positioned at the start of the object, left at the end of it
+     */
+    T read(JsonParser parser, Input input) throws IOException;
+  }
+
+  GitHubApiClient.ReleaseDetails release(ByteString bytes) {
+    return parse(bytes, this::readRelease);
+  }
+
+  List<GitHubApiClient.ReleaseDetails> releases(ByteString bytes) {
+    return parseList(bytes, this::readRelease);
+  }
+
+  GitHubApiClient.IssueDetails issue(ByteString bytes) {
+    return parse(bytes, this::readIssue);
+  }
+
+  List<GitHubApiClient.RepositoryDetails> repositories(ByteString bytes) {
+    return parseList(bytes, GitHubJsonParser::readRepository);
+  }
+
+  /**
+   * A {@code release} webhook delivery, with the release read the same way as when polling
+   */
+  GitHubWebhookDelivery.ReleaseEvent releaseEvent(ByteString bytes) {
+    return parse(bytes, this::readReleaseEvent);
+  }
+
+  private static <T> T parse(ByteString bytes, ObjectReader<T> reader) {
+    var buffer = contiguous(bytes);
+    var input = new Input(buffer.duplicate(), buffer.position());
+    try (var parser = JSON_FACTORY.createParser(new ByteBufferBackedInputStream(buffer))) {
+      parser.nextToken();
+      return reader.read(parser, input);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse github api response", e);
+    }
+  }
+
+  /**
+   * The kept part of a truncated body is decoded directly from the response bytes at the offsets of the parser, so the
+   * parser reads from one contiguous buffer. A single segment byte string, like a strict HTTP entity, is wrapped
+   * without copying, but one made of several segments is compacted into a new array, copying the whole response once.
+   */
+  private static ByteBuffer contiguous(ByteString bytes) {
+    return bytes.asByteBuffer();
+  }
+
+  private static <T> List<T> parseList(ByteString bytes, ObjectReader<T> reader) {
+    var buffer = contiguous(bytes);
+    var input = new Input(buffer.duplicate(), buffer.position());
+    try (var parser = JSON_FACTORY.createParser(new ByteBufferBackedInputStream(buffer))) {
+      expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+      var result = new ArrayList<T>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        result.add(reader.read(parser, input));
+      }
+      return result;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse github api response", e);
+    }
+  }
+
+  private GitHubApiClient.ReleaseDetails readRelease(JsonParser parser, Input input) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+    String url = null, htmlUrl = null, nodeId = null, tagName = null, targetCommitish = null, name = null, body = null;
+    long id = 0;
+    boolean draft = false, prerelease = false;
+    ZonedDateTime createdAt = null, publishedAt = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "url" -> url = string(parser);
+        case "html_url" -> htmlUrl = string(parser);
+        case "id" -> id = parser.getValueAsLong();
+        case "node_id" -> nodeId = string(parser);
+        case "tag_name" -> tagName = string(parser);
+        case "target_commitish" -> targetCommitish = string(parser);
+        case "name" -> name = string(parser);
+        case "body" -> body = truncatedString(parser, input, maxReleaseBodyLength);
+        case "draft" -> draft = parser.getValueAsBoolean();
+        case "prerelease" -> prerelease = parser.getValueAsBoolean();
+        case "created_at" -> createdAt = dateTime(parser);
+        case "published_at" -> publishedAt = dateTime(parser);
+        default -> parser.skipChildren();
+      }
+    }
+    return new GitHubApiClient.ReleaseDetails(url, htmlUrl, id, nodeId, tagName, targetCommitish, name, body, draft,
+        prerelease, createdAt, publishedAt);
+  }
+
+  private GitHubApiClient.IssueDetails readIssue(JsonParser parser, Input input) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+    String nodeId = null, repositoryUrl = null, labelsUrl = null, commentsUrl = null, eventsUrl = null, htmlUrl = null,
+        state = null, title = null, body = null;
+    long id = 0, number = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "id" -> id = parser.getValueAsLong();
+        case "node_id" -> nodeId = string(parser);
+        case "repository_url" -> repositoryUrl = string(parser);
+        case "labels_url" -> labelsUrl = string(parser);
+        case "comments_url" -> commentsUrl = string(parser);
+        case "events_url" -> eventsUrl = string(parser);
+        case "html_url" -> htmlUrl = string(parser);
+        case "number" -> number = parser.getValueAsLong();
+        case "state" -> state = string(parser);
+        case "title" -> title = string(parser);
+        case "body" -> body = truncatedString(parser, input, maxIssueBodyLength);
+        default -> parser.skipChildren();
+      }
+    }
+    return new GitHubApiClient.IssueDetails(id, nodeId, repositoryUrl, labelsUrl, commentsUrl, eventsUrl, htmlUrl,
+        number, state, title, body);
+  }
+
+  private static GitHubApiClient.RepositoryDetails readRepository(JsonParser parser, Input input) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+    String name = null, fullName = null;
+    boolean fork = false, archived = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "name" -> name = string(parser);
+        case "full_name" -> fullName = string(parser);
+        case "fork" -> fork = parser.getValueAsBoolean();
+        case "archived" -> archived = parser.getValueAsBoolean();
+        default -> parser.skipChildren();
+      }
+    }
+    return new GitHubApiClient.RepositoryDetails(name, fullName, fork, archived);
+  }
+
+  private GitHubWebhookDelivery.ReleaseEvent readReleaseEvent(JsonParser parser, Input input) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+    String action = null;
+    GitHubApiClient.ReleaseDetails release = null;
+    GitHubWebhookDelivery.Repository repository = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "action" -> action = string(parser);
+        case "release" -> release = parser.currentToken() == JsonToken.START_OBJECT ? readRelease(parser, input) : skip(parser);
+        case "repository" -> repository = parser.currentToken() == JsonToken.START_OBJECT ? readEventRepository(parser) : skip(parser);
+        default -> parser.skipChildren();
+      }
+    }
+    return new GitHubWebhookDelivery.ReleaseEvent(action, release, repository);
+  }
+
+  private static GitHubWebhookDelivery.Repository readEventRepository(JsonParser parser) throws IOException {
+    String name = null;
+    GitHubWebhookDelivery.Owner owner = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "name" -> name = string(parser);
+        case "owner" -> owner = parser.currentToken() == JsonToken.START_OBJECT ? readEventOwner(parser) : skip(parser);
+        default -> parser.skipChildren();
+      }
+    }
+    return new GitHubWebhookDelivery.Repository(name, owner);
+  }
+
+  private static GitHubWebhookDelivery.Owner readEventOwner(JsonParser parser) throws IOException {
+    String login = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var field = parser.currentName();
+      parser.nextToken();
+      if (field.equals("login")) {
+        login = string(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new GitHubWebhookDelivery.Owner(login);
+  }
+
+  /**
+   * @return null, for a value of an unexpected type
+   */
+  private static <T> T skip(JsonParser parser) throws IOException {
+    parser.skipChildren();
+    return null;
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(parser, "Expected " + expected + " but was " + actual);
+    }
+  }
+
+  /**
+   * @return the string value, null for null or a value of another type, which is skipped
+   */
+  private static String string(JsonParser parser) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) return parser.getText();
+    parser.skipChildren();
+    return null;
+  }
+
+  private static ZonedDateTime dateTime(JsonParser parser) throws IOException {
+    var text = string(parser);
+    return text == null ? null : ZonedDateTime.parse(text).withZoneSameInstant(ZoneOffset.UTC);
+  }
+
+  /**
+   * Only the first {@code maxLength} characters of the value are decoded, directly from the input. The parser has not
+   * decoded the value yet when it is at the token, and skips it without decoding when moving on to the next token.
+   */
+  private static String truncatedString(JsonParser parser, Input input, int maxLength) throws IOException {
+    if (parser.currentToken() != JsonToken.VALUE_STRING) {
+      parser.skipChildren();
+      return null;
+    }
+    var offset = parser.currentTokenLocation().getByteOffset();
+    if (offset < 0 || offset >= input.bytes().limit() - input.startOffset() ||
+        input.bytes().get(input.startOffset() + (int) offset) != '"') {
+      // not expected with a byte based parser, but let the parser decode the whole value rather than fail
+      return truncated(parser.getText(), maxLength);
+    }
+    try {
+      return decodeTruncated(input.bytes(), input.startOffset() + (int) offset + 1, maxLength);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new JsonParseException(parser, "Invalid string value", e);
+    }
+  }
+
+  /**
+   * @param index of the first byte after the opening quote of a JSON string
+   */
+  private static String decodeTruncated(ByteBuffer bytes, int index, int maxLength) {
+    // sized up front from the bytes up to the closing quote, never fewer than the characters, as far as would be kept
+    var end = index;
+    var scanLimit = Math.min(bytes.limit(), index + maxLength + 1);
+    while (end < scanLimit && bytes.get(end) != '"') {
+      end += bytes.get(end) == '\\' ? 2 : 1;
+    }
+    var kept = new StringBuilder(Math.min(end - index, maxLength) + TRUNCATED_MARKER.length() + 1);
+    while (true) {
+      var b = bytes.get(index++) & 0xFF;
+      // one character past the max length is enough to know the text is longer
+      if (kept.length() > maxLength) return truncate(kept, maxLength);
+      if (b == '"') return kept.toString();
+      if (b == '\\') {
+        var escaped = bytes.get(index++);
+        switch (escaped) {
+          case '"', '\\', '/' -> kept.append((char) escaped);
+          case 'b' -> kept.append('\b');
+          case 'f' -> kept.append('\f');
+          case 'n' -> kept.append('\n');
+          case 'r' -> kept.append('\r');
+          case 't' -> kept.append('\t');
+          case 'u' -> {
+            var code = 0;
+            for (int i = 0; i < 4; i++) {
+              var digit = Character.digit(bytes.get(index++), 16);
+              if (digit < 0) throw new IllegalArgumentException("Invalid unicode escape");
+              code = code * 16 + digit;
+            }
+            kept.append((char) code);
+          }
+          default -> throw new IllegalArgumentException("Invalid escape \\" + (char) escaped);
+        }
+      } else if (b < 0x80) {
+        kept.append((char) b);
+      } else if ((b & 0xE0) == 0xC0) {
+        kept.append((char) (((b & 0x1F) << 6) | (bytes.get(index++) & 0x3F)));
+      } else if ((b & 0xF0) == 0xE0) {
+        kept.append((char) (((b & 0x0F) << 12) | ((bytes.get(index++) & 0x3F) << 6) | (bytes.get(index++) & 0x3F)));
+      } else {
+        kept.appendCodePoint(((b & 0x07) << 18) | ((bytes.get(index++) & 0x3F) << 12) |
+            ((bytes.get(index++) & 0x3F) << 6) | (bytes.get(index++) & 0x3F));
+      }
+    }
+  }
+
+  private static String truncated(String text, int maxLength) {
+    return text.length() <= maxLength ? text : truncate(new StringBuilder(text), maxLength);
+  }
+
+  private static String truncate(StringBuilder text, int maxLength) {
+    var end = maxLength;
+    // don't cut a surrogate pair in half
+    if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) end--;
+    text.setLength(end);
+    return text.append(TRUNCATED_MARKER).toString();
+  }
+}
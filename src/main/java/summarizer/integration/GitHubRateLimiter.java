@@ -0,0 +1,268 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for GitHub API requests, shared by all {@link GitHubApiClient} instances on the node.
+ * <p>
+ * Keeps track of the remaining quota for each API token and rate limit resource from the <code>X-RateLimit-*</code>
+ * response headers. The REST API and the GraphQL API have separate quotas for the same token, so each has a budget
+ * of its own. Low priority work (polling for releases) is spread evenly over what is left of the rate limit window,
+ * and leaves a reserve of REST requests for high priority work (issue lookups for an in-flight summarization). High
+ * priority work is only held back once the quota is exhausted.
+ */
+public final class GitHubRateLimiter {
+
+  public enum Priority { HIGH, LOW }
+
+  /**
+   * The rate limit resources that requests are sent against, as named in the {@code X-RateLimit-Resource} header
+   */
+  public enum Resource {
+    CORE("core"), GRAPHQL("graphql");
+
+    private final String headerValue;
+
+    Resource(String headerValue) {
+      this.headerValue = headerValue;
+    }
+
+    public String headerValue() {
+      return headerValue;
+    }
+
+    static Optional<Resource> fromHeaderValue(String value) {
+      for (var resource : values()) {
+        if (resource.headerValue.equals(value)) return Optional.of(resource);
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Thrown instead of sending a request when it would have to wait too long for quota. The caller is expected to try
+   * again after {@link #retryAfter()}.
+   */
+  public static final class RateLimitedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+      super(message);
+      this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+      return retryAfter;
+    }
+  }
+
+  /**
+   * @param token          "anonymous", "default" or an id for a repository specific token
+ * @param resource       rate limit resource, as named in the {@code X-RateLimit-Resource} header
+   * @param remaining      last known remaining requests, -1 if not known yet
+   * @param queueDepth     number of requests currently held back waiting for quota
+   * @param throttled      total number of requests that were held back
+   * @param throttledMillis total time requests were held back
+   * @param deferred       total number of low priority requests that were rejected to be retried later
+   */
+  public record TokenStats(String token, String resource, int limit, int remaining, Optional<Instant> resetAt, int queueDepth,
+                           long throttled, long throttledMillis, long deferred) {}
+
+  private record BudgetKey(Optional<String> apiToken, Resource resource) {}
+
+  private static final class TokenBudget {
+    final String label;
+    final Resource resource;
+    final int highPriorityReserve;
+    int limit = -1;
+    int remaining = -1;
+    Instant resetAt = null;
+    Instant nextLowPrioritySlot = null;
+
+    final AtomicInteger waiting = new AtomicInteger();
+    final LongAdder throttled = new LongAdder();
+    final LongAdder throttledMillis = new LongAdder();
+    final LongAdder deferred = new LongAdder();
+
+    TokenBudget(String label, Resource resource, int highPriorityReserve) {
+      this.label = label;
+      this.resource = resource;
+      this.highPriorityReserve = highPriorityReserve;
+    }
+  }
+
+  /**
+   * Shortest time to wait once the quota is exhausted, a reset time that already passed (clocks differ a bit from
+   * GitHub's) would otherwise have the caller try again right away
+   */
+  static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(5);
+
+  private final Logger logger = LoggerFactory.getLogger(GitHubRateLimiter.class);
+
+  private final Optional<String> defaultApiToken;
+  private final int highPriorityReserve;
+  private final Duration maxLowPriorityWait;
+  private final Duration maxHighPriorityWait;
+  private final Clock clock;
+  private final ConcurrentHashMap<BudgetKey, TokenBudget> budgets = new ConcurrentHashMap<>();
+
+  public GitHubRateLimiter(Optional<String> defaultApiToken, int highPriorityReserve, Duration maxLowPriorityWait, Duration maxHighPriorityWait) {
+    this(defaultApiToken, highPriorityReserve, maxLowPriorityWait, maxHighPriorityWait, Clock.systemUTC());
+  }
+
+  GitHubRateLimiter(Optional<String> defaultApiToken, int highPriorityReserve, Duration maxLowPriorityWait, Duration maxHighPriorityWait, Clock clock) {
+    this.defaultApiToken = defaultApiToken;
+    this.highPriorityReserve = highPriorityReserve;
+    this.maxLowPriorityWait = maxLowPriorityWait;
+    this.maxHighPriorityWait = maxHighPriorityWait;
+    this.clock = clock;
+  }
+
+  /**
+   * Blocks until a request with the given token and priority may be sent.
+   *
+   * @param resource the rate limit resource the request counts against
+   * @throws RateLimitedException if the request would have to wait longer than allowed for its priority
+   */
+  void acquire(Optional<String> apiToken, Resource resource, Priority priority) {
+    var budget = budgetFor(apiToken, resource);
+    Duration wait;
+    synchronized (budget) {
+      var now = clock.instant();
+      if (budget.resetAt != null && !now.isBefore(budget.resetAt)) {
+        // new window, the quota is back but we don't know exact numbers until the next response
+        budget.remaining = -1;
+        budget.resetAt = null;
+        budget.nextLowPrioritySlot = null;
+      }
+
+      if (budget.remaining < 0 || budget.resetAt == null) {
+        wait = Duration.ZERO;
+      } else if (priority == Priority.HIGH) {
+        wait = budget.remaining > 0 ? Duration.ZERO : Duration.between(now, budget.resetAt);
+      } else {
+        var available = budget.remaining - budget.highPriorityReserve;
+        if (available <= 0) {
+          wait = Duration.between(now, budget.resetAt);
+        } else {
+          var spacing = Duration.between(now, budget.resetAt).dividedBy(available);
+          var slot = budget.nextLowPrioritySlot == null || budget.nextLowPrioritySlot.isBefore(now) ? now : budget.nextLowPrioritySlot;
+          wait = Duration.between(now, slot);
+          if (wait.compareTo(maxLowPriorityWait) <= 0) {
+            budget.nextLowPrioritySlot = slot.plus(spacing);
+          }
+        }
+      }
+
+      var maxWait = priority == Priority.HIGH ? maxHighPriorityWait : maxLowPriorityWait;
+      if (wait.compareTo(maxWait) > 0) {
+        budget.deferred.increment();
+        throw new RateLimitedException(
+            "GitHub API " + budget.resource.headerValue() + " quota for [" + budget.label + "] exhausted for " + priority + " priority requests, retry in " + wait,
+            wait);
+      }
+      if (budget.remaining > 0) budget.remaining--;
+    }
+
+    if (wait.isPositive()) {
+      logger.debug("Holding back {} priority GitHub API request for [{}] for {}", priority, budget.label, wait);
+      budget.throttled.increment();
+      budget.throttledMillis.add(wait.toMillis());
+      budget.waiting.incrementAndGet();
+      try {
+        Thread.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for GitHub API quota", e);
+      } finally {
+        budget.waiting.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Update the known quota for a token from the rate limit headers of a response. The headers are for the resource
+   * named in the {@code X-RateLimit-Resource} header if there is one, and ignored for resources not tracked here.
+   *
+   * @param resource the rate limit resource the request was sent against
+   */
+  void update(Optional<String> apiToken, Resource resource, HttpResponse response) {
+    var remaining = longHeader(response, "X-RateLimit-Remaining");
+    var reset = longHeader(response, "X-RateLimit-Reset");
+    if (remaining.isEmpty() || reset.isEmpty()) return;
+    var responseResource = response.getHeader("X-RateLimit-Resource").map(HttpHeader::value)
+        .map(value -> Resource.fromHeaderValue(value.trim()))
+        .orElse(Optional.of(resource));
+    if (responseResource.isEmpty()) return;
+    update(apiToken, responseResource.get(), longHeader(response, "X-RateLimit-Limit"), remaining.get(),
+        Instant.ofEpochSecond(reset.get()));
+  }
+
+  void update(Optional<String> apiToken, Resource resource, Optional<Long> limit, long remaining, Instant resetAt) {
+    var budget = budgetFor(apiToken, resource);
+    synchronized (budget) {
+      limit.ifPresent(value -> budget.limit = value.intValue());
+      budget.remaining = (int) remaining;
+      budget.resetAt = resetAt;
+    }
+  }
+
+  /**
+   * @return the time until the quota for the token and resource is reset if it is known to be exhausted, at least
+   *         {@link #MIN_RETRY_AFTER}
+   */
+  Optional<Duration> exhaustedFor(Optional<String> apiToken, Resource resource) {
+    var budget = budgetFor(apiToken, resource);
+    synchronized (budget) {
+      if (budget.remaining == 0 && budget.resetAt != null) {
+        var untilReset = Duration.between(clock.instant(), budget.resetAt);
+        return Optional.of(untilReset.compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER : untilReset);
+      } else {
+        return Optional.empty();
+      }
+    }
+  }
+
+  public List<TokenStats> stats() {
+    return budgets.values().stream().map(budget -> {
+      synchronized (budget) {
+        return new TokenStats(budget.label, budget.resource.headerValue(), budget.limit, budget.remaining, Optional.ofNullable(budget.resetAt),
+            budget.waiting.get(), budget.throttled.sum(), budget.throttledMillis.sum(), budget.deferred.sum());
+      }
+    }).toList();
+  }
+
+  private TokenBudget budgetFor(Optional<String> apiToken, Resource resource) {
+    return budgets.computeIfAbsent(new BudgetKey(apiToken, resource), key -> new TokenBudget(labelFor(key.apiToken()),
+        key.resource(), key.resource() == Resource.CORE ? highPriorityReserve : 0));
+  }
+
+  private String labelFor(Optional<String> apiToken) {
+    if (apiToken.isEmpty()) return "anonymous";
+    else if (apiToken.equals(defaultApiToken)) return "default";
+    else return "repository-token-" + HexFormat.of().toHexDigits(apiToken.get().hashCode());
+  }
+
+  private static Optional<Long> longHeader(HttpResponse response, String name) {
+    return response.getHeader(name).map(HttpHeader::value).flatMap(value -> {
+      try {
+        return Optional.of(Long.parseLong(value.trim()));
+      } catch (NumberFormatException e) {
+        return Optional.empty();
+      }
+    });
+  }
+}
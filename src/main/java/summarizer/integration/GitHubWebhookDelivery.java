@@ -0,0 +1,68 @@
+package summarizer.integration;
+
+import akka.util.ByteString;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.util.Optional;
+
+/**
+ * What a GitHub webhook delivery means for the service: verifies the signature, and for {@code release} events parses
+ * the payload, keeping only published releases, like the latest release returned when polling. The payload is read
+ * with the {@link GitHubJsonParser}, so the release notes are truncated the same way as when polling, and the owner
+ * and repository are normalized like when setting up a repository.
+ * <p>
+ * See https://docs.github.com/en/webhooks/webhook-events-and-payloads#release
+ */
+public sealed interface GitHubWebhookDelivery {
+
+  record InvalidSignature() implements GitHubWebhookDelivery {}
+  record Ping() implements GitHubWebhookDelivery {}
+  record InvalidPayload() implements GitHubWebhookDelivery {}
+  /**
+   * @param reason for logging
+   */
+  record Ignored(String reason) implements GitHubWebhookDelivery {}
+  record PublishedRelease(RepositoryIdentifier repositoryIdentifier, GitHubApiClient.ReleaseDetails release) implements GitHubWebhookDelivery {}
+
+  record ReleaseEvent(String action, GitHubApiClient.ReleaseDetails release, Repository repository) {}
+  record Repository(String name, Owner owner) {}
+  record Owner(String login) {}
+
+  /**
+   * @param eventType       value of the {@code X-GitHub-Event} header
+   * @param signatureHeader value of the {@link GitHubWebhookSignature#HEADER_NAME} header
+   * @param body            the raw request body, the signature is over the exact bytes
+   */
+  static GitHubWebhookDelivery of(String secret, GitHubJsonParser jsonParser, Optional<String> eventType,
+                                  Optional<String> signatureHeader, byte[] body) {
+    if (!GitHubWebhookSignature.isValid(secret, body, signatureHeader.orElse(null))) {
+      return new InvalidSignature();
+    }
+    var type = eventType.orElse("");
+    if (type.equals("ping")) {
+      return new Ping();
+    } else if (!type.equals("release")) {
+      return new Ignored("event [" + type + "]");
+    }
+
+    ReleaseEvent event;
+    try {
+      // the body is not used after this, no need to copy it
+      event = jsonParser.releaseEvent(ByteString.fromArrayUnsafe(body));
+    } catch (RuntimeException e) {
+      return new InvalidPayload();
+    }
+    if (event.release() == null || event.repository() == null || event.repository().name() == null ||
+        event.repository().owner() == null || event.repository().owner().login() == null) {
+      return new InvalidPayload();
+    }
+    // a release is published once, same as what is returned as the latest release when polling
+    if (!"published".equals(event.action())) {
+      return new Ignored("[" + event.action() + "] release event");
+    } else if (event.release().draft() || event.release().prerelease()) {
+      return new Ignored("draft or pre-release [" + event.release().name() + "]");
+    }
+    return new PublishedRelease(RepositoryIdentifier.of(event.repository().owner().login(), event.repository().name()),
+        event.release());
+  }
+}
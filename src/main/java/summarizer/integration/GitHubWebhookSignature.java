@@ -0,0 +1,56 @@
+package summarizer.integration;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Verifies the {@code X-Hub-Signature-256} header of GitHub webhook deliveries, a HMAC-SHA256 of the raw request body
+ * using the secret configured for the webhook.
+ * <p>
+ * See https://docs.github.com/en/webhooks/using-webhooks/validating-webhook-deliveries
+ */
+public final class GitHubWebhookSignature {
+
+  public static final String HEADER_NAME = "X-Hub-Signature-256";
+  private static final String PREFIX = "sha256=";
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private GitHubWebhookSignature() {}
+
+  /**
+   * @return true if the signature header value matches the body, signed with the secret
+   */
+  public static boolean isValid(String secret, byte[] body, String signatureHeader) {
+    if (secret.isEmpty() || signatureHeader == null || !signatureHeader.startsWith(PREFIX)) return false;
+    byte[] expected;
+    try {
+      expected = HexFormat.of().parseHex(signatureHeader.substring(PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    // constant time comparison, not to leak how much of a forged signature was right
+    return MessageDigest.isEqual(expected, sign(secret, body));
+  }
+
+  /**
+   * @return the header value GitHub would send for the body
+   */
+  public static String signatureFor(String secret, byte[] body) {
+    return PREFIX + HexFormat.of().formatHex(sign(secret, body));
+  }
+
+  private static byte[] sign(String secret, byte[] body) {
+    try {
+      var mac = Mac.getInstance(ALGORITHM);
+      mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+      return mac.doFinal(body);
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException("Failed to calculate webhook signature", e);
+    }
+  }
+}
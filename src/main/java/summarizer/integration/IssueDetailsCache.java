@@ -0,0 +1,176 @@
+package summarizer.integration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Node local cache of issue details, bounded both in number of entries and estimated memory use, with entries
+ * expiring after a time to live. Issues that are known to be unavailable (moved, not found or deleted) are cached
+ * as well, with a separate time to live.
+ * <p>
+ * Concurrent lookups of the same issue that is not in the cache results in a single request to GitHub, that all
+ * lookups share the result of.
+ * <p>
+ * Entries are kept per API token, since what a token has access to may differ. Shared between all
+ * {@link GitHubApiClient} instances and safe to use concurrently.
+ */
+public final class IssueDetailsCache {
+
+  public record Stats(long hits, long misses, long collapsed, long evictions, int entries, long estimatedBytes) {}
+
+  private record Key(Optional<String> apiToken, String owner, String repository, String issueNumber) {}
+
+  /**
+   * @param details            the issue details, or null if not available
+   * @param notAvailableReason why the issue is not available, or null if it is
+   */
+  private record Entry(GitHubApiClient.IssueDetails details, String notAvailableReason, Instant expires, long estimatedBytes) {}
+
+  // rough per entry overhead of map entries, keys and records
+  private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final Duration timeToLive;
+  private final Duration notAvailableTimeToLive;
+  private final Clock clock;
+
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long estimatedBytes = 0;
+  private final ConcurrentHashMap<Key, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder collapsed = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public IssueDetailsCache(int maxEntries, long maxBytes, Duration timeToLive, Duration notAvailableTimeToLive) {
+    this(maxEntries, maxBytes, timeToLive, notAvailableTimeToLive, Clock.systemUTC());
+  }
+
+  IssueDetailsCache(int maxEntries, long maxBytes, Duration timeToLive, Duration notAvailableTimeToLive, Clock clock) {
+    if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1, was " + maxEntries);
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.timeToLive = timeToLive;
+    this.notAvailableTimeToLive = notAvailableTimeToLive;
+    this.clock = clock;
+  }
+
+  /**
+   * @param fetch fetches the details from GitHub on a cache miss, throwing
+   *              {@link GitHubApiClient.IssueNotAvailableException} if the issue is not available
+   * @return the cached or fetched issue details
+   * @throws GitHubApiClient.IssueNotAvailableException if the issue is known to not be available
+   */
+  GitHubApiClient.IssueDetails get(Optional<String> apiToken, String owner, String repository, String issueNumber,
+                                   Supplier<GitHubApiClient.IssueDetails> fetch) {
+    var key = new Key(apiToken, owner.toLowerCase(Locale.ROOT), repository.toLowerCase(Locale.ROOT), issueNumber);
+
+    var cached = lookup(key);
+    if (cached.isPresent()) {
+      hits.increment();
+      return unwrap(cached.get());
+    }
+
+    var ours = new CompletableFuture<Entry>();
+    var alreadyInFlight = inFlight.putIfAbsent(key, ours);
+    if (alreadyInFlight != null) {
+      collapsed.increment();
+      try {
+        return unwrap(alreadyInFlight.join());
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+        else if (e.getCause() instanceof Error error) throw error;
+        else throw e;
+      }
+    }
+
+    misses.increment();
+    try {
+      Entry entry;
+      try {
+        var details = fetch.get();
+        entry = new Entry(details, null, clock.instant().plus(timeToLive), estimateBytes(details));
+      } catch (GitHubApiClient.IssueNotAvailableException e) {
+        entry = new Entry(null, e.getMessage(), clock.instant().plus(notAvailableTimeToLive), ENTRY_OVERHEAD_BYTES + estimateBytes(e.getMessage()));
+      }
+      store(key, entry);
+      ours.complete(entry);
+      return unwrap(entry);
+    } catch (Throwable e) {
+      // failures other than the issue not being available are not cached, errors are passed on as well so that the
+      // collapsed lookups don't wait forever
+      ours.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, ours);
+    }
+  }
+
+  public Stats stats() {
+    synchronized (entries) {
+      return new Stats(hits.sum(), misses.sum(), collapsed.sum(), evictions.sum(), entries.size(), estimatedBytes);
+    }
+  }
+
+  private Optional<Entry> lookup(Key key) {
+    synchronized (entries) {
+      var entry = entries.get(key);
+      if (entry == null) {
+        return Optional.empty();
+      } else if (entry.expires().isBefore(clock.instant())) {
+        entries.remove(key);
+        estimatedBytes -= entry.estimatedBytes();
+        return Optional.empty();
+      } else {
+        return Optional.of(entry);
+      }
+    }
+  }
+
+  private void store(Key key, Entry entry) {
+    synchronized (entries) {
+      var replaced = entries.put(key, entry);
+      if (replaced != null) estimatedBytes -= replaced.estimatedBytes();
+      estimatedBytes += entry.estimatedBytes();
+
+      // least recently used first
+      Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+      while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && iterator.hasNext()) {
+        var eldest = iterator.next();
+        if (eldest.getKey().equals(key)) continue;
+        iterator.remove();
+        estimatedBytes -= eldest.getValue().estimatedBytes();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static GitHubApiClient.IssueDetails unwrap(Entry entry) {
+    if (entry.details() != null) return entry.details();
+    else throw new GitHubApiClient.IssueNotAvailableException(entry.notAvailableReason());
+  }
+
+  private static long estimateBytes(GitHubApiClient.IssueDetails details) {
+    return ENTRY_OVERHEAD_BYTES + estimateBytes(details.title()) + estimateBytes(details.body()) +
+        estimateBytes(details.htmlUrl()) + estimateBytes(details.repositoryUrl()) + estimateBytes(details.labelsUrl()) +
+        estimateBytes(details.commentsUrl()) + estimateBytes(details.eventsUrl()) + estimateBytes(details.nodeId()) +
+        estimateBytes(details.state());
+  }
+
+  private static long estimateBytes(String string) {
+    return string == null ? 0 : 40 + 2L * string.length();
+  }
+}
@@ -0,0 +1,240 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.headers.Authorization;
+import akka.http.javadsl.model.headers.HttpCredentials;
+import akka.http.javadsl.model.headers.UserAgent;
+import akka.javasdk.JsonSupport;
+import akka.javasdk.http.HttpClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces latest release lookups for repositories sharing an API token into one GraphQL query per batch, with one
+ * aliased {@code repository} field per repository, instead of one REST request per repository.
+ * <p>
+ * A batch is sent once it is full, or when its first lookup has waited for {@code max-wait}. GraphQL has its own rate
+ * limit, separate from the REST API, tracked as the {@code graphql} resource of the {@link GitHubRateLimiter} shared
+ * with the REST requests. The GraphQL API does not allow
+ * anonymous access, lookups without a token are not batched.
+ */
+public final class LatestReleaseBatchPoller {
+
+  /**
+   * A latest release lookup failed for the repository, for example because it was not found, and should be done
+   * with the REST API instead
+   */
+  public static final class LookupFailedException extends RuntimeException {
+    public LookupFailedException(String message) {
+      super(message);
+    }
+
+    public LookupFailedException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
+  /**
+   * Where the GraphQL queries are sent, the GitHub API, or a stub in tests
+   */
+  @FunctionalInterface
+  interface GraphQlEndpoint {
+    /**
+     * Send the request and update the rate limiter from the rate limit headers of the response
+     *
+     * @param request the {@code query} and its {@code variables}
+     */
+    GraphQlResponse post(String apiToken, Map<String, Object> request);
+  }
+
+  record GraphQlResponse(int status, byte[] body) {}
+
+  private record Lookup(String owner, String repository, CompletableFuture<Optional<Long>> latestReleaseId) {}
+
+  private static final UserAgent USER_AGENT = UserAgent.create("AI Changelog Summarizer");
+
+  private final Logger logger = LoggerFactory.getLogger(LatestReleaseBatchPoller.class);
+
+  private final GraphQlEndpoint endpoint;
+  private final GitHubRateLimiter rateLimiter;
+  private final SummarizerMetrics metrics;
+  private final int maxBatchSize;
+  private final Duration maxWait;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().daemon().name("latest-release-batch-poller").factory());
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  // guarded by itself
+  private final Map<String, List<Lookup>> pending = new HashMap<>();
+
+  /**
+   * @param path of the GraphQL endpoint for the http client
+   */
+  public LatestReleaseBatchPoller(HttpClient httpClient, String path, GitHubRateLimiter rateLimiter,
+                                  SummarizerMetrics metrics, int maxBatchSize, Duration maxWait) {
+    this(httpEndpoint(httpClient, path, rateLimiter), rateLimiter, metrics, maxBatchSize, maxWait);
+  }
+
+  LatestReleaseBatchPoller(GraphQlEndpoint endpoint, GitHubRateLimiter rateLimiter, SummarizerMetrics metrics,
+                           int maxBatchSize, Duration maxWait) {
+    this.endpoint = endpoint;
+    this.rateLimiter = rateLimiter;
+    this.metrics = metrics;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWait = maxWait;
+  }
+
+  private static GraphQlEndpoint httpEndpoint(HttpClient httpClient, String path, GitHubRateLimiter rateLimiter) {
+    return (apiToken, request) -> {
+      var response = httpClient.POST(path)
+          .withHeaders(List.<HttpHeader>of(USER_AGENT, Authorization.create(HttpCredentials.createOAuth2BearerToken(apiToken))))
+          .withRequestBody(request)
+          .invoke();
+      rateLimiter.update(Optional.of(apiToken), GitHubRateLimiter.Resource.GRAPHQL, response.httpResponse());
+      return new GraphQlResponse(response.status().intValue(), response.body().toArray());
+    };
+  }
+
+  /**
+   * Blocks until the batch the lookup ends up in has been sent
+   *
+   * @return the id of the latest release of the repository, empty if it has no releases
+   * @throws LookupFailedException if the latest release could not be looked up for this repository
+   * @throws GitHubRateLimiter.RateLimitedException if there is no GraphQL quota left for the token
+   */
+  Optional<Long> latestReleaseId(String apiToken, String owner, String repository) {
+    var lookup = new Lookup(owner, repository, new CompletableFuture<>());
+    List<Lookup> fullBatch = null;
+    synchronized (pending) {
+      var batch = pending.get(apiToken);
+      if (batch == null) {
+        batch = new ArrayList<>(maxBatchSize);
+        pending.put(apiToken, batch);
+        var firstBatch = batch;
+        scheduler.schedule(() -> sendIfPending(apiToken, firstBatch), maxWait.toMillis(), TimeUnit.MILLISECONDS);
+      }
+      batch.add(lookup);
+      if (batch.size() >= maxBatchSize) {
+        pending.remove(apiToken);
+        fullBatch = batch;
+      }
+    }
+    if (fullBatch != null) {
+      send(apiToken, fullBatch);
+    }
+
+    try {
+      return lookup.latestReleaseId().get(maxWait.toMillis() + Duration.ofMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+    } catch (java.util.concurrent.ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+      throw new RuntimeException(e.getCause());
+    } catch (java.util.concurrent.TimeoutException e) {
+      throw new LookupFailedException("Timed out waiting for batched latest release lookup of " + owner + "/" + repository);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted waiting for batched latest release lookup", e);
+    }
+  }
+
+  private void sendIfPending(String apiToken, List<Lookup> batch) {
+    synchronized (pending) {
+      // already sent if it filled up in the meantime
+      if (!pending.remove(apiToken, batch)) return;
+    }
+    senders.execute(() -> send(apiToken, batch));
+  }
+
+  private void send(String apiToken, List<Lookup> batch) {
+    try {
+      var results = query(apiToken, batch);
+      for (int i = 0; i < batch.size(); i++) {
+        var lookup = batch.get(i);
+        var result = results.get(alias(i));
+        if (result == null || result.isNull()) {
+          lookup.latestReleaseId().completeExceptionally(
+              new LookupFailedException("No GraphQL result for " + lookup.owner() + "/" + lookup.repository()));
+        } else {
+          var latestRelease = result.path("latestRelease");
+          lookup.latestReleaseId().complete(latestRelease.isNull() || latestRelease.isMissingNode()
+              ? Optional.empty()
+              : Optional.of(latestRelease.path("databaseId").asLong()));
+        }
+      }
+    } catch (GitHubRateLimiter.RateLimitedException e) {
+      logger.info("Batched latest release lookup for {} repositories rate limited: {}", batch.size(), e.getMessage());
+      batch.forEach(lookup -> lookup.latestReleaseId().completeExceptionally(e));
+    } catch (RuntimeException e) {
+      // like for a single repository, the callers look up the latest release with the REST API instead
+      logger.info("Batched latest release lookup for {} repositories failed: {}", batch.size(), e.getMessage());
+      batch.forEach(lookup -> lookup.latestReleaseId().completeExceptionally(new LookupFailedException(
+          "Batched latest release lookup of " + lookup.owner() + "/" + lookup.repository() + " failed: " + e.getMessage(), e)));
+    }
+  }
+
+  /**
+   * @return the {@code data} of the response, with a field per alias
+   */
+  private JsonNode query(String apiToken, List<Lookup> batch) {
+    // variables rather than string literals, so that names never need escaping
+    var declarations = new StringBuilder();
+    var fields = new StringBuilder();
+    var variables = new LinkedHashMap<String, String>();
+    for (int i = 0; i < batch.size(); i++) {
+      var lookup = batch.get(i);
+      if (i > 0) declarations.append(", ");
+      declarations.append("$o").append(i).append(": String!, $n").append(i).append(": String!");
+      fields.append("  ").append(alias(i)).append(": repository(owner: $o").append(i).append(", name: $n").append(i)
+          .append(") { latestRelease { databaseId } }\n");
+      variables.put("o" + i, lookup.owner());
+      variables.put("n" + i, lookup.repository());
+    }
+    var query = "query(" + declarations + ") {\n" + fields + "}";
+
+    var token = Optional.of(apiToken);
+    var start = System.nanoTime();
+    rateLimiter.acquire(token, GitHubRateLimiter.Resource.GRAPHQL, GitHubRateLimiter.Priority.LOW);
+    var response = endpoint.post(apiToken, Map.of("query", query, "variables", variables));
+    var status = response.status();
+    metrics.gitHubResponse("graphql-latest-releases", "", status, start);
+    if (status == 403 || status == 429) {
+      var exhaustedFor = rateLimiter.exhaustedFor(token, GitHubRateLimiter.Resource.GRAPHQL);
+      if (exhaustedFor.isPresent()) {
+        throw new GitHubRateLimiter.RateLimitedException("GitHub GraphQL rate limit exceeded, response code " + status, exhaustedFor.get());
+      }
+    }
+    if (status != 200) {
+      throw new RuntimeException("Unexpected response code " + status + " for batched latest release lookup");
+    }
+
+    JsonNode body;
+    try {
+      body = JsonSupport.getObjectMapper().readTree(response.body());
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse github graphql response", e);
+    }
+    // errors for single repositories, like not found, come with partial data
+    if (body.path("errors").size() > 0) {
+      logger.debug("Batched latest release lookup returned errors: {}", body.path("errors"));
+    }
+    return body.path("data");
+  }
+
+  private static String alias(int index) {
+    return "r" + index;
+  }
+}
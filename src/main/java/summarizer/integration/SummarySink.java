@@ -0,0 +1,25 @@
+package summarizer.integration;
+
+import summarizer.domain.ReleaseSummary;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A destination new summaries are delivered to. Deliveries are at least once, a sink may see the same summary again
+ * after a failed or interrupted attempt, and should use the delivery id to tell.
+ */
+public interface SummarySink {
+
+  /**
+   * @param deliveryId unique for the repository and release
+   */
+  record Delivery(String deliveryId, RepositoryIdentifier repositoryIdentifier, ReleaseSummary summary) {}
+
+  /**
+   * @param deliveries a micro-batch of new summaries, oldest first
+   * @return the ids of the deliveries that succeeded, the others are retried later
+   */
+  Set<String> deliver(List<Delivery> deliveries);
+}
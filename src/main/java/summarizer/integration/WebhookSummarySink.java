@@ -0,0 +1,62 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.headers.UserAgent;
+import akka.javasdk.http.HttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Posts each micro-batch of summaries as one JSON document to a webhook, a 2xx response acknowledges all of them.
+ * Receivers can use the delivery ids to ignore summaries they have already seen.
+ */
+public final class WebhookSummarySink implements SummarySink {
+
+  public record WebhookSummary(String deliveryId, String owner, String repo, String version, long githubReleaseId,
+                               Instant creationDate, Optional<Instant> publishedAt, String summary) {}
+
+  public record WebhookPayload(List<WebhookSummary> summaries) {}
+
+  private static final UserAgent USER_AGENT = UserAgent.create("AI Changelog Summarizer");
+
+  private final Logger logger = LoggerFactory.getLogger(WebhookSummarySink.class);
+
+  private final HttpClient httpClient;
+  private final String path;
+
+  /**
+   * @param path of the webhook for the http client
+   */
+  public WebhookSummarySink(HttpClient httpClient, String path) {
+    this.httpClient = httpClient;
+    this.path = path;
+  }
+
+  @Override
+  public Set<String> deliver(List<Delivery> deliveries) {
+    var payload = new WebhookPayload(deliveries.stream()
+        .map(delivery -> new WebhookSummary(delivery.deliveryId(), delivery.repositoryIdentifier().owner(),
+            delivery.repositoryIdentifier().repo(), delivery.summary().version(), delivery.summary().githubReleaseId(),
+            delivery.summary().creationDate(), delivery.summary().publishedAt(), delivery.summary().summary()))
+        .toList());
+    try {
+      var response = httpClient.POST(path)
+          .withHeaders(List.<HttpHeader>of(USER_AGENT))
+          .withRequestBody(payload)
+          .invoke();
+      if (response.status().isSuccess()) {
+        return deliveries.stream().map(Delivery::deliveryId).collect(Collectors.toSet());
+      }
+      logger.warn("Webhook responded with {} to a batch of {} summaries", response.status().intValue(), deliveries.size());
+    } catch (RuntimeException e) {
+      logger.warn("Failed to post a batch of {} summaries to webhook: {}", deliveries.size(), e.getMessage());
+    }
+    return Set.of();
+  }
+}
@@ -0,0 +1,227 @@
+package summarizer.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Minimal node local registry of counters, histograms and gauges, written in the Prometheus text exposition format.
+ * Labelled series are created on first use and kept for the lifetime of the service, so label values must come from
+ * a bounded set, such as repository owners, never from release ids or free text.
+ * <p>
+ * Counters are registered under their base name, which is used for the {@code HELP} and {@code TYPE} lines of the
+ * family, and only their samples get the {@code _total} suffix, as in OpenMetrics. A counter name ending in
+ * {@code _total} is rejected, it would end up as {@code _total_total} on the samples.
+ */
+public final class MetricsRegistry {
+
+  private interface Family {
+    void writeTo(StringBuilder out);
+  }
+
+  private static final String COUNTER_SUFFIX = "_total";
+
+  private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+  public Counter counter(String name, String help, String... labelNames) {
+    return register(counterName(name), new Counter(name, help, labelNames));
+  }
+
+  public Histogram histogram(String name, String help, double[] buckets, String... labelNames) {
+    return register(name, new Histogram(name, help, buckets, labelNames));
+  }
+
+  /**
+   * A gauge read when scraped
+   *
+   * @param values current value per series, keyed by label values in the same order as the label names
+   */
+  public void gauge(String name, String help, List<String> labelNames, Supplier<Map<List<String>, ? extends Number>> values) {
+    supplied(name, help, "gauge", name, labelNames, values);
+  }
+
+  public void gauge(String name, String help, Supplier<? extends Number> value) {
+    gauge(name, help, List.of(), () -> Map.of(List.of(), value.get()));
+  }
+
+  /**
+   * A counter that is kept track of elsewhere, read when scraped
+   *
+   * @param values current count per series, keyed by label values in the same order as the label names
+   */
+  public void counter(String name, String help, List<String> labelNames, Supplier<Map<List<String>, ? extends Number>> values) {
+    supplied(counterName(name), help, "counter", name + COUNTER_SUFFIX, labelNames, values);
+  }
+
+  public void counter(String name, String help, Supplier<? extends Number> value) {
+    counter(name, help, List.of(), () -> Map.of(List.of(), value.get()));
+  }
+
+  private void supplied(String name, String help, String type, String sampleName, List<String> labelNames,
+                        Supplier<Map<List<String>, ? extends Number>> values) {
+    register(name, (Family) out -> {
+      header(out, name, help, type);
+      values.get().forEach((labelValues, value) ->
+          sample(out, sampleName, labelNames, labelValues, null, value.doubleValue()));
+    });
+  }
+
+  private static String counterName(String name) {
+    if (name.endsWith(COUNTER_SUFFIX)) {
+      throw new IllegalArgumentException("Counter [" + name + "] must be registered without the " + COUNTER_SUFFIX +
+          " suffix, it is added to the samples");
+    }
+    return name;
+  }
+
+  private <T extends Family> T register(String name, T family) {
+    if (families.putIfAbsent(name, family) != null) {
+      throw new IllegalArgumentException("Metric [" + name + "] is already registered");
+    }
+    return family;
+  }
+
+  /**
+   * @return all metrics in the Prometheus text exposition format
+   */
+  public String scrape() {
+    var out = new StringBuilder(4096);
+    families.values().forEach(family -> family.writeTo(out));
+    return out.toString();
+  }
+
+  public static final class Counter implements Family {
+    private final String name;
+    private final String help;
+    private final List<String> labelNames;
+    private final Map<List<String>, LongAdder> series = new ConcurrentHashMap<>();
+
+    private Counter(String name, String help, String[] labelNames) {
+      this.name = name;
+      this.help = help;
+      this.labelNames = List.of(labelNames);
+    }
+
+    public void increment(String... labelValues) {
+      add(1, labelValues);
+    }
+
+    public void add(long amount, String... labelValues) {
+      series.computeIfAbsent(labelValuesFor(labelNames, labelValues), ignored -> new LongAdder()).add(amount);
+    }
+
+    @Override
+    public void writeTo(StringBuilder out) {
+      header(out, name, help, "counter");
+      series.forEach((labelValues, count) -> sample(out, name + COUNTER_SUFFIX, labelNames, labelValues, null, count.sum()));
+    }
+  }
+
+  public static final class Histogram implements Family {
+    private final String name;
+    private final String help;
+    private final double[] buckets;
+    private final List<String> labelNames;
+    private final Map<List<String>, Series> series = new ConcurrentHashMap<>();
+
+    private final class Series {
+      final LongAdder[] bucketCounts = new LongAdder[buckets.length];
+      final LongAdder count = new LongAdder();
+      final DoubleAdder sum = new DoubleAdder();
+
+      Series() {
+        for (int i = 0; i < bucketCounts.length; i++) bucketCounts[i] = new LongAdder();
+      }
+    }
+
+    private Histogram(String name, String help, double[] buckets, String[] labelNames) {
+      this.name = name;
+      this.help = help;
+      this.buckets = buckets.clone();
+      Arrays.sort(this.buckets);
+      this.labelNames = List.of(labelNames);
+    }
+
+    public void observe(double value, String... labelValues) {
+      var s = series.computeIfAbsent(labelValuesFor(labelNames, labelValues), ignored -> new Series());
+      // only the first bucket the value fits in, they are summed up to cumulative counts when scraped
+      var bucket = Arrays.binarySearch(buckets, value);
+      if (bucket < 0) bucket = -(bucket + 1);
+      if (bucket < buckets.length) s.bucketCounts[bucket].increment();
+      s.count.increment();
+      s.sum.add(value);
+    }
+
+    /**
+     * Observe the time since {@code startNanos}, from {@link System#nanoTime()}, in seconds
+     */
+    public void observeSince(long startNanos, String... labelValues) {
+      observe((System.nanoTime() - startNanos) / 1_000_000_000.0, labelValues);
+    }
+
+    @Override
+    public void writeTo(StringBuilder out) {
+      header(out, name, help, "histogram");
+      series.forEach((labelValues, s) -> {
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+          cumulative += s.bucketCounts[i].sum();
+          sample(out, name + "_bucket", labelNames, labelValues, formatValue(buckets[i]), cumulative);
+        }
+        var count = s.count.sum();
+        sample(out, name + "_bucket", labelNames, labelValues, "+Inf", count);
+        sample(out, name + "_sum", labelNames, labelValues, null, s.sum.sum());
+        sample(out, name + "_count", labelNames, labelValues, null, count);
+      });
+    }
+  }
+
+  private static List<String> labelValuesFor(List<String> labelNames, String[] labelValues) {
+    if (labelValues.length != labelNames.size()) {
+      throw new IllegalArgumentException("Expected values for labels " + labelNames + " but got " + Arrays.toString(labelValues));
+    }
+    var values = new ArrayList<String>(labelValues.length);
+    for (var value : labelValues) values.add(value == null ? "" : value);
+    return List.copyOf(values);
+  }
+
+  private static void header(StringBuilder out, String name, String help, String type) {
+    out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, List<String> labelNames, List<String> labelValues,
+                             String le, double value) {
+    out.append(name);
+    if (!labelNames.isEmpty() || le != null) {
+      out.append('{');
+      for (int i = 0; i < labelNames.size(); i++) {
+        if (i > 0) out.append(',');
+        out.append(labelNames.get(i)).append("=\"").append(escapeLabelValue(labelValues.get(i))).append('"');
+      }
+      if (le != null) {
+        if (!labelNames.isEmpty()) out.append(',');
+        out.append("le=\"").append(le).append('"');
+      }
+      out.append('}');
+    }
+    out.append(' ').append(formatValue(value)).append('\n');
+  }
+
+  private static String escapeLabelValue(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private static String formatValue(double value) {
+    if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+}
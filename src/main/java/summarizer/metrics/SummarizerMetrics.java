@@ -0,0 +1,182 @@
+package summarizer.metrics;
+
+import summarizer.application.SummaryCache;
+import summarizer.integration.GitHubApiClient;
+import summarizer.integration.GitHubRateLimiter;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * The metrics of the service, one instance shared by all components on a node, scraped from {@code /metrics}.
+ * <p>
+ * Series are labelled with the repository owner, not the repository, to keep the number of series bounded while
+ * still making it possible to find slow or failing owners. Token counts are estimates, see
+ * {@link summarizer.domain.TokenEstimate}, multiply the sums with the model price per token for an estimated cost.
+ */
+public final class SummarizerMetrics {
+
+  public static final String SOURCE_POLL = "poll";
+  public static final String SOURCE_WEBHOOK = "webhook";
+  public static final String OUTCOME_SUCCESS = "success";
+  public static final String OUTCOME_ERROR = "error";
+
+  private static final double[] HTTP_SECONDS = {0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+  private static final double[] ENTITY_SECONDS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 5};
+  private static final double[] LLM_SECONDS = {1, 2.5, 5, 10, 20, 30, 60, 120, 300, 600};
+  private static final double[] TOKENS = {250, 500, 1000, 2000, 4000, 8000, 16000, 32000, 64000, 128000};
+  private static final double[] TOOL_CALLS = {0, 1, 2, 3, 5, 8, 13, 20};
+
+  private final MetricsRegistry registry = new MetricsRegistry();
+
+  private final MetricsRegistry.Histogram gitHubRequestDuration = registry.histogram("github_request_duration_seconds",
+      "Time for GitHub API requests, including waiting for rate limit quota", HTTP_SECONDS, "endpoint", "owner");
+  private final MetricsRegistry.Counter gitHubResponses = registry.counter("github_responses",
+      "GitHub API responses by status code", "endpoint", "status", "owner");
+  private final MetricsRegistry.Histogram entityCallDuration = registry.histogram("summarizer_entity_call_duration_seconds",
+      "Time for reads and writes of entities", ENTITY_SECONDS, "entity", "operation");
+  private final MetricsRegistry.Histogram llmSessionDuration = registry.histogram("summarizer_llm_session_duration_seconds",
+      "End to end time for summarizing a release, including tool calls and chunked summarization", LLM_SECONDS, "owner", "outcome");
+  private final MetricsRegistry.Histogram issueDetailsToolDuration = registry.histogram("summarizer_issue_details_tool_duration_seconds",
+      "Time for getIssueDetails tool calls made by the model", HTTP_SECONDS, "owner", "outcome");
+  private final MetricsRegistry.Histogram issueDetailsToolCalls = registry.histogram("summarizer_issue_details_tool_calls_per_summary",
+      "Number of getIssueDetails tool calls made by the model for one summary", TOOL_CALLS, "owner");
+  private final MetricsRegistry.Histogram modelDuration = registry.histogram("summarizer_model_duration_seconds",
+      "Time for the model to create a summary, including tool calls, by model tier", LLM_SECONDS, "owner", "tier");
+  private final MetricsRegistry.Histogram inputTokens = registry.histogram("summarizer_summary_input_tokens",
+      "Estimated input tokens per summary, system and user message, by model tier", TOKENS, "owner", "tier");
+  private final MetricsRegistry.Histogram outputTokens = registry.histogram("summarizer_summary_output_tokens",
+      "Estimated output tokens per summary, by model tier", TOKENS, "owner", "tier");
+  private final MetricsRegistry.Counter newReleasesDetected = registry.counter("summarizer_new_releases_detected",
+      "New releases found, queued for summarization", "owner", "source");
+  private final MetricsRegistry.Counter summaryDeliveries = registry.counter("summarizer_summary_deliveries",
+      "Summary delivery attempts to sinks by outcome", "sink", "outcome");
+  private final MetricsRegistry.Counter errors = registry.counter("summarizer_errors",
+      "Errors by stage and exception type", "stage", "type", "owner");
+
+  public void gitHubResponse(String endpoint, String owner, int status, long startNanos) {
+    gitHubRequestDuration.observeSince(startNanos, endpoint, owner);
+    gitHubResponses.increment(endpoint, Integer.toString(status), owner);
+  }
+
+  public <T> T entityCall(String entity, String operation, Supplier<T> call) {
+    var start = System.nanoTime();
+    try {
+      return call.get();
+    } finally {
+      entityCallDuration.observeSince(start, entity, operation);
+    }
+  }
+
+  public void llmSession(String owner, String outcome, long startNanos) {
+    llmSessionDuration.observeSince(startNanos, owner, outcome);
+  }
+
+  public void issueDetailsToolCall(String owner, String outcome, long startNanos) {
+    issueDetailsToolDuration.observeSince(startNanos, owner, outcome);
+  }
+
+  public void summaryCompleted(String owner, String tier, long startNanos, int estimatedInputTokens, int estimatedOutputTokens,
+                               int toolCalls) {
+    modelDuration.observeSince(startNanos, owner, tier);
+    inputTokens.observe(estimatedInputTokens, owner, tier);
+    outputTokens.observe(estimatedOutputTokens, owner, tier);
+    issueDetailsToolCalls.observe(toolCalls, owner);
+  }
+
+  /**
+   * For a streamed summary, with the model time measured by the client of the stream. The tool calls for one summary
+   * are not known then, each of them is still in the tool call metrics.
+   */
+  public void streamedSummaryCompleted(String owner, String tier, Duration modelTime, int estimatedInputTokens,
+                                       int estimatedOutputTokens) {
+    modelDuration.observe(modelTime.toNanos() / 1_000_000_000.0, owner, tier);
+    inputTokens.observe(estimatedInputTokens, owner, tier);
+    outputTokens.observe(estimatedOutputTokens, owner, tier);
+  }
+
+  public void newReleasesDetected(String owner, String source, int count) {
+    newReleasesDetected.add(count, owner, source);
+  }
+
+  public void summariesDelivered(String sink, int delivered, int failed) {
+    if (delivered > 0) summaryDeliveries.add(delivered, sink, OUTCOME_SUCCESS);
+    if (failed > 0) summaryDeliveries.add(failed, sink, OUTCOME_ERROR);
+  }
+
+  public void error(String stage, String owner, Throwable error) {
+    errors.increment(stage, error.getClass().getSimpleName(), owner);
+  }
+
+  /**
+   * Expose the statistics the GitHub API client and summary cache already keep track of, and JVM memory usage
+   */
+  public void registerNodeStats(GitHubApiClient gitHubApiClient, SummaryCache summaryCache) {
+    registry.counter("github_conditional_request_cache_hits", "Latest release polls sent with validators",
+        () -> gitHubApiClient.conditionalRequestStats().hits());
+    registry.counter("github_conditional_request_cache_misses", "Latest release polls sent without validators",
+        () -> gitHubApiClient.conditionalRequestStats().misses());
+    registry.counter("github_conditional_request_not_modified", "Latest release polls answered with 304 Not Modified",
+        () -> gitHubApiClient.conditionalRequestStats().notModified());
+    registry.gauge("github_conditional_request_cache_entries", "Repositories with validators for conditional requests",
+        () -> gitHubApiClient.conditionalRequestStats().size());
+
+    var tokenLabels = List.of("token", "resource");
+    registry.gauge("github_rate_limit_remaining", "Last known remaining GitHub API requests per token and resource, -1 if not known yet",
+        tokenLabels, () -> perToken(gitHubApiClient, GitHubRateLimiter.TokenStats::remaining));
+    registry.gauge("github_rate_limit_queue_depth", "Requests currently waiting for GitHub API quota per token and resource",
+        tokenLabels, () -> perToken(gitHubApiClient, GitHubRateLimiter.TokenStats::queueDepth));
+    registry.counter("github_rate_limit_throttled", "Requests held back waiting for GitHub API quota per token and resource",
+        tokenLabels, () -> perToken(gitHubApiClient, GitHubRateLimiter.TokenStats::throttled));
+    registry.counter("github_rate_limit_deferred", "Release checks rescheduled for lack of GitHub API quota per token and resource",
+        tokenLabels, () -> perToken(gitHubApiClient, GitHubRateLimiter.TokenStats::deferred));
+
+    registry.counter("github_issue_cache_hits", "Issue lookups served from the cache",
+        () -> gitHubApiClient.issueDetailsCacheStats().hits());
+    registry.counter("github_issue_cache_misses", "Issue lookups fetched from GitHub",
+        () -> gitHubApiClient.issueDetailsCacheStats().misses());
+    registry.counter("github_issue_cache_collapsed", "Issue lookups that waited for the same lookup already in flight",
+        () -> gitHubApiClient.issueDetailsCacheStats().collapsed());
+    registry.counter("github_issue_cache_evictions", "Issues evicted from the cache",
+        () -> gitHubApiClient.issueDetailsCacheStats().evictions());
+    registry.gauge("github_issue_cache_estimated_bytes", "Estimated memory used by cached issues",
+        () -> gitHubApiClient.issueDetailsCacheStats().estimatedBytes());
+
+    var memory = ManagementFactory.getMemoryMXBean();
+    var areaLabel = List.of("area");
+    registry.gauge("jvm_memory_used_bytes", "Used JVM memory", areaLabel, () -> Map.of(
+        List.of("heap"), memory.getHeapMemoryUsage().getUsed(),
+        List.of("nonheap"), memory.getNonHeapMemoryUsage().getUsed()));
+    registry.gauge("jvm_memory_committed_bytes", "Committed JVM memory", areaLabel, () -> Map.of(
+        List.of("heap"), memory.getHeapMemoryUsage().getCommitted(),
+        List.of("nonheap"), memory.getNonHeapMemoryUsage().getCommitted()));
+    registry.gauge("jvm_memory_max_bytes", "Max JVM heap, -1 if not limited", () -> memory.getHeapMemoryUsage().getMax());
+
+    registry.counter("summarizer_summary_cache_hits", "Summaries served from the summary cache",
+        () -> summaryCache.stats().hits());
+    registry.counter("summarizer_summary_cache_misses", "Summaries not found in the summary cache",
+        () -> summaryCache.stats().misses());
+    registry.counter("summarizer_summary_cache_estimated_tokens_saved", "Estimated tokens not spent thanks to the summary cache",
+        () -> summaryCache.stats().estimatedTokensSaved());
+  }
+
+  private static Map<List<String>, Long> perToken(GitHubApiClient gitHubApiClient, ToLongFunction<GitHubRateLimiter.TokenStats> stat) {
+    var values = new LinkedHashMap<List<String>, Long>();
+    for (var tokenStats : gitHubApiClient.rateLimitStats()) {
+      values.put(List.of(tokenStats.token(), tokenStats.resource()), stat.applyAsLong(tokenStats));
+    }
+    return values;
+  }
+
+  /**
+   * @return all metrics in the Prometheus text exposition format
+   */
+  public String scrape() {
+    return registry.scrape();
+  }
+}
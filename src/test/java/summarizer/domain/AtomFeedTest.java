@@ -0,0 +1,94 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AtomFeedTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00.123Z");
+  private static final RepositoryIdentifier REPOSITORY = new RepositoryIdentifier("akka", "akka-sdk");
+
+  private static AtomFeed.Entry entry(long gitHubReleaseId, Instant created, String summaryText) {
+    return AtomFeed.entryFor(REPOSITORY,
+        new ReleaseSummary("v1.0." + gitHubReleaseId, gitHubReleaseId, created, summaryText, Optional.empty()));
+  }
+
+  private static Document parse(AtomFeed feed) throws Exception {
+    var factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory.newDocumentBuilder().parse(new ByteArrayInputStream(feed.render().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<String> texts(Document document, String tagName) {
+    var nodes = document.getElementsByTagNameNS("http://www.w3.org/2005/Atom", tagName);
+    var texts = new ArrayList<String>();
+    for (int i = 0; i < nodes.getLength(); i++) texts.add(nodes.item(i).getTextContent());
+    return texts;
+  }
+
+  @Test
+  public void renderAnEmptyFeed() throws Exception {
+    var document = parse(AtomFeed.emptyFor(REPOSITORY));
+
+    assertEquals("urn:changelog-summarizer:summaries:akka/akka-sdk", texts(document, "id").getFirst());
+    assertEquals(List.of("Release summaries for akka/akka-sdk"), texts(document, "title"));
+    assertEquals(List.of("1970-01-01T00:00:00Z"), texts(document, "updated"));
+    assertEquals(0, document.getElementsByTagNameNS("http://www.w3.org/2005/Atom", "entry").getLength());
+  }
+
+  @Test
+  public void escapeMarkupAndDropCharactersNotAllowedInXml() throws Exception {
+    var summaryText = "## Features 🚀\n* <script>alert(\"x\")</script> & more\u0000\u0007\n\t* done";
+    var feed = AtomFeed.emptyGlobal().add(entry(1, NOW, summaryText), 10);
+
+    assertTrue(feed.render().contains("&lt;script&gt;alert(&quot;x&quot;)&lt;/script&gt; &amp; more"), feed.render());
+    var document = parse(feed);
+    assertEquals(List.of("## Features 🚀\n* <script>alert(\"x\")</script> & more\n\t* done"),
+        texts(document, "content"));
+  }
+
+  @Test
+  public void keepTheNewestEntriesFirst() throws Exception {
+    var feed = AtomFeed.emptyGlobal()
+        .add(entry(1, NOW.minusSeconds(60), "first"), 2)
+        .add(entry(3, NOW, "third"), 2)
+        .add(entry(2, NOW.minusSeconds(30), "second"), 2);
+
+    assertEquals(List.of("third", "second"), feed.entries().stream().map(AtomFeed.Entry::summary).toList());
+    var document = parse(feed);
+    assertEquals(List.of("third", "second"), texts(document, "content"));
+    // feed updated at the newest entry, in whole seconds
+    assertEquals("2025-06-01T12:00:00Z", texts(document, "updated").getFirst());
+  }
+
+  @Test
+  public void dropAnOlderEntryThanAllInAFullFeed() {
+    var full = AtomFeed.emptyGlobal()
+        .add(entry(2, NOW, "second"), 1);
+    var withOlder = full.add(entry(1, NOW.minusSeconds(60), "first"), 1);
+
+    assertEquals(List.of("second"), withOlder.entries().stream().map(AtomFeed.Entry::summary).toList());
+  }
+
+  @Test
+  public void renderAgainOnlyForNewEntries() {
+    var feed = AtomFeed.emptyGlobal().add(entry(1, NOW, "first"), 10);
+
+    assertEquals(1, feed.version());
+    assertSame(feed, feed.add(entry(1, NOW, "first"), 10));
+    assertEquals(2, feed.add(entry(2, NOW, "second"), 10).version());
+  }
+}
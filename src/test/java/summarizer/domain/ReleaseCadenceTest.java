@@ -0,0 +1,105 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReleaseCadenceTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+  private static final ReleaseCadence.Schedule SCHEDULE = new ReleaseCadence.Schedule(
+      Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofDays(7), Duration.ofDays(30), 0);
+  private static final RandomGenerator RANDOM = new SplittableRandom(1);
+
+  /**
+   * @param sinceLast time from the latest release to now
+   */
+  private static ReleaseCadence releasedEvery(Duration interval, int releases, Duration sinceLast) {
+    var cadence = ReleaseCadence.empty();
+    var last = NOW.minus(sinceLast);
+    for (int i = releases - 1; i >= 0; i--) {
+      cadence = cadence.withRelease(last.minus(interval.multipliedBy(i)));
+    }
+    return cadence;
+  }
+
+  @Test
+  public void checkAtTheDefaultIntervalWithoutReleases() {
+    assertEquals(Duration.ofHours(1), ReleaseCadence.empty().nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void checkAFewTimesBeforeTheNextReleaseIsDue() {
+    var cadence = releasedEvery(Duration.ofDays(1), 5, Duration.ofHours(1));
+
+    // a quarter of the typical interval, until the window where the release is expected
+    assertEquals(Duration.ofHours(6), cadence.nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void checkOftenWhileTheNextReleaseIsDue() {
+    var cadence = releasedEvery(Duration.ofDays(1), 5, Duration.ofHours(20));
+
+    assertEquals(Duration.ofHours(1), cadence.nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void backOffExponentiallyWhenOverdue() {
+    var cadence = releasedEvery(Duration.ofDays(1), 5, Duration.ofDays(10));
+
+    // 8 days past twice the typical interval, 4 doublings of the due interval
+    assertEquals(Duration.ofHours(16), cadence.nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void neverCheckLessOftenThanTheMaxInterval() {
+    var dormant = releasedEvery(Duration.ofDays(7), 5, Duration.ofDays(730));
+
+    assertEquals(Duration.ofDays(7), dormant.nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void neverCheckMoreOftenThanTheMinInterval() {
+    var hourly = releasedEvery(Duration.ofHours(1), 8, Duration.ofMinutes(50));
+
+    assertEquals(Duration.ofMinutes(5), hourly.nextCheckDelay(NOW, SCHEDULE, RANDOM));
+  }
+
+  @Test
+  public void typicalIntervalIsTheMedianGap() {
+    var cadence = ReleaseCadence.empty()
+        .withRelease(NOW.minus(Duration.ofDays(30)))
+        .withRelease(NOW.minus(Duration.ofDays(20)))
+        .withRelease(NOW.minus(Duration.ofDays(18)))
+        .withRelease(NOW.minus(Duration.ofDays(16)));
+
+    assertEquals(Duration.ofDays(2), cadence.typicalInterval());
+  }
+
+  @Test
+  public void keepOnlyTheMostRecentDistinctReleases() {
+    var cadence = releasedEvery(Duration.ofDays(1), 12, Duration.ZERO);
+    var withDuplicate = cadence.withRelease(NOW);
+
+    assertEquals(8, cadence.recentPublishTimes().size());
+    assertEquals(NOW, cadence.recentPublishTimes().getLast());
+    assertEquals(NOW.minus(Duration.ofDays(7)), cadence.recentPublishTimes().getFirst());
+    assertEquals(cadence, withDuplicate);
+  }
+
+  @Test
+  public void jitterStaysWithinTheConfiguredFraction() {
+    var schedule = new ReleaseCadence.Schedule(Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofDays(7), Duration.ofDays(30), 0.1);
+    var random = new SplittableRandom(42);
+    for (int i = 0; i < 1000; i++) {
+      var delay = ReleaseCadence.empty().nextCheckDelay(NOW, schedule, random);
+      assertTrue(delay.compareTo(Duration.ofMinutes(54)) >= 0 && delay.compareTo(Duration.ofMinutes(66)) <= 0, delay.toString());
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReleaseDeltaTest {
+
+  private static ReleaseSummary summary(String version, long gitHubReleaseId) {
+    return new ReleaseSummary(version, gitHubReleaseId, Instant.EPOCH, "Summary of " + version, Optional.empty());
+  }
+
+  @Test
+  public void findTheVersionLineOfReleaseNames() {
+    assertEquals(Optional.of("2.10"), ReleaseDelta.versionLine("v2.10.1"));
+    assertEquals(Optional.of("2.10"), ReleaseDelta.versionLine("Akka 2.10.0-RC1"));
+    assertEquals(Optional.of("1.0"), ReleaseDelta.versionLine("1.0"));
+    assertEquals(Optional.empty(), ReleaseDelta.versionLine("Spring release"));
+    assertEquals(Optional.empty(), ReleaseDelta.versionLine(null));
+  }
+
+  @Test
+  public void relateToTheMostRecentEarlierReleaseOfTheSameVersionLine() {
+    // newest first
+    var summaries = List.of(summary("v2.11.0", 40), summary("v2.10.2", 30), summary("v2.10.1", 20), summary("v2.10.0", 10));
+
+    assertEquals(Optional.of(summaries.get(1)), ReleaseDelta.relatedSummary("v2.10.3", 50, summaries));
+    // only releases before the new one
+    assertEquals(Optional.of(summaries.get(2)), ReleaseDelta.relatedSummary("v2.10.2", 30, summaries));
+    assertEquals(Optional.empty(), ReleaseDelta.relatedSummary("v3.0.0", 50, summaries));
+    assertEquals(Optional.empty(), ReleaseDelta.relatedSummary("nightly", 50, summaries));
+  }
+
+  @Test
+  public void findAddedAndRemovedItemsIgnoringListMarkersAndWhitespace() {
+    var previous = """
+        ## Features
+        * Streaming responses #12
+        * Faster  startup #13
+
+        ## Bug fixes
+        - Fix retries #14
+        """;
+    var current = """
+        ## Features
+        - Streaming responses #12
+        * Faster startup #13
+        * Webhooks #15
+
+        ## Bug fixes
+        1. Fix timeouts #16
+        """;
+
+    var delta = ReleaseDelta.between(previous, current);
+
+    assertEquals(List.of("## Features", "* Webhooks #15", "## Bug fixes", "1. Fix timeouts #16"), delta.addedItems());
+    assertEquals(List.of("- Fix retries #14"), delta.removedItems());
+    assertEquals(2, delta.sharedItems());
+    assertEquals(4, delta.items());
+    assertEquals(0.5, delta.sharedRatio());
+    assertFalse(delta.unchanged());
+  }
+
+  @Test
+  public void onlyRepeatTheHeadingWhenItChanges() {
+    var delta = ReleaseDelta.between("## Features\n* A", "## Features\n* A\n* B\n* C");
+    assertEquals(List.of("## Features", "* B", "* C"), delta.addedItems());
+  }
+
+  @Test
+  public void unchangedWhenOnlyHeadingsAndFormattingDiffer() {
+    var delta = ReleaseDelta.between("## Changes\n* A\n* B", "### What's changed\n- A\n\n- B");
+    assertTrue(delta.unchanged());
+    assertEquals(1.0, delta.sharedRatio());
+  }
+
+  @Test
+  public void nothingSharedWithEmptyReleaseNotes() {
+    var delta = ReleaseDelta.between(null, "");
+    assertTrue(delta.unchanged());
+    assertEquals(0, delta.sharedRatio());
+  }
+
+  @Test
+  public void writeTheChangesAsMarkdown() {
+    var delta = ReleaseDelta.between("* A\n* B", "* A\n* C");
+    assertEquals("Added or changed:\n\n* C\n\nRemoved:\n\n* B\n", delta.asMarkdown());
+    assertEquals("Added or changed:\n\n* B\n", ReleaseDelta.between("* A", "* A\n* B").asMarkdown());
+  }
+}
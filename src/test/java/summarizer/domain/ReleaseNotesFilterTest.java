@@ -0,0 +1,121 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReleaseNotesFilterTest {
+
+  private static ReleaseNotesFilter.Rules rules(int maxInputTokens) {
+    return new ReleaseNotesFilter.Rules(
+        List.of(
+            Pattern.compile("^\\s*[-*+]\\s+(ci|build)(\\([^)]*\\))?!?:"),
+            Pattern.compile("^\\*\\*Full Changelog\\*\\*")),
+        Set.of("New Contributors"),
+        Set.of("dependabot[bot]", "scala-steward"),
+        Pattern.compile("(?i)^(bump|update|upgrade)s?\\s+\\S+\\s+from\\s+\\S+\\s+to\\s+\\S+"),
+        maxInputTokens);
+  }
+
+  private static final ReleaseNotesFilter FILTER = new ReleaseNotesFilter(rules(50000));
+
+  private static String filtered(String... lines) {
+    return FILTER.apply(String.join("\n", lines)).releaseNotes();
+  }
+
+  @Test
+  public void keepNotesWithoutAnythingToDrop() {
+    var notes = "## Features\n\n* Support for streaming responses by @alice in #12\n* Faster startup by @bob in #13";
+    assertEquals(notes, FILTER.apply(notes).releaseNotes());
+  }
+
+  @Test
+  public void returnNothingForBlankNotes() {
+    assertEquals(new ReleaseNotesFilter.Filtered("", 0, 0), FILTER.apply(null));
+    assertEquals(new ReleaseNotesFilter.Filtered("", 0, 0), FILTER.apply("  \n "));
+  }
+
+  @Test
+  public void dropLinesMatchingThePatterns() {
+    assertEquals(
+        "## Changes\n* Fix retries by @alice",
+        filtered(
+            "## Changes",
+            "* ci: run tests on java 21 by @alice",
+            "* build(deps): use the new plugin by @bob",
+            "* Fix retries by @alice",
+            "",
+            "**Full Changelog**: https://github.com/example/repo/compare/v1.0.0...v1.1.0"));
+  }
+
+  @Test
+  public void dropSectionsIncludingTheirSubsections() {
+    assertEquals(
+        "## Changes\n* Fix retries\n\n## Docs\n* New guide",
+        filtered(
+            "## Changes",
+            "* Fix retries",
+            "",
+            "## new contributors",
+            "* @carol made their first contribution",
+            "### Thanks",
+            "* everyone",
+            "",
+            "## Docs",
+            "* New guide"));
+  }
+
+  @Test
+  public void collapseDependencyBumpsIntoOneListItem() {
+    assertEquals(
+        "## Dependencies\n* Dependency updates: com.example:lib 1.2.3 → 1.2.4, jackson 2.17.0 → 2.17.1, Update scalafmt",
+        filtered(
+            "## Dependencies",
+            "* Bump com.example:lib from 1.2.3 to 1.2.4 by @dependabot[bot] in https://github.com/example/repo/pull/1",
+            "* Update `jackson` from `2.17.0` to `2.17.1` in https://github.com/example/repo/pull/2",
+            "* Update scalafmt by @scala-steward in https://github.com/example/repo/pull/3"));
+  }
+
+  @Test
+  public void collapseBumpsPerSection() {
+    assertEquals(
+        "## Main\n* Dependency updates: a 1 → 2\n\n## Tests\n* Dependency updates: b 3 → 4",
+        filtered(
+            "## Main",
+            "* Bump a from 1 to 2",
+            "",
+            "## Tests",
+            "* Bump b from 3 to 4"));
+  }
+
+  @Test
+  public void keepDependencyBumpsMentioningACve() {
+    assertEquals(
+        "* Bump netty from 4.1.1 to 4.1.2, fixes CVE-2024-12345\n* Dependency updates: a 1 → 2",
+        filtered(
+            "* Bump netty from 4.1.1 to 4.1.2, fixes CVE-2024-12345",
+            "* Bump a from 1 to 2"));
+  }
+
+  @Test
+  public void cutNotesOverTheBudgetAtALineBoundary() {
+    var filter = new ReleaseNotesFilter(rules(10));
+    var result = filter.apply("* first change in this release\n* second change\n* third change\n* fourth change");
+
+    assertEquals("* first change in this release\n\n(3 more lines of the release notes were left out)", result.releaseNotes());
+    assertEquals(TokenEstimate.of("* first change in this release\n* second change\n* third change\n* fourth change"),
+        result.estimatedTokensBefore());
+    assertEquals(TokenEstimate.of(result.releaseNotes()), result.estimatedTokensAfter());
+  }
+
+  @Test
+  public void estimateFewerTokensAfterFiltering() {
+    var result = FILTER.apply("* Fix retries\n\n## New Contributors\n* @carol made their first contribution in #1");
+    assertTrue(result.estimatedTokensAfter() < result.estimatedTokensBefore());
+  }
+}
@@ -0,0 +1,148 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RepositoryStateTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  private static ReleaseSummary summary(long gitHubReleaseId) {
+    return new ReleaseSummary("v1.0." + gitHubReleaseId, gitHubReleaseId, NOW, "Summary of " + gitHubReleaseId,
+        Optional.of(NOW.minusSeconds(3600 - gitHubReleaseId)));
+  }
+
+  private static RepositoryState created() {
+    return RepositoryState.applyEvent(null, new RepositoryEvent.Created(NOW, Optional.of("token"), Optional.empty()));
+  }
+
+  private static RepositoryState replay(RepositoryEvent... events) {
+    var state = created();
+    for (var event : events) {
+      state = RepositoryState.applyEvent(state, event);
+    }
+    return state;
+  }
+
+  private static List<Long> summarizedReleaseIds(RepositoryState state) {
+    return state.summaries().stream().map(ReleaseSummary::githubReleaseId).toList();
+  }
+
+  @Test
+  public void startWithoutReleases() {
+    var state = created();
+
+    assertEquals(Optional.of("token"), state.gitHubApiToken());
+    assertEquals(Optional.empty(), state.latestSeenRelease());
+    assertFalse(state.hasSeen(1));
+    assertEquals(List.of(), state.summaries());
+    assertFalse(state.webhookEnabled());
+  }
+
+  @Test
+  public void applyEachKindOfEvent() {
+    var state = replay(
+        new RepositoryEvent.SummaryAdded(summary(10)),
+        RepositoryEvent.CompressedSummaryAdded.of(summary(20)),
+        new RepositoryEvent.ReleaseSkipped(30, NOW),
+        new RepositoryEvent.WebhookEnabled(NOW));
+
+    assertEquals(List.of(summary(20), summary(10)), state.summaries());
+    assertEquals(Optional.of(30L), state.latestSeenRelease());
+    assertTrue(state.hasSeen(10) && state.hasSeen(20) && state.hasSeen(30));
+    assertFalse(state.hasSeen(25));
+    assertEquals(3, state.seenReleases().count());
+    assertEquals(2, state.releaseCadence().recentPublishTimes().size());
+    assertTrue(state.webhookEnabled());
+  }
+
+  @Test
+  public void ignoreReleasesSeenBefore() {
+    var state = replay(new RepositoryEvent.SummaryAdded(summary(10)), new RepositoryEvent.ReleaseSkipped(20, NOW));
+
+    // first writer wins, like a retried workflow step adding the same summary again
+    var other = new ReleaseSummary("v1.0.10", 10, NOW, "Other summary", Optional.empty());
+    assertSame(state, state.addSummary(other));
+    assertSame(state, state.addSummary(summary(20)));
+    assertSame(state, state.skipRelease(10));
+  }
+
+  @Test
+  public void keepSummariesNewestReleaseFirstEvenWhenAddedOutOfOrder() {
+    var state = replay(
+        new RepositoryEvent.SummaryAdded(summary(20)),
+        new RepositoryEvent.SummaryAdded(summary(30)),
+        new RepositoryEvent.SummaryAdded(summary(10)));
+
+    assertEquals(List.of(30L, 20L, 10L), summarizedReleaseIds(state));
+    assertEquals(Optional.of(30L), state.latestSeenRelease());
+  }
+
+  @Test
+  public void keepOnlyTheMostRecentSummaries() {
+    var state = created();
+    for (long releaseId = 1; releaseId <= RepositoryState.MAX_SUMMARIES + 5; releaseId++) {
+      state = state.addSummary(summary(releaseId));
+    }
+
+    assertEquals(RepositoryState.MAX_SUMMARIES, state.summaries().size());
+    assertEquals(RepositoryState.MAX_SUMMARIES + 5L, summarizedReleaseIds(state).getFirst());
+    assertEquals(6L, summarizedReleaseIds(state).getLast());
+    // releases without a summary any more are still seen
+    assertTrue(state.hasSeen(1));
+  }
+
+  @Test
+  public void trackABoundedNumberOfSeenReleases() {
+    var state = created();
+    var releases = SeenReleases.MAX_TRACKED + 50;
+    for (long releaseId = 1; releaseId <= releases; releaseId++) {
+      state = releaseId % 2 == 0 ? state.addSummary(summary(releaseId * 10)) : state.skipRelease(releaseId * 10);
+    }
+
+    var seen = state.seenReleases();
+    assertEquals(SeenReleases.MAX_TRACKED, seen.above().size());
+    assertEquals(50L * 10, seen.floor());
+    assertEquals(releases, seen.count());
+    // everything up to the floor counts as seen, above it only the tracked releases
+    assertTrue(state.hasSeen(10) && state.hasSeen(15) && state.hasSeen(500));
+    assertTrue(state.hasSeen(510) && state.hasSeen(releases * 10L));
+    assertFalse(state.hasSeen(505));
+    assertFalse(state.hasSeen(releases * 10L + 10));
+  }
+
+  @Test
+  public void dropTheOldestTrackedReleaseWhenAnOlderOneIsSeen() {
+    var seen = SeenReleases.NONE;
+    for (long releaseId = 2; releaseId <= SeenReleases.MAX_TRACKED + 1; releaseId++) {
+      seen = seen.with(releaseId * 10);
+    }
+    assertEquals(RepositoryState.NO_RELEASE, seen.floor());
+
+    seen = seen.with(15);
+
+    assertEquals(15L, seen.floor());
+    assertEquals(LongStream.rangeClosed(2, SeenReleases.MAX_TRACKED + 1).map(id -> id * 10).boxed().toList(), seen.above());
+    assertSame(seen, seen.with(12));
+  }
+
+  @Test
+  public void compareStatesByValue() {
+    var events = new RepositoryEvent[] {
+        new RepositoryEvent.SummaryAdded(summary(10)),
+        new RepositoryEvent.ReleaseSkipped(20, NOW)
+    };
+
+    assertEquals(replay(events), replay(events));
+    assertEquals(replay(events).hashCode(), replay(events).hashCode());
+  }
+}
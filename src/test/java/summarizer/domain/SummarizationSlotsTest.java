@@ -0,0 +1,127 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SummarizationSlotsTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+  private static final Duration LEASE_TIMEOUT = Duration.ofMinutes(15);
+
+  private static SummarizationSlots applyAll(SummarizationSlots slots, List<SummarizationSlotEvent> events) {
+    for (var event : events) {
+      slots = slots.apply(event);
+    }
+    return slots;
+  }
+
+  private static SummarizationSlots request(SummarizationSlots slots, String workflowId, SummarizationPriority priority, Instant now) {
+    return applyAll(slots, slots.request(workflowId, priority, now, LEASE_TIMEOUT, 2));
+  }
+
+  @Test
+  public void acquireSlotWhileThereIsCapacity() {
+    var slots = SummarizationSlots.empty();
+    var events = slots.request("a", SummarizationPriority.NORMAL, NOW, LEASE_TIMEOUT, 2);
+
+    assertEquals(List.of(new SummarizationSlotEvent.SlotAcquired("a", NOW)), events);
+    assertTrue(applyAll(slots, events).isActive("a"));
+  }
+
+  @Test
+  public void queueRequestsWhenAtCapacity() {
+    var slots = request(request(SummarizationSlots.empty(), "a", SummarizationPriority.NORMAL, NOW), "b", SummarizationPriority.NORMAL, NOW);
+    var events = slots.request("c", SummarizationPriority.NORMAL, NOW, LEASE_TIMEOUT, 2);
+
+    assertEquals(List.of(new SummarizationSlotEvent.SlotRequestQueued("c", SummarizationPriority.NORMAL)), events);
+    var afterRequest = applyAll(slots, events);
+    assertFalse(afterRequest.isActive("c"));
+    assertTrue(afterRequest.isQueued("c"));
+    assertEquals(1, afterRequest.queueDepth());
+  }
+
+  @Test
+  public void ignoreDuplicateRequests() {
+    var slots = request(SummarizationSlots.empty(), "a", SummarizationPriority.NORMAL, NOW);
+
+    assertEquals(List.of(), slots.request("a", SummarizationPriority.NORMAL, NOW, LEASE_TIMEOUT, 2));
+  }
+
+  @Test
+  public void grantReleasedSlotToHighPriorityRequestFirst() {
+    var slots = SummarizationSlots.empty();
+    slots = request(slots, "a", SummarizationPriority.NORMAL, NOW);
+    slots = request(slots, "b", SummarizationPriority.NORMAL, NOW);
+    slots = request(slots, "normal", SummarizationPriority.NORMAL, NOW);
+    slots = request(slots, "high", SummarizationPriority.HIGH, NOW);
+
+    var events = slots.release("a", NOW, 2);
+
+    assertEquals(List.of(
+        new SummarizationSlotEvent.SlotReleased("a"),
+        new SummarizationSlotEvent.SlotGranted("high", NOW)), events);
+    var afterRelease = applyAll(slots, events);
+    assertTrue(afterRelease.isActive("high"));
+    assertTrue(afterRelease.isQueued("normal"));
+  }
+
+  @Test
+  public void releaseOfUnknownWorkflowIsIgnored() {
+    assertEquals(List.of(), SummarizationSlots.empty().release("unknown", NOW, 2));
+  }
+
+  @Test
+  public void expireLeasesHeldPastTheTimeoutAndGrantThemToQueuedRequests() {
+    var slots = SummarizationSlots.empty();
+    slots = request(slots, "stuck", SummarizationPriority.NORMAL, NOW);
+    slots = request(slots, "recent", SummarizationPriority.NORMAL, NOW.plus(Duration.ofMinutes(10)));
+    slots = request(slots, "waiting", SummarizationPriority.NORMAL, NOW.plus(Duration.ofMinutes(10)));
+
+    var later = NOW.plus(LEASE_TIMEOUT).plusSeconds(1);
+    var events = slots.expireLeases(later, LEASE_TIMEOUT, 2);
+
+    assertEquals(List.of(
+        new SummarizationSlotEvent.SlotExpired("stuck"),
+        new SummarizationSlotEvent.SlotGranted("waiting", later)), events);
+    var afterExpiry = applyAll(slots, events);
+    assertFalse(afterExpiry.isActive("stuck"));
+    assertTrue(afterExpiry.isActive("recent"));
+    assertTrue(afterExpiry.isActive("waiting"));
+    assertEquals(0, afterExpiry.queueDepth());
+  }
+
+  @Test
+  public void noExpiryWithinTheLeaseTimeout() {
+    var slots = request(SummarizationSlots.empty(), "a", SummarizationPriority.NORMAL, NOW);
+
+    assertEquals(List.of(), slots.expireLeases(NOW.plus(LEASE_TIMEOUT), LEASE_TIMEOUT, 2));
+  }
+
+  @Test
+  public void tryAcquireOnlyTakesAFreeSlot() {
+    var slots = request(SummarizationSlots.empty(), "a", SummarizationPriority.NORMAL, NOW);
+
+    var events = slots.tryAcquire("chunk", NOW, LEASE_TIMEOUT, 2);
+    assertEquals(List.of(new SummarizationSlotEvent.SlotAcquired("chunk", NOW)), events);
+    var full = applyAll(slots, events);
+
+    assertEquals(List.of(), full.tryAcquire("another-chunk", NOW, LEASE_TIMEOUT, 2));
+    assertEquals(0, full.queueDepth());
+  }
+
+  @Test
+  public void tryAcquireLetsQueuedSummarizationsGoFirst() {
+    var slots = new SummarizationSlots(Map.of("a", NOW), List.of(), List.of("waiting"));
+
+    assertEquals(List.of(new SummarizationSlotEvent.SlotGranted("waiting", NOW)),
+        slots.tryAcquire("chunk", NOW, LEASE_TIMEOUT, 2));
+  }
+}
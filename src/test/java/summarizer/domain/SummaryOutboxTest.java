@@ -0,0 +1,117 @@
+package summarizer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SummaryOutboxTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+  private static final RepositoryIdentifier REPOSITORY = new RepositoryIdentifier("akka", "akka-sdk");
+  private static final SummaryOutbox.Backoff BACKOFF = new SummaryOutbox.Backoff(Duration.ofSeconds(10), Duration.ofMinutes(5));
+  private static final int MAX_ATTEMPTS = 3;
+
+  private static ReleaseSummary summary(long gitHubReleaseId) {
+    return new ReleaseSummary("v1.0." + gitHubReleaseId, gitHubReleaseId, NOW, "Summary", Optional.empty());
+  }
+
+  private static String deliveryId(long gitHubReleaseId) {
+    return SummaryOutbox.deliveryIdFor(REPOSITORY, summary(gitHubReleaseId));
+  }
+
+  @Test
+  public void doubleTheBackoffFromMinToMax() {
+    assertEquals(Duration.ofSeconds(10), BACKOFF.delayAfter(1));
+    assertEquals(Duration.ofSeconds(20), BACKOFF.delayAfter(2));
+    assertEquals(Duration.ofSeconds(40), BACKOFF.delayAfter(3));
+    assertEquals(Duration.ofSeconds(160), BACKOFF.delayAfter(5));
+    assertEquals(Duration.ofMinutes(5), BACKOFF.delayAfter(6));
+    assertEquals(Duration.ofMinutes(5), BACKOFF.delayAfter(1000));
+  }
+
+  @Test
+  public void addedSummariesAreDueRightAwayInOrder() {
+    var outbox = SummaryOutbox.empty()
+        .add(REPOSITORY, summary(1), NOW)
+        .add(REPOSITORY, summary(2), NOW);
+
+    assertEquals(List.of(deliveryId(1), deliveryId(2)),
+        outbox.due(NOW, 10).stream().map(SummaryOutbox.Entry::deliveryId).toList());
+    assertEquals(List.of(deliveryId(1)), outbox.due(NOW, 1).stream().map(SummaryOutbox.Entry::deliveryId).toList());
+    assertEquals(Optional.of(NOW), outbox.nextAttemptAt());
+  }
+
+  @Test
+  public void retryFailedDeliveriesAfterTheBackoff() {
+    var outbox = SummaryOutbox.empty().add(REPOSITORY, summary(1), NOW)
+        .recordAttempt(List.of(), List.of(deliveryId(1)), NOW, BACKOFF, MAX_ATTEMPTS);
+
+    assertEquals(List.of(), outbox.due(NOW, 10));
+    assertEquals(Optional.of(NOW.plusSeconds(10)), outbox.nextAttemptAt());
+    assertEquals(1, outbox.due(NOW.plusSeconds(10), 10).getFirst().attempts());
+
+    var later = NOW.plusSeconds(10);
+    outbox = outbox.recordAttempt(List.of(), List.of(deliveryId(1)), later, BACKOFF, MAX_ATTEMPTS);
+    assertEquals(Optional.of(later.plusSeconds(20)), outbox.nextAttemptAt());
+  }
+
+  @Test
+  public void abandonDeliveriesOutOfAttempts() {
+    var outbox = SummaryOutbox.empty().add(REPOSITORY, summary(1), NOW);
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      outbox = outbox.recordAttempt(List.of(), List.of(deliveryId(1)), NOW, BACKOFF, MAX_ATTEMPTS);
+    }
+
+    assertEquals(List.of(), outbox.pending());
+    assertEquals(Optional.empty(), outbox.nextAttemptAt());
+    assertEquals(1, outbox.abandonedCount());
+    assertEquals(0, outbox.deliveredCount());
+  }
+
+  @Test
+  public void keepEntriesThatWereNotAttempted() {
+    var outbox = SummaryOutbox.empty()
+        .add(REPOSITORY, summary(1), NOW)
+        .add(REPOSITORY, summary(2), NOW)
+        .recordAttempt(List.of(deliveryId(1)), List.of(), NOW, BACKOFF, MAX_ATTEMPTS);
+
+    assertEquals(List.of(deliveryId(2)), outbox.pending().stream().map(SummaryOutbox.Entry::deliveryId).toList());
+    assertEquals(0, outbox.pending().getFirst().attempts());
+    assertEquals(1, outbox.deliveredCount());
+  }
+
+  @Test
+  public void doNotAddASummaryThatIsPendingOrWasDelivered() {
+    var pending = SummaryOutbox.empty().add(REPOSITORY, summary(1), NOW);
+    assertSame(pending, pending.add(REPOSITORY, summary(1), NOW.plusSeconds(1)));
+
+    var delivered = pending.recordAttempt(List.of(deliveryId(1)), List.of(), NOW, BACKOFF, MAX_ATTEMPTS);
+    assertTrue(delivered.contains(deliveryId(1)));
+    assertSame(delivered, delivered.add(REPOSITORY, summary(1), NOW.plusSeconds(1)));
+  }
+
+  @Test
+  public void rememberOnlyTheLatestDeliveredSummaries() {
+    var outbox = SummaryOutbox.empty();
+    var deliveries = SummaryOutbox.MAX_RECENTLY_DELIVERED + 5;
+    for (long id = 1; id <= deliveries; id++) {
+      outbox = outbox.add(REPOSITORY, summary(id), NOW)
+          .recordAttempt(List.of(deliveryId(id)), List.of(), NOW, BACKOFF, MAX_ATTEMPTS);
+    }
+
+    var remembered = outbox;
+    assertEquals(SummaryOutbox.MAX_RECENTLY_DELIVERED, remembered.recentlyDelivered().size());
+    assertEquals(deliveries, remembered.deliveredCount());
+    assertFalse(remembered.contains(deliveryId(5)));
+    assertTrue(IntStream.rangeClosed(6, deliveries).allMatch(id -> remembered.contains(deliveryId(id))));
+  }
+}
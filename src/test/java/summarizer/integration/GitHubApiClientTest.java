@@ -0,0 +1,164 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.util.ByteString;
+import org.junit.jupiter.api.Test;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitHubApiClientTest {
+
+  private static final String LATEST_RELEASE_PATH = "/repos/akka/akka-sdk/releases/latest";
+  private static final long RELEASE_ID = 170000000L;
+  private static final String ETAG = "W/\"0123456789abcdef\"";
+  private static final String LAST_MODIFIED = "Mon, 02 Jun 2025 10:00:00 GMT";
+
+  /**
+   * Answers with the queued responses, in order, and records the conditional request headers of each request
+   */
+  private static final class RestStub implements GitHubApiClient.RestEndpoint {
+    final Queue<GitHubApiClient.RestResponse> responses = new ArrayDeque<>();
+    final List<Map<String, String>> conditionalHeaders = new ArrayList<>();
+
+    @Override
+    public GitHubApiClient.RestResponse get(String path, Map<String, String> queryParameters, List<HttpHeader> headers) {
+      assertEquals(LATEST_RELEASE_PATH, path);
+      var conditional = new HashMap<String, String>();
+      headers.stream().filter(Objects::nonNull)
+          .filter(header -> header.name().equals("If-None-Match") || header.name().equals("If-Modified-Since"))
+          .forEach(header -> conditional.put(header.name(), header.value()));
+      conditionalHeaders.add(conditional);
+      return responses.remove();
+    }
+
+    void respondWithRelease(String... headers) {
+      var response = HttpResponse.create().withStatus(200);
+      for (int i = 0; i < headers.length; i += 2) {
+        response = response.addHeader(RawHeader.create(headers[i], headers[i + 1]));
+      }
+      responses.add(new GitHubApiClient.RestResponse(response, ByteString.fromArray(release())));
+    }
+
+    void respondNotModified() {
+      responses.add(new GitHubApiClient.RestResponse(HttpResponse.create().withStatus(304), ByteString.emptyByteString()));
+    }
+
+    void respondWith(int status) {
+      responses.add(new GitHubApiClient.RestResponse(HttpResponse.create().withStatus(status), ByteString.emptyByteString()));
+    }
+  }
+
+  private static byte[] release() {
+    try (var in = GitHubApiClientTest.class.getResourceAsStream("/github/release.json")) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private final RestStub stub = new RestStub();
+  private final ConditionalRequestCache conditionalRequestCache = new ConditionalRequestCache(10);
+
+  private GitHubApiClient client(Optional<String> apiToken) {
+    return new GitHubApiClient(stub, apiToken, conditionalRequestCache,
+        new GitHubRateLimiter(Optional.empty(), 0, Duration.ofSeconds(1), Duration.ofSeconds(1)),
+        new IssueDetailsCache(10, 1024 * 1024, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+        new SummarizerMetrics(), Optional.empty(), new GitHubJsonParser(400000, 20000));
+  }
+
+  @Test
+  public void storeTheValidatorsOfALatestReleaseAndSendThemOnceItWasSeen() {
+    var client = client(Optional.empty());
+    stub.respondWithRelease("ETag", ETAG, "Last-Modified", LAST_MODIFIED);
+    stub.respondNotModified();
+
+    var release = client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    assertEquals(Optional.of(RELEASE_ID), release.map(GitHubApiClient.ReleaseDetails::id));
+    assertEquals(Map.of(), stub.conditionalHeaders.get(0));
+
+    assertEquals(Optional.empty(), client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID)));
+    assertEquals(Map.of("If-None-Match", ETAG, "If-Modified-Since", LAST_MODIFIED), stub.conditionalHeaders.get(1));
+
+    var stats = conditionalRequestCache.stats();
+    assertEquals(1, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.notModified());
+    assertEquals(1, stats.size());
+  }
+
+  @Test
+  public void notSendTheValidatorsForAReleaseThatWasNotSeen() {
+    var client = client(Optional.empty());
+    stub.respondWithRelease("ETag", ETAG);
+    stub.respondWithRelease("ETag", ETAG);
+    stub.respondWithRelease("ETag", ETAG);
+
+    client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    // the release was fetched but never processed, a 304 would hide it
+    assertTrue(client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID - 1)).isPresent());
+    assertTrue(client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty()).isPresent());
+
+    assertEquals(List.of(Map.of(), Map.of(), Map.of()), stub.conditionalHeaders);
+  }
+
+  @Test
+  public void keepTheValidatorsPerApiToken() {
+    stub.respondWithRelease("ETag", ETAG);
+    stub.respondWithRelease("ETag", "\"other\"");
+    stub.respondNotModified();
+    stub.respondNotModified();
+
+    client(Optional.of("token-1")).getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    client(Optional.of("token-2")).getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    client(Optional.of("token-1")).getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID));
+    client(Optional.of("token-2")).getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID));
+
+    assertEquals(Map.of("If-None-Match", ETAG), stub.conditionalHeaders.get(2));
+    assertEquals(Map.of("If-None-Match", "\"other\""), stub.conditionalHeaders.get(3));
+    assertEquals(2, conditionalRequestCache.stats().size());
+  }
+
+  @Test
+  public void forgetTheValidatorsOnAnUnexpectedResponse() {
+    var client = client(Optional.empty());
+    stub.respondWithRelease("ETag", ETAG);
+    stub.respondWith(500);
+    stub.respondWithRelease("ETag", ETAG);
+
+    client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    assertThrows(RuntimeException.class, () -> client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID)));
+    client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID));
+
+    assertEquals(Map.of(), stub.conditionalHeaders.get(2));
+  }
+
+  @Test
+  public void notStoreAResponseWithoutValidators() {
+    var client = client(Optional.empty());
+    stub.respondWithRelease();
+    stub.respondWithRelease();
+
+    client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.empty());
+    client.getLatestReleaseIfChanged("akka", "akka-sdk", Optional.of(RELEASE_ID));
+
+    assertEquals(Map.of(), stub.conditionalHeaders.get(1));
+    assertEquals(0, conditionalRequestCache.stats().size());
+  }
+}
@@ -0,0 +1,153 @@
+package summarizer.integration;
+
+import akka.javasdk.JsonSupport;
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GitHubJsonParserTest {
+
+  private static final int MAX_RELEASE_BODY_LENGTH = 400000;
+  private static final int MAX_ISSUE_BODY_LENGTH = 20000;
+
+  private final GitHubJsonParser parser = new GitHubJsonParser(MAX_RELEASE_BODY_LENGTH, MAX_ISSUE_BODY_LENGTH);
+
+  /**
+   * The issue record has no JSON property names, the parser reads its fields by their snake_case names
+   */
+  private static final ObjectMapper BINDING = JsonSupport.getObjectMapper().copy()
+      .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+  private static byte[] resource(String name) {
+    try (var in = GitHubJsonParserTest.class.getResourceAsStream("/github/" + name)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static <T> T bind(byte[] json, Class<T> type) throws IOException {
+    return BINDING.readValue(json, type);
+  }
+
+  private static ObjectNode issueWithBody(String body) throws IOException {
+    var issue = (ObjectNode) BINDING.readTree(resource("issue.json"));
+    issue.put("body", body);
+    return issue;
+  }
+
+  /**
+   * What truncating the whole bound value gives
+   */
+  private static String truncated(String text, int maxLength) {
+    if (text.length() <= maxLength) return text;
+    var end = Character.isHighSurrogate(text.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+    return text.substring(0, end) + GitHubJsonParser.TRUNCATED_MARKER;
+  }
+
+  @Test
+  public void parseAReleaseLikeBindingIt() throws IOException {
+    var json = resource("release.json");
+    assertEquals(bind(json, GitHubApiClient.ReleaseDetails.class), parser.release(ByteString.fromArray(json)));
+  }
+
+  @Test
+  public void parseAnIssueLikeBindingIt() throws IOException {
+    var json = resource("issue.json");
+    assertEquals(bind(json, GitHubApiClient.IssueDetails.class), parser.issue(ByteString.fromArray(json)));
+  }
+
+  @Test
+  public void parseAListOfReleasesLikeBindingIt() throws IOException {
+    var release = new String(resource("release.json"), StandardCharsets.UTF_8);
+    var json = ("[" + String.join(",", Collections.nCopies(3, release)) + "]").getBytes(StandardCharsets.UTF_8);
+
+    List<GitHubApiClient.ReleaseDetails> bound = BINDING.readerForListOf(GitHubApiClient.ReleaseDetails.class).readValue(json);
+    assertEquals(bound, parser.releases(ByteString.fromArray(json)));
+    assertEquals(List.of(), parser.releases(ByteString.fromString("[]")));
+  }
+
+  @Test
+  public void parseRepositoriesLikeBindingThem() throws IOException {
+    var json = """
+        [
+          {"id": 1, "name": "akka", "full_name": "akka/akka", "owner": {"login": "akka", "id": 2}, "fork": false,
+           "archived": true, "topics": ["actors", "streams"], "license": null},
+          {"name": "fork", "full_name": "someone/fork", "fork": true, "archived": false, "description": "A \\"fork\\""}
+        ]
+        """.getBytes(StandardCharsets.UTF_8);
+
+    List<GitHubApiClient.RepositoryDetails> bound = BINDING.readerForListOf(GitHubApiClient.RepositoryDetails.class).readValue(json);
+    assertEquals(bound, parser.repositories(ByteString.fromArray(json)));
+  }
+
+  @Test
+  public void keepBodiesUpToTheMaxLength() throws IOException {
+    var body = "a".repeat(MAX_ISSUE_BODY_LENGTH);
+    var json = BINDING.writeValueAsBytes(issueWithBody(body));
+    assertEquals(body, parser.issue(ByteString.fromArray(json)).body());
+  }
+
+  @Test
+  public void truncateLongBodiesLikeTruncatingTheBoundValue() throws IOException {
+    // escapes, characters of two, three and four bytes in UTF-8, and an escaped surrogate pair
+    var line = "* Fix \"quoting\" of C:\\path\t/ é € 🚀 \u0001\n";
+    var body = line.repeat(MAX_ISSUE_BODY_LENGTH / line.length() + 10);
+    var json = BINDING.writeValueAsString(issueWithBody(body)).replace("🚀", "\\ud83d\\ude80").getBytes(StandardCharsets.UTF_8);
+
+    var parsed = parser.issue(ByteString.fromArray(json));
+
+    assertEquals(truncated(bind(json, GitHubApiClient.IssueDetails.class).body(), MAX_ISSUE_BODY_LENGTH), parsed.body());
+  }
+
+  @Test
+  public void truncateAtEveryLengthLikeTruncatingTheBoundValue() throws IOException {
+    var body = "é€🚀\"\\\n ab";
+    var json = BINDING.writeValueAsBytes(issueWithBody(body));
+    var bound = bind(json, GitHubApiClient.IssueDetails.class);
+    for (int maxLength = 1; maxLength <= body.length() + 1; maxLength++) {
+      var parsed = new GitHubJsonParser(MAX_RELEASE_BODY_LENGTH, maxLength).issue(ByteString.fromArray(json));
+      assertEquals(truncated(bound.body(), maxLength), parsed.body(), "max length " + maxLength);
+      // the rest of the issue is still parsed after a truncated body
+      assertEquals(bound.title(), parsed.title());
+    }
+  }
+
+  @Test
+  public void parseAResponseThatIsASliceOfALargerBuffer() throws IOException {
+    var json = BINDING.writeValueAsBytes(issueWithBody("Body of the sliced issue"));
+    var padded = new byte[json.length + 20];
+    System.arraycopy(json, 0, padded, 10, json.length);
+
+    var parsed = parser.issue(ByteString.fromArray(padded).slice(10, 10 + json.length));
+
+    assertEquals(bind(json, GitHubApiClient.IssueDetails.class), parsed);
+  }
+
+  @Test
+  public void readBodiesThatAreNotStringsAsNull() throws IOException {
+    var issue = issueWithBody("");
+    issue.putNull("body");
+    assertNull(parser.issue(ByteString.fromArray(BINDING.writeValueAsBytes(issue))).body());
+    issue.putObject("body").put("unexpected", "object");
+    assertNull(parser.issue(ByteString.fromArray(BINDING.writeValueAsBytes(issue))).body());
+  }
+
+  @Test
+  public void failOnInvalidJson() {
+    assertThrows(RuntimeException.class, () -> parser.issue(ByteString.fromString("{\"body\": \"unterminated")));
+    assertThrows(RuntimeException.class, () -> parser.releases(ByteString.fromString("{\"not\": \"a list\"}")));
+  }
+}
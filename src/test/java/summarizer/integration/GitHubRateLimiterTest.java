@@ -0,0 +1,213 @@
+package summarizer.integration;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.headers.RawHeader;
+import org.junit.jupiter.api.Test;
+import summarizer.integration.GitHubRateLimiter.Priority;
+import summarizer.integration.GitHubRateLimiter.Resource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GitHubRateLimiterTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+  private static final Optional<String> TOKEN = Optional.of("token-1");
+  private static final Duration MAX_LOW_PRIORITY_WAIT = Duration.ofMillis(500);
+  private static final Duration MAX_HIGH_PRIORITY_WAIT = Duration.ofSeconds(1);
+  private static final int HIGH_PRIORITY_RESERVE = 5;
+
+  private static final class TestClock extends Clock {
+    Instant now = NOW;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  private final TestClock clock = new TestClock();
+  private final GitHubRateLimiter rateLimiter = new GitHubRateLimiter(TOKEN, HIGH_PRIORITY_RESERVE,
+      MAX_LOW_PRIORITY_WAIT, MAX_HIGH_PRIORITY_WAIT, clock);
+
+  private GitHubRateLimiter.TokenStats stats() {
+    return rateLimiter.stats().getFirst();
+  }
+
+  @Test
+  public void updateTheQuotaFromTheResponseHeaders() {
+    rateLimiter.update(TOKEN, Resource.CORE, HttpResponse.create()
+        .addHeader(RawHeader.create("X-RateLimit-Limit", "5000"))
+        .addHeader(RawHeader.create("X-RateLimit-Remaining", "4990"))
+        .addHeader(RawHeader.create("X-RateLimit-Reset", Long.toString(NOW.plusSeconds(600).getEpochSecond()))));
+
+    var stats = stats();
+    assertEquals("default", stats.token());
+    assertEquals("core", stats.resource());
+    assertEquals(5000, stats.limit());
+    assertEquals(4990, stats.remaining());
+    assertEquals(Optional.of(NOW.plusSeconds(600)), stats.resetAt());
+
+    // incomplete or invalid headers are ignored
+    rateLimiter.update(TOKEN, Resource.CORE, HttpResponse.create().addHeader(RawHeader.create("X-RateLimit-Remaining", "10")));
+    rateLimiter.update(TOKEN, Resource.CORE, HttpResponse.create()
+        .addHeader(RawHeader.create("X-RateLimit-Remaining", "ten"))
+        .addHeader(RawHeader.create("X-RateLimit-Reset", Long.toString(NOW.getEpochSecond()))));
+    assertEquals(4990, stats().remaining());
+  }
+
+  @Test
+  public void sendRightAwayWhileTheQuotaIsUnknown() {
+    for (int i = 0; i < 10; i++) {
+      assertDoesNotThrow(() -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW));
+    }
+    assertEquals(0, stats().throttled());
+  }
+
+  @Test
+  public void spreadLowPriorityRequestsOverTheRestOfTheWindow() {
+    // 10 requests left for low priority in 100 seconds, one every 10 seconds
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 10 + HIGH_PRIORITY_RESERVE, NOW.plusSeconds(100));
+
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+    var deferred = assertThrows(GitHubRateLimiter.RateLimitedException.class, () -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW));
+    assertEquals(Duration.ofSeconds(10), deferred.retryAfter());
+    assertEquals(1, stats().deferred());
+
+    // high priority requests don't wait for a slot
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.HIGH);
+
+    clock.now = NOW.plusSeconds(10);
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+    assertEquals(10 + HIGH_PRIORITY_RESERVE - 3, stats().remaining());
+  }
+
+  @Test
+  public void holdBackLowPriorityRequestsUntilTheNextSlot() {
+    // 1000 requests left for low priority in 100 seconds, one every 100 milliseconds
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 1000 + HIGH_PRIORITY_RESERVE, NOW.plusSeconds(100));
+
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+
+    assertEquals(1, stats().throttled());
+    assertEquals(100, stats().throttledMillis());
+  }
+
+  @Test
+  public void leaveTheReserveToHighPriorityRequests() {
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), HIGH_PRIORITY_RESERVE, NOW.plusSeconds(60));
+
+    var deferred = assertThrows(GitHubRateLimiter.RateLimitedException.class, () -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW));
+    assertEquals(Duration.ofSeconds(60), deferred.retryAfter());
+
+    for (int i = 0; i < HIGH_PRIORITY_RESERVE; i++) {
+      rateLimiter.acquire(TOKEN, Resource.CORE, Priority.HIGH);
+    }
+    assertEquals(0, stats().remaining());
+    var exhausted = assertThrows(GitHubRateLimiter.RateLimitedException.class, () -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.HIGH));
+    assertEquals(Duration.ofSeconds(60), exhausted.retryAfter());
+  }
+
+  @Test
+  public void startOverOnceTheWindowIsReset() {
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 0, NOW.plusSeconds(60));
+    assertThrows(GitHubRateLimiter.RateLimitedException.class, () -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.HIGH));
+
+    clock.now = NOW.plusSeconds(60);
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+    rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW);
+
+    assertEquals(-1, stats().remaining());
+    assertEquals(Optional.empty(), stats().resetAt());
+  }
+
+  @Test
+  public void reportTheTimeUntilResetOnceExhausted() {
+    assertEquals(Optional.empty(), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 1, NOW.plusSeconds(60));
+    assertEquals(Optional.empty(), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 0, NOW.plusSeconds(60));
+    assertEquals(Optional.of(Duration.ofSeconds(60)), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+
+    // never right away, even when the reset time has passed already
+    clock.now = NOW.plusSeconds(59);
+    assertEquals(Optional.of(GitHubRateLimiter.MIN_RETRY_AFTER), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+    clock.now = NOW.plusSeconds(120);
+    assertEquals(Optional.of(GitHubRateLimiter.MIN_RETRY_AFTER), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+  }
+
+  @Test
+  public void keepTheQuotaPerToken() {
+    rateLimiter.update(TOKEN, Resource.CORE, Optional.empty(), 0, NOW.plusSeconds(60));
+
+    assertDoesNotThrow(() -> rateLimiter.acquire(Optional.of("token-2"), Resource.CORE, Priority.HIGH));
+    assertDoesNotThrow(() -> rateLimiter.acquire(Optional.empty(), Resource.CORE, Priority.HIGH));
+    assertEquals(Optional.empty(), rateLimiter.exhaustedFor(Optional.empty(), Resource.CORE));
+    assertEquals(3, rateLimiter.stats().size());
+  }
+
+  @Test
+  public void keepTheQuotaPerResource() {
+    var reset = Long.toString(NOW.plusSeconds(600).getEpochSecond());
+    rateLimiter.update(TOKEN, Resource.GRAPHQL, HttpResponse.create()
+        .addHeader(RawHeader.create("X-RateLimit-Resource", "graphql"))
+        .addHeader(RawHeader.create("X-RateLimit-Remaining", "0"))
+        .addHeader(RawHeader.create("X-RateLimit-Reset", reset)));
+
+    // an exhausted GraphQL quota does not hold back REST requests with the same token
+    assertEquals(Optional.empty(), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+    assertDoesNotThrow(() -> rateLimiter.acquire(TOKEN, Resource.CORE, Priority.LOW));
+    assertEquals(Optional.of(Duration.ofSeconds(600)), rateLimiter.exhaustedFor(TOKEN, Resource.GRAPHQL));
+    assertThrows(GitHubRateLimiter.RateLimitedException.class, () -> rateLimiter.acquire(TOKEN, Resource.GRAPHQL, Priority.LOW));
+
+    var graphQl = rateLimiter.stats().stream().filter(stats -> stats.resource().equals("graphql")).findFirst().orElseThrow();
+    assertEquals(0, graphQl.remaining());
+    assertEquals(1, graphQl.deferred());
+  }
+
+  @Test
+  public void updateTheResourceNamedInTheResponse() {
+    var reset = Long.toString(NOW.plusSeconds(600).getEpochSecond());
+    rateLimiter.update(TOKEN, Resource.CORE, HttpResponse.create()
+        .addHeader(RawHeader.create("X-RateLimit-Resource", "graphql"))
+        .addHeader(RawHeader.create("X-RateLimit-Remaining", "0"))
+        .addHeader(RawHeader.create("X-RateLimit-Reset", reset)));
+    // resources that are not tracked, like search, are ignored
+    rateLimiter.update(TOKEN, Resource.CORE, HttpResponse.create()
+        .addHeader(RawHeader.create("X-RateLimit-Resource", "search"))
+        .addHeader(RawHeader.create("X-RateLimit-Remaining", "0"))
+        .addHeader(RawHeader.create("X-RateLimit-Reset", reset)));
+
+    assertEquals(Optional.empty(), rateLimiter.exhaustedFor(TOKEN, Resource.CORE));
+    assertEquals(Optional.of(Duration.ofSeconds(600)), rateLimiter.exhaustedFor(TOKEN, Resource.GRAPHQL));
+  }
+
+  @Test
+  public void leaveNoReserveOfGraphQlRequests() {
+    // GraphQL is only used for polling, so all of its quota is spread over the window
+    rateLimiter.update(TOKEN, Resource.GRAPHQL, Optional.empty(), 1, NOW.plusSeconds(60));
+
+    assertDoesNotThrow(() -> rateLimiter.acquire(TOKEN, Resource.GRAPHQL, Priority.LOW));
+  }
+}
@@ -0,0 +1,134 @@
+package summarizer.integration;
+
+import org.junit.jupiter.api.Test;
+import summarizer.domain.RepositoryIdentifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public class GitHubWebhookDeliveryTest {
+
+  private static final String SECRET = "webhook-test-secret";
+  private static final GitHubJsonParser PARSER = new GitHubJsonParser(400000, 20000);
+
+  private static String publishedPayload() {
+    try (var in = GitHubWebhookDeliveryTest.class.getResourceAsStream("/webhook/release-published.json")) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A delivery signed locally, the same way GitHub signs them
+   */
+  private static GitHubWebhookDelivery signedDelivery(String eventType, String payload) {
+    return signedDelivery(PARSER, eventType, payload);
+  }
+
+  private static GitHubWebhookDelivery signedDelivery(GitHubJsonParser parser, String eventType, String payload) {
+    var body = payload.getBytes(StandardCharsets.UTF_8);
+    return GitHubWebhookDelivery.of(SECRET, parser, Optional.of(eventType),
+        Optional.of(GitHubWebhookSignature.signatureFor(SECRET, body)), body);
+  }
+
+  @Test
+  public void acceptPublishedRelease() {
+    var delivery = signedDelivery("release", publishedPayload());
+
+    var published = assertInstanceOf(GitHubWebhookDelivery.PublishedRelease.class, delivery);
+    assertEquals(new RepositoryIdentifier("example-org", "example-lib"), published.repositoryIdentifier());
+    assertEquals(170000000L, published.release().id());
+    assertEquals("v1.42.0", published.release().name());
+  }
+
+  @Test
+  public void normalizeTheRepositoryLikeWhenSettingItUp() {
+    var payload = publishedPayload()
+        .replace("\"login\": \"example-org\"", "\"login\": \"Example-Org\"")
+        .replace("\"name\": \"example-lib\"", "\"name\": \"Example-Lib\"");
+
+    var published = assertInstanceOf(GitHubWebhookDelivery.PublishedRelease.class, signedDelivery("release", payload));
+    assertEquals(RepositoryIdentifier.of("Example-Org", "Example-Lib"), published.repositoryIdentifier());
+    assertEquals(new RepositoryIdentifier("example-org", "example-lib"), published.repositoryIdentifier());
+  }
+
+  @Test
+  public void truncateTheReleaseNotesLikeWhenPolling() {
+    var published = assertInstanceOf(GitHubWebhookDelivery.PublishedRelease.class,
+        signedDelivery(new GitHubJsonParser(20, 20000), "release", publishedPayload()));
+
+    assertEquals("## What's Changed\n* " + GitHubJsonParser.TRUNCATED_MARKER, published.release().body());
+  }
+
+  @Test
+  public void rejectTamperedBody() {
+    var body = publishedPayload().getBytes(StandardCharsets.UTF_8);
+    var signature = GitHubWebhookSignature.signatureFor(SECRET, body);
+    var tampered = publishedPayload().replace("v1.42.0", "v6.6.6").getBytes(StandardCharsets.UTF_8);
+
+    var delivery = GitHubWebhookDelivery.of(SECRET, PARSER, Optional.of("release"), Optional.of(signature), tampered);
+
+    assertInstanceOf(GitHubWebhookDelivery.InvalidSignature.class, delivery);
+  }
+
+  @Test
+  public void rejectWrongSecret() {
+    var body = publishedPayload().getBytes(StandardCharsets.UTF_8);
+    var signature = GitHubWebhookSignature.signatureFor("not-the-webhook-secret", body);
+
+    var delivery = GitHubWebhookDelivery.of(SECRET, PARSER, Optional.of("release"), Optional.of(signature), body);
+
+    assertInstanceOf(GitHubWebhookDelivery.InvalidSignature.class, delivery);
+  }
+
+  @Test
+  public void rejectMissingSignatureHeader() {
+    var delivery = GitHubWebhookDelivery.of(SECRET, PARSER, Optional.of("release"), Optional.empty(),
+        publishedPayload().getBytes(StandardCharsets.UTF_8));
+
+    assertInstanceOf(GitHubWebhookDelivery.InvalidSignature.class, delivery);
+  }
+
+  @Test
+  public void answerPing() {
+    assertInstanceOf(GitHubWebhookDelivery.Ping.class, signedDelivery("ping", "{\"zen\":\"Keep it logically awesome.\"}"));
+  }
+
+  @Test
+  public void ignoreOtherEvents() {
+    assertInstanceOf(GitHubWebhookDelivery.Ignored.class, signedDelivery("push", "{}"));
+  }
+
+  @Test
+  public void ignoreReleaseActionsOtherThanPublished() {
+    for (var action : new String[] {"created", "edited", "deleted", "prereleased", "released", "unpublished"}) {
+      var payload = publishedPayload().replace("\"action\": \"published\"", "\"action\": \"" + action + "\"");
+
+      assertInstanceOf(GitHubWebhookDelivery.Ignored.class, signedDelivery("release", payload), action);
+    }
+  }
+
+  @Test
+  public void ignorePreReleasesAndDrafts() {
+    var preRelease = publishedPayload().replace("\"prerelease\": false", "\"prerelease\": true");
+    var draft = publishedPayload().replace("\"draft\": false", "\"draft\": true");
+
+    assertInstanceOf(GitHubWebhookDelivery.Ignored.class, signedDelivery("release", preRelease));
+    assertInstanceOf(GitHubWebhookDelivery.Ignored.class, signedDelivery("release", draft));
+  }
+
+  @Test
+  public void rejectInvalidPayload() {
+    assertInstanceOf(GitHubWebhookDelivery.InvalidPayload.class, signedDelivery("release", "{\"action\": \"published\""));
+    assertInstanceOf(GitHubWebhookDelivery.InvalidPayload.class, signedDelivery("release", "{\"action\": \"published\"}"));
+    assertInstanceOf(GitHubWebhookDelivery.InvalidPayload.class, signedDelivery("release", "[]"));
+    assertInstanceOf(GitHubWebhookDelivery.InvalidPayload.class,
+        signedDelivery("release", publishedPayload().replace("\"login\": \"example-org\"", "\"login\": null")));
+  }
+}
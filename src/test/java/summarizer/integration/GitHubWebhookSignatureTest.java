@@ -0,0 +1,51 @@
+package summarizer.integration;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitHubWebhookSignatureTest {
+
+  private static final String SECRET = "It's a Secret to Everybody";
+  private static final byte[] BODY = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  public void matchGitHubsExampleSignature() {
+    // example from https://docs.github.com/en/webhooks/using-webhooks/validating-webhook-deliveries
+    var expected = "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17";
+
+    assertEquals(expected, GitHubWebhookSignature.signatureFor(SECRET, BODY));
+    assertTrue(GitHubWebhookSignature.isValid(SECRET, BODY, expected));
+  }
+
+  @Test
+  public void rejectTamperedBody() {
+    var signature = GitHubWebhookSignature.signatureFor(SECRET, BODY);
+
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, "Hello, World?".getBytes(StandardCharsets.UTF_8), signature));
+  }
+
+  @Test
+  public void rejectSignatureWithWrongSecret() {
+    var signature = GitHubWebhookSignature.signatureFor("another secret", BODY);
+
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, BODY, signature));
+  }
+
+  @Test
+  public void rejectMissingOrMalformedHeader() {
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, BODY, null));
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, BODY, ""));
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, BODY, "sha1=757107ea0eb2509fc211221cce984b8a37570b6d"));
+    assertFalse(GitHubWebhookSignature.isValid(SECRET, BODY, "sha256=not-hex"));
+  }
+
+  @Test
+  public void rejectEverythingWithoutSecret() {
+    assertFalse(GitHubWebhookSignature.isValid("", BODY, GitHubWebhookSignature.signatureFor(SECRET, BODY)));
+  }
+}
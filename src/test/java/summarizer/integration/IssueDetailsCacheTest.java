@@ -0,0 +1,251 @@
+package summarizer.integration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IssueDetailsCacheTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+  private static final Optional<String> TOKEN = Optional.of("token-1");
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+  private static final Duration NOT_AVAILABLE_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+  private static final class TestClock extends Clock {
+    volatile Instant now = NOW;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  private final TestClock clock = new TestClock();
+  private final AtomicInteger fetches = new AtomicInteger();
+
+  private IssueDetailsCache cache(int maxEntries, long maxBytes) {
+    return new IssueDetailsCache(maxEntries, maxBytes, TIME_TO_LIVE, NOT_AVAILABLE_TIME_TO_LIVE, clock);
+  }
+
+  private static GitHubApiClient.IssueDetails issue(String number, String body) {
+    return new GitHubApiClient.IssueDetails(Long.parseLong(number), null, null, null, null, null, null,
+        Long.parseLong(number), "open", "Issue " + number, body);
+  }
+
+  private GitHubApiClient.IssueDetails get(IssueDetailsCache cache, String issueNumber) {
+    return cache.get(TOKEN, "akka", "akka-sdk", issueNumber, () -> {
+      fetches.incrementAndGet();
+      return issue(issueNumber, "Body");
+    });
+  }
+
+  @Test
+  public void serveRepeatedLookupsFromTheCache() {
+    var cache = cache(10, 1024 * 1024);
+
+    var fetched = get(cache, "1");
+    assertSame(fetched, get(cache, "1"));
+    // owner and repository are not case sensitive on GitHub
+    assertSame(fetched, cache.get(TOKEN, "Akka", "Akka-SDK", "1", () -> issue("1", "Other")));
+
+    assertEquals(1, fetches.get());
+    var stats = cache.stats();
+    assertEquals(2, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.entries());
+  }
+
+  @Test
+  public void keepEntriesPerApiToken() {
+    var cache = cache(10, 1024 * 1024);
+
+    get(cache, "1");
+    cache.get(Optional.of("token-2"), "akka", "akka-sdk", "1", () -> issue("1", "Body"));
+
+    assertEquals(2, cache.stats().misses());
+  }
+
+  @Test
+  public void evictTheLeastRecentlyUsedEntryBeyondMaxEntries() {
+    var cache = cache(2, 1024 * 1024);
+
+    get(cache, "1");
+    get(cache, "2");
+    get(cache, "1");
+    get(cache, "3");
+    assertEquals(3, fetches.get());
+
+    get(cache, "1");
+    assertEquals(3, fetches.get());
+    get(cache, "2");
+    assertEquals(4, fetches.get());
+    assertEquals(2, cache.stats().entries());
+    assertEquals(2, cache.stats().evictions());
+  }
+
+  @Test
+  public void evictEntriesBeyondMaxBytes() {
+    var cache = cache(10, 2000);
+    var longBody = "x".repeat(300);
+
+    cache.get(TOKEN, "akka", "akka-sdk", "1", () -> issue("1", longBody));
+    cache.get(TOKEN, "akka", "akka-sdk", "2", () -> issue("2", longBody));
+    cache.get(TOKEN, "akka", "akka-sdk", "3", () -> issue("3", longBody));
+
+    var stats = cache.stats();
+    assertEquals(2, stats.entries());
+    assertEquals(1, stats.evictions());
+    assertTrue(stats.estimatedBytes() <= 2000, "estimated bytes " + stats.estimatedBytes());
+  }
+
+  @Test
+  public void keepAnEntryLargerThanMaxBytesUntilTheNextOne() {
+    var cache = cache(10, 100);
+
+    cache.get(TOKEN, "akka", "akka-sdk", "1", () -> issue("1", "Body"));
+    cache.get(TOKEN, "akka", "akka-sdk", "2", () -> issue("2", "Body"));
+
+    assertEquals(1, cache.stats().entries());
+  }
+
+  @Test
+  public void fetchAgainOnceExpired() {
+    var cache = cache(10, 1024 * 1024);
+
+    get(cache, "1");
+    clock.now = NOW.plus(TIME_TO_LIVE);
+    get(cache, "1");
+    assertEquals(1, fetches.get());
+
+    clock.now = NOW.plus(TIME_TO_LIVE).plusSeconds(1);
+    get(cache, "1");
+    assertEquals(2, fetches.get());
+    assertEquals(1, cache.stats().entries());
+  }
+
+  @Test
+  public void cacheIssuesThatAreNotAvailableForTheirOwnTimeToLive() {
+    var cache = cache(10, 1024 * 1024);
+    Supplier<GitHubApiClient.IssueDetails> notFound = () -> {
+      fetches.incrementAndGet();
+      throw new GitHubApiClient.IssueNotAvailableException("Issue 1 was not found");
+    };
+
+    var first = assertThrows(GitHubApiClient.IssueNotAvailableException.class, () -> cache.get(TOKEN, "akka", "akka-sdk", "1", notFound));
+    var cached = assertThrows(GitHubApiClient.IssueNotAvailableException.class, () -> cache.get(TOKEN, "akka", "akka-sdk", "1", notFound));
+    assertEquals(first.getMessage(), cached.getMessage());
+    assertEquals(1, fetches.get());
+
+    clock.now = NOW.plus(NOT_AVAILABLE_TIME_TO_LIVE).plusSeconds(1);
+    assertThrows(GitHubApiClient.IssueNotAvailableException.class, () -> cache.get(TOKEN, "akka", "akka-sdk", "1", notFound));
+    assertEquals(2, fetches.get());
+  }
+
+  @Test
+  public void notCacheOtherFailures() {
+    var cache = cache(10, 1024 * 1024);
+
+    assertThrows(IllegalStateException.class, () -> cache.get(TOKEN, "akka", "akka-sdk", "1", () -> {
+      throw new IllegalStateException("Unexpected response code 500");
+    }));
+    get(cache, "1");
+
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  public void collapseConcurrentLookupsOfTheSameIssue() throws Exception {
+    var cache = cache(10, 1024 * 1024);
+    var fetchStarted = new CountDownLatch(1);
+    var completeFetch = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var first = executor.submit(() -> cache.get(TOKEN, "akka", "akka-sdk", "1", () -> {
+        fetchStarted.countDown();
+        await(completeFetch);
+        fetches.incrementAndGet();
+        return issue("1", "Body");
+      }));
+      assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+      var collapsed = executor.submit(() -> get(cache, "1"));
+      awaitCollapsed(cache, 1);
+      completeFetch.countDown();
+
+      assertSame(first.get(5, TimeUnit.SECONDS), collapsed.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, fetches.get());
+    assertEquals(1, cache.stats().misses());
+  }
+
+  @Test
+  public void passErrorsOnToCollapsedLookups() throws Exception {
+    var cache = cache(10, 1024 * 1024);
+    var fetchStarted = new CountDownLatch(1);
+    var completeFetch = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<GitHubApiClient.IssueDetails> first = executor.submit(() -> cache.get(TOKEN, "akka", "akka-sdk", "1", () -> {
+        fetchStarted.countDown();
+        await(completeFetch);
+        throw new StackOverflowError("fetching issue");
+      }));
+      assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+      var collapsed = executor.submit(() -> get(cache, "1"));
+      awaitCollapsed(cache, 1);
+      completeFetch.countDown();
+
+      var firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(StackOverflowError.class, firstFailure.getCause());
+      var collapsedFailure = assertThrows(ExecutionException.class, () -> collapsed.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(StackOverflowError.class, collapsedFailure.getCause());
+    }
+
+    // no longer in flight, the next lookup fetches again
+    get(cache, "1");
+    assertEquals(1, fetches.get());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void awaitCollapsed(IssueDetailsCache cache, long collapsed) throws InterruptedException {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.stats().collapsed() < collapsed) {
+      if (System.nanoTime() > deadline) throw new AssertionError("Lookup was not collapsed");
+      Thread.sleep(5);
+    }
+  }
+}
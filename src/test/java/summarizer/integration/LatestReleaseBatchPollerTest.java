@@ -0,0 +1,209 @@
+package summarizer.integration;
+
+import akka.javasdk.JsonSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import summarizer.metrics.SummarizerMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatestReleaseBatchPollerTest {
+
+  private static final String TOKEN = "token-1";
+  private static final Duration LONG_WAIT = Duration.ofSeconds(30);
+
+  /**
+   * Answers the aliased {@code repository} fields of the queries like the GitHub GraphQL API: a repository without
+   * releases has a null {@code latestRelease}, an unknown repository a null field and an entry in {@code errors}
+   */
+  private static final class GraphQlStub implements LatestReleaseBatchPoller.GraphQlEndpoint {
+    private static final Pattern REPOSITORY = Pattern.compile("(\\w+): repository\\(owner: \\$(\\w+), name: \\$(\\w+)\\)");
+
+    final Map<String, Optional<Long>> latestReleases = new HashMap<>();
+    // repositories looked up per request, in order
+    final List<List<String>> requests = new CopyOnWriteArrayList<>();
+    final List<String> tokens = new CopyOnWriteArrayList<>();
+    volatile int status = 200;
+    volatile Runnable beforeResponding = () -> {};
+
+    @Override
+    public LatestReleaseBatchPoller.GraphQlResponse post(String apiToken, Map<String, Object> request) {
+      tokens.add(apiToken);
+      var mapper = JsonSupport.getObjectMapper();
+      JsonNode json;
+      try {
+        json = mapper.readTree(mapper.writeValueAsBytes(request));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      var response = mapper.createObjectNode();
+      var data = response.putObject("data");
+      var errors = mapper.createArrayNode();
+      var repositories = new ArrayList<String>();
+      var repository = REPOSITORY.matcher(json.path("query").asText());
+      while (repository.find()) {
+        var fullName = json.path("variables").path(repository.group(2)).asText() + "/" +
+            json.path("variables").path(repository.group(3)).asText();
+        repositories.add(fullName);
+        var latestRelease = latestReleases.get(fullName);
+        if (latestRelease == null) {
+          data.putNull(repository.group(1));
+          errors.addObject().put("type", "NOT_FOUND").put("message", "Could not resolve to a Repository " + fullName)
+              .putArray("path").add(repository.group(1));
+        } else if (latestRelease.isEmpty()) {
+          data.putObject(repository.group(1)).putNull("latestRelease");
+        } else {
+          data.putObject(repository.group(1)).putObject("latestRelease").put("databaseId", latestRelease.get());
+        }
+      }
+      if (!errors.isEmpty()) response.set("errors", errors);
+      requests.add(repositories);
+      beforeResponding.run();
+      var body = status == 200 ? response.toString() : "{\"message\":\"Server Error\"}";
+      return new LatestReleaseBatchPoller.GraphQlResponse(status, body.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private final GraphQlStub stub = new GraphQlStub();
+  private final GitHubRateLimiter rateLimiter =
+      new GitHubRateLimiter(Optional.empty(), 0, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+  private LatestReleaseBatchPoller poller(int maxBatchSize, Duration maxWait) {
+    return new LatestReleaseBatchPoller(stub, rateLimiter, new SummarizerMetrics(), maxBatchSize, maxWait);
+  }
+
+  /**
+   * Lookups block until their batch is sent, so they are done concurrently
+   */
+  private static <T> List<Future<T>> concurrently(List<Callable<T>> lookups) {
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      return lookups.stream().map(executor::submit).toList();
+    }
+  }
+
+  private static Throwable failure(Future<?> lookup) {
+    var e = assertThrows(ExecutionException.class, lookup::get);
+    return e.getCause();
+  }
+
+  @Test
+  public void lookUpAFullBatchInOneQuery() throws Exception {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    stub.latestReleases.put("akka/akka-sdk", Optional.of(2L));
+    stub.latestReleases.put("akka/akka-http", Optional.of(3L));
+    var poller = poller(3, LONG_WAIT);
+
+    var lookups = concurrently(List.of(
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka"),
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka-sdk"),
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka-http")));
+
+    assertEquals(Optional.of(1L), lookups.get(0).get());
+    assertEquals(Optional.of(2L), lookups.get(1).get());
+    assertEquals(Optional.of(3L), lookups.get(2).get());
+    assertEquals(1, stub.requests.size());
+    assertEquals(3, stub.requests.getFirst().size());
+    assertEquals(List.of(TOKEN), stub.tokens);
+  }
+
+  @Test
+  public void sendAPartialBatchAfterTheMaxWait() {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    var poller = poller(100, Duration.ofMillis(50));
+
+    assertEquals(Optional.of(1L), poller.latestReleaseId(TOKEN, "akka", "akka"));
+    assertEquals(List.of(List.of("akka/akka")), stub.requests);
+  }
+
+  @Test
+  public void batchLookupsPerToken() throws Exception {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    stub.latestReleases.put("akka/akka-sdk", Optional.of(2L));
+    var poller = poller(2, Duration.ofMillis(200));
+
+    var lookups = concurrently(List.of(
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka"),
+        () -> poller.latestReleaseId("token-2", "akka", "akka-sdk")));
+
+    assertEquals(Optional.of(1L), lookups.get(0).get());
+    assertEquals(Optional.of(2L), lookups.get(1).get());
+    assertEquals(2, stub.requests.size());
+    assertTrue(stub.tokens.containsAll(List.of(TOKEN, "token-2")));
+  }
+
+  @Test
+  public void noLatestReleaseForARepositoryWithoutReleases() {
+    stub.latestReleases.put("akka/no-releases", Optional.empty());
+    var poller = poller(1, LONG_WAIT);
+
+    assertEquals(Optional.empty(), poller.latestReleaseId(TOKEN, "akka", "no-releases"));
+  }
+
+  @Test
+  public void failOnlyTheLookupsWithErrorsInAPartialResponse() throws Exception {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    stub.latestReleases.put("akka/akka-sdk", Optional.of(2L));
+    var poller = poller(3, LONG_WAIT);
+
+    var lookups = concurrently(List.of(
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka"),
+        () -> poller.latestReleaseId(TOKEN, "akka", "deleted"),
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka-sdk")));
+
+    assertEquals(Optional.of(1L), lookups.get(0).get());
+    assertInstanceOf(LatestReleaseBatchPoller.LookupFailedException.class, failure(lookups.get(1)));
+    assertEquals(Optional.of(2L), lookups.get(2).get());
+  }
+
+  @Test
+  public void failAllLookupsOfAFailedBatchSoThatTheyFallBackToRest() {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    stub.latestReleases.put("akka/akka-sdk", Optional.of(2L));
+    stub.status = 502;
+    var poller = poller(2, LONG_WAIT);
+
+    var lookups = concurrently(List.of(
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka"),
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka-sdk")));
+
+    for (var lookup : lookups) {
+      var failure = failure(lookup);
+      assertInstanceOf(LatestReleaseBatchPoller.LookupFailedException.class, failure);
+      assertTrue(failure.getMessage().contains("502"), failure.getMessage());
+    }
+  }
+
+  @Test
+  public void failAllLookupsOfARateLimitedBatchAsRateLimited() {
+    stub.latestReleases.put("akka/akka", Optional.of(1L));
+    stub.status = 429;
+    // what the rate limit headers of the response would say
+    stub.beforeResponding = () ->
+        rateLimiter.update(Optional.of(TOKEN), GitHubRateLimiter.Resource.GRAPHQL, Optional.of(5000L), 0, Instant.now().plus(Duration.ofMinutes(10)));
+    var poller = poller(1, LONG_WAIT);
+
+    var e = assertThrows(GitHubRateLimiter.RateLimitedException.class,
+        () -> poller.latestReleaseId(TOKEN, "akka", "akka"));
+    assertTrue(e.retryAfter().compareTo(Duration.ofMinutes(9)) > 0, e.retryAfter().toString());
+  }
+}
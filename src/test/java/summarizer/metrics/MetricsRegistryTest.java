@@ -0,0 +1,67 @@
+package summarizer.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MetricsRegistryTest {
+
+  private final MetricsRegistry registry = new MetricsRegistry();
+
+  @Test
+  public void writeCountersGaugesAndHistogramsInTheExpositionFormat() {
+    var counter = registry.counter("test_requests", "Requests by \"status\"", "status");
+    counter.add(3, "200");
+    registry.gauge("test_queue_depth", "Waiting requests", () -> 2);
+    var histogram = registry.histogram("test_duration_seconds", "Request duration\nin seconds", new double[] {1, 0.5}, "endpoint");
+    histogram.observe(0.25, "releases");
+    histogram.observe(0.75, "releases");
+    histogram.observe(2, "releases");
+
+    // families sorted by name, the base name on HELP and TYPE and the _total suffix only on the counter samples
+    assertEquals("""
+        # HELP test_duration_seconds Request duration\\nin seconds
+        # TYPE test_duration_seconds histogram
+        test_duration_seconds_bucket{endpoint="releases",le="0.5"} 1
+        test_duration_seconds_bucket{endpoint="releases",le="1"} 2
+        test_duration_seconds_bucket{endpoint="releases",le="+Inf"} 3
+        test_duration_seconds_sum{endpoint="releases"} 3
+        test_duration_seconds_count{endpoint="releases"} 3
+        # HELP test_queue_depth Waiting requests
+        # TYPE test_queue_depth gauge
+        test_queue_depth 2
+        # HELP test_requests Requests by "status"
+        # TYPE test_requests counter
+        test_requests_total{status="200"} 3
+        """, registry.scrape());
+  }
+
+  @Test
+  public void writeSuppliedCountersLikeCounters() {
+    registry.counter("test_cache_hits", "Cache hits", List.of("cache"), () -> Map.of(List.of("issue \"details\""), 7L));
+
+    assertEquals("""
+        # HELP test_cache_hits Cache hits
+        # TYPE test_cache_hits counter
+        test_cache_hits_total{cache="issue \\"details\\""} 7
+        """, registry.scrape());
+  }
+
+  @Test
+  public void rejectCounterNamesWithTheTotalSuffix() {
+    assertThrows(IllegalArgumentException.class, () -> registry.counter("test_requests_total", "Requests"));
+    assertThrows(IllegalArgumentException.class, () -> registry.counter("test_hits_total", "Hits", () -> 1));
+    assertEquals("", registry.scrape());
+  }
+
+  @Test
+  public void rejectRegisteringANameTwice() {
+    registry.counter("test_requests", "Requests");
+
+    assertThrows(IllegalArgumentException.class, () -> registry.gauge("test_requests", "Requests", () -> 1));
+  }
+}